@@ -0,0 +1,38 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix.jdk21;
+
+/**
+ * A function that may block while computing its result, such as by reading files
+ * or calling remote services, and may throw checked exceptions.
+ *
+ * @param <T> the input value type
+ * @param <R> the output value type
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface IxBlockingFunction<T, R> {
+
+    /**
+     * Applies the function to the given value.
+     * @param t the input value
+     * @return the output value
+     * @throws Exception the exception to be rethrown by the consumer,
+     * wrapped into a RuntimeException if checked
+     */
+    R apply(T t) throws Exception;
+}
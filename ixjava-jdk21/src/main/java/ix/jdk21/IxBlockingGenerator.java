@@ -0,0 +1,41 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix.jdk21;
+
+import ix.IxEmitter;
+
+/**
+ * A generator that may block while producing values, such as by reading files
+ * or calling remote services.
+ *
+ * @param <T> the value type generated
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface IxBlockingGenerator<T> {
+
+    /**
+     * Generates the values by calling the emitter's onNext(); returning from this
+     * method or calling onComplete() ends the sequence.
+     * <p>
+     * The emitter's onNext() blocks while the buffer between the generator and the
+     * consumer is full.
+     * @param emitter the emitter to signal values to
+     * @throws Exception the exception to be rethrown by the consumer
+     */
+    void generate(IxEmitter<T> emitter) throws Exception;
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix.jdk21;
+
+import java.io.Closeable;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.concurrent.*;
+
+import ix.Ix;
+import ix.IxBaseIterator;
+import ix.IxEmitter;
+
+/**
+ * Runs a blocking generator on a new virtual thread for each iterator() call and
+ * hands the generated values over to the consumer through a bounded queue.
+ *
+ * @param <T> the value type
+ */
+final class IxGenerateBlocking<T> extends Ix<T> {
+
+    final IxBlockingGenerator<T> generator;
+
+    final int bufferSize;
+
+    IxGenerateBlocking(IxBlockingGenerator<T> generator, int bufferSize) {
+        this.generator = generator;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        GenerateBlockingIterator<T> parent = new GenerateBlockingIterator<>(bufferSize);
+        Producer<T> producer = new Producer<>(generator, parent);
+        parent.thread = IxVirtualThreads.FACTORY.newThread(producer);
+        parent.thread.start();
+        return parent;
+    }
+
+    static final Object NULL = new Object();
+
+    static final Object COMPLETE = new Object();
+
+    /** How long the producer waits for space before checking if the consumer is still reachable. */
+    static final long PRODUCER_WAIT_MILLIS = 100L;
+
+    record ErrorSignal(Throwable error) { }
+
+    static final class Producer<T> implements Runnable, IxEmitter<T> {
+
+        final IxBlockingGenerator<T> generator;
+
+        final BlockingQueue<Object> queue;
+
+        final WeakReference<GenerateBlockingIterator<T>> consumer;
+
+        boolean completed;
+
+        Producer(IxBlockingGenerator<T> generator, GenerateBlockingIterator<T> consumer) {
+            this.generator = generator;
+            this.queue = consumer.queue;
+            this.consumer = new WeakReference<>(consumer);
+        }
+
+        @Override
+        public void run() {
+            Object last;
+            try {
+                generator.generate(this);
+                last = COMPLETE;
+            } catch (CancellationException ex) {
+                return;
+            } catch (Throwable ex) {
+                if (completed) {
+                    return;
+                }
+                last = new ErrorSignal(ex);
+            }
+            if (!completed) {
+                completed = true;
+                try {
+                    offer(last);
+                } catch (CancellationException ex) {
+                    // the consumer is gone, nobody is left to receive the last signal
+                }
+            }
+        }
+
+        @Override
+        public void onNext(T value) {
+            if (!completed) {
+                offer(value != null ? value : NULL);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!completed) {
+                completed = true;
+                offer(COMPLETE);
+            }
+        }
+
+        void offer(Object o) {
+            try {
+                while (!queue.offer(o, PRODUCER_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    GenerateBlockingIterator<T> c = consumer.get();
+                    if (c == null || c.cancelled) {
+                        throw new CancellationException();
+                    }
+                }
+            } catch (InterruptedException ex) {
+                throw new CancellationException();
+            }
+        }
+    }
+
+    static final class GenerateBlockingIterator<T> extends IxBaseIterator<T> implements Closeable {
+
+        final BlockingQueue<Object> queue;
+
+        volatile boolean cancelled;
+
+        Thread thread;
+
+        GenerateBlockingIterator(int bufferSize) {
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        protected boolean moveNext() {
+            if (cancelled) {
+                done = true;
+                return false;
+            }
+            Object o;
+            try {
+                o = queue.take();
+            } catch (InterruptedException ex) {
+                close();
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(ex);
+            }
+            if (o == COMPLETE) {
+                done = true;
+                return false;
+            }
+            if (o instanceof ErrorSignal e) {
+                done = true;
+                Throwable ex = e.error();
+                if (ex instanceof RuntimeException r) {
+                    throw r;
+                }
+                if (ex instanceof Error r) {
+                    throw r;
+                }
+                throw new RuntimeException(ex);
+            }
+            value = o == NULL ? null : (T)o;
+            hasValue = true;
+            return true;
+        }
+
+        /**
+         * Stops the generator by interrupting its virtual thread.
+         */
+        @Override
+        public void close() {
+            cancelled = true;
+            done = true;
+            thread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix.jdk21;
+
+import java.util.Objects;
+import java.util.concurrent.*;
+
+import ix.Ix;
+import ix.IxFunction;
+
+/**
+ * Operators running blocking user code on virtual threads and feeding the
+ * results to the pull side of Ix sequences through bounded handoffs.
+ * <p>
+ * Each blocking call gets its own virtual thread, so the concurrency of blocking
+ * lookups or file reads can be in the thousands without sizing a thread pool.
+ * @since 1.0
+ */
+public enum IxVirtualThreads {
+    ;
+
+    static final ThreadFactory FACTORY = Thread.ofVirtual().name("IxVirtual-", 1).factory();
+
+    /** Starts a new virtual thread for each task. */
+    static final Executor EXECUTOR = r -> FACTORY.newThread(r).start();
+
+    /**
+     * Returns an Executor that runs each task on a new virtual thread.
+     * @return the Executor instance
+     * @since 1.0
+     */
+    public static Executor executor() {
+        return EXECUTOR;
+    }
+
+    /**
+     * Maps the elements of the source via a possibly blocking function, each call running
+     * on its own virtual thread with at most concurrency calls in flight, and emits
+     * the results in the order of the source.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <T> the source value type
+     * @param <R> the result value type
+     * @param source the source sequence, not null
+     * @param mapper the function that receives an element and returns a value to be emitted, not null;
+     * checked exceptions it throws are rethrown wrapped into RuntimeException
+     * @param concurrency the maximum number of mapper calls in flight, positive
+     * @return the new Ix instance
+     * @throws NullPointerException if source or mapper is null
+     * @throws IllegalArgumentException if concurrency is non-positive
+     * @since 1.0
+     * @see Ix#parallelMap(IxFunction, int, Executor)
+     */
+    public static <T, R> Ix<R> mapBlocking(Iterable<T> source, IxBlockingFunction<? super T, ? extends R> mapper, int concurrency) {
+        return Ix.from(Objects.requireNonNull(source, "source is null")).parallelMap(unchecked(mapper), concurrency, EXECUTOR);
+    }
+
+    /**
+     * Maps the elements of the source via a possibly blocking function, each call running
+     * on its own virtual thread with at most concurrency calls in flight, and emits
+     * the results in the order the calls complete.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <T> the source value type
+     * @param <R> the result value type
+     * @param source the source sequence, not null
+     * @param mapper the function that receives an element and returns a value to be emitted, not null;
+     * checked exceptions it throws are rethrown wrapped into RuntimeException
+     * @param concurrency the maximum number of mapper calls in flight, positive
+     * @return the new Ix instance
+     * @throws NullPointerException if source or mapper is null
+     * @throws IllegalArgumentException if concurrency is non-positive
+     * @since 1.0
+     * @see Ix#parallelMapUnordered(IxFunction, int, Executor)
+     */
+    public static <T, R> Ix<R> mapBlockingUnordered(Iterable<T> source, IxBlockingFunction<? super T, ? extends R> mapper, int concurrency) {
+        return Ix.from(Objects.requireNonNull(source, "source is null")).parallelMapUnordered(unchecked(mapper), concurrency, EXECUTOR);
+    }
+
+    /**
+     * Runs the blocking generator on a new virtual thread for each iterator() call,
+     * buffering at most 128 values ahead of the consumer.
+     * <p>
+     * See {@link #generateBlocking(IxBlockingGenerator, int)} for details.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <T> the value type
+     * @param generator the generator to run, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if generator is null
+     * @since 1.0
+     */
+    public static <T> Ix<T> generateBlocking(IxBlockingGenerator<T> generator) {
+        return generateBlocking(generator, 128);
+    }
+
+    /**
+     * Runs the blocking generator on a new virtual thread for each iterator() call,
+     * buffering at most bufferSize values ahead of the consumer.
+     * <p>
+     * The generator's emitter blocks while the buffer is full. Exceptions thrown by
+     * the generator are rethrown by the result's iterator() after the values generated
+     * before them have been consumed.
+     * <p>
+     * The generator's thread is interrupted when the result's iterator() is closed via
+     * {@link java.io.Closeable#close()}; the emitter also stops the generator once the
+     * result's iterator() became unreachable.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <T> the value type
+     * @param generator the generator to run, not null
+     * @param bufferSize the maximum number of values generated ahead of the consumer, positive
+     * @return the new Ix instance
+     * @throws NullPointerException if generator is null
+     * @throws IllegalArgumentException if bufferSize is non-positive
+     * @since 1.0
+     */
+    public static <T> Ix<T> generateBlocking(IxBlockingGenerator<T> generator, int bufferSize) {
+        Objects.requireNonNull(generator, "generator is null");
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize > 0 required but it was " + bufferSize);
+        }
+        return new IxGenerateBlocking<>(generator, bufferSize);
+    }
+
+    static <T, R> IxFunction<T, R> unchecked(IxBlockingFunction<? super T, ? extends R> mapper) {
+        Objects.requireNonNull(mapper, "mapper is null");
+        return v -> {
+            try {
+                return mapper.apply(v);
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+}
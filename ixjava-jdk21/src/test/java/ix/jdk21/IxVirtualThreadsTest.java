@@ -0,0 +1,202 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix.jdk21;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.junit.*;
+
+import ix.Ix;
+
+public class IxVirtualThreadsTest {
+
+    @Test
+    public void mapBlocking() {
+        Ix<Integer> source = IxVirtualThreads.mapBlocking(Ix.range(1, 5), v -> {
+            Thread.sleep(6 - v);
+            return v * 10;
+        }, 3);
+
+        Assert.assertEquals(Arrays.asList(10, 20, 30, 40, 50), source.toList());
+    }
+
+    @Test
+    public void mapBlockingRunsOnVirtualThreads() {
+        List<Boolean> list = IxVirtualThreads.mapBlocking(Ix.range(1, 3), v -> Thread.currentThread().isVirtual(), 2).toList();
+
+        Assert.assertEquals(Arrays.asList(true, true, true), list);
+    }
+
+    @Test(timeout = 10000)
+    public void mapBlockingHighConcurrency() {
+        CountDownLatch latch = new CountDownLatch(1000);
+
+        // every call blocks until all 1000 calls are in flight at once
+        List<Integer> list = IxVirtualThreads.mapBlocking(Ix.range(0, 1000), v -> {
+            latch.countDown();
+            latch.await();
+            return v;
+        }, 1000).toList();
+
+        Assert.assertEquals(Ix.range(0, 1000).toList(), list);
+    }
+
+    @Test
+    public void mapBlockingUnordered() {
+        List<Integer> list = IxVirtualThreads.mapBlockingUnordered(Ix.range(1, 5), v -> {
+            Thread.sleep(v);
+            return v;
+        }, 2).toList();
+
+        Collections.sort(list);
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5), list);
+    }
+
+    @Test
+    public void mapBlockingError() {
+        try {
+            IxVirtualThreads.mapBlocking(Ix.range(1, 5), v -> {
+                throw new IOException("Forced failure");
+            }, 2).toList();
+            Assert.fail("Should have thrown");
+        } catch (RuntimeException ex) {
+            Assert.assertTrue(ex.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void generateBlocking() throws IOException {
+        Ix<Integer> source = IxVirtualThreads.generateBlocking(e -> {
+            for (int i = 1; i <= 5; i++) {
+                e.onNext(i);
+            }
+        }, 2);
+
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5), source.toList());
+
+        Iterator<Integer> it = source.iterator();
+        it.next();
+        try {
+            it.remove();
+            Assert.fail("Should have thrown");
+        } catch (UnsupportedOperationException ex) {
+            // expected
+        }
+        ((Closeable)it).close();
+    }
+
+    @Test
+    public void generateBlockingOnComplete() {
+        Assert.assertEquals(Arrays.asList(1, null), IxVirtualThreads.<Integer>generateBlocking(e -> {
+            e.onNext(1);
+            e.onNext(null);
+            e.onComplete();
+            e.onNext(3);
+        }).toList());
+    }
+
+    @Test
+    public void generateBlockingLong() {
+        Assert.assertEquals(Ix.range(0, 100000).toList(), IxVirtualThreads.<Integer>generateBlocking(e -> {
+            for (int i = 0; i < 100000; i++) {
+                e.onNext(i);
+            }
+        }, 16).toList());
+    }
+
+    @Test
+    public void generateBlockingRunsOnVirtualThread() {
+        Assert.assertEquals(Arrays.asList(true), IxVirtualThreads.<Boolean>generateBlocking(e -> e.onNext(Thread.currentThread().isVirtual())).toList());
+    }
+
+    @Test
+    public void generateBlockingError() {
+        Iterator<Integer> it = IxVirtualThreads.<Integer>generateBlocking(e -> {
+            e.onNext(1);
+            throw new IOException("Forced failure");
+        }).iterator();
+
+        Assert.assertEquals(1, it.next().intValue());
+        try {
+            it.hasNext();
+            Assert.fail("Should have thrown");
+        } catch (RuntimeException ex) {
+            Assert.assertTrue(ex.getCause() instanceof IOException);
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void generateBlockingClose() throws Exception {
+        AtomicInteger produced = new AtomicInteger();
+        CountDownLatch stopped = new CountDownLatch(1);
+        Iterator<Integer> it = IxVirtualThreads.<Integer>generateBlocking(e -> {
+            try {
+                for (int i = 1; ; i++) {
+                    e.onNext(i);
+                    produced.incrementAndGet();
+                }
+            } finally {
+                stopped.countDown();
+            }
+        }, 2).iterator();
+
+        Assert.assertEquals(1, it.next().intValue());
+
+        ((Closeable)it).close();
+
+        Assert.assertFalse(it.hasNext());
+
+        stopped.await();
+        Assert.assertTrue("" + produced.get(), produced.get() <= 4);
+    }
+
+    @Test(timeout = 5000)
+    public void generateBlockingCloseSwallowedByGenerator() throws Exception {
+        List<Throwable> uncaught = new CopyOnWriteArrayList<>();
+        Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((t, ex) -> uncaught.add(ex));
+        try {
+            Iterator<Integer> it = IxVirtualThreads.<Integer>generateBlocking(e -> {
+                try {
+                    for (int i = 1; ; i++) {
+                        e.onNext(i);
+                    }
+                } catch (CancellationException ex) {
+                    // the generator returns normally after the cancellation
+                }
+            }, 2).iterator();
+
+            Assert.assertEquals(1, it.next().intValue());
+
+            ((Closeable)it).close();
+
+            ((IxGenerateBlocking.GenerateBlockingIterator<Integer>)it).thread.join();
+
+            Assert.assertEquals(Collections.emptyList(), uncaught);
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(handler);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void generateBlockingBufferSizeNonPositive() {
+        IxVirtualThreads.generateBlocking(e -> { }, 0);
+    }
+}
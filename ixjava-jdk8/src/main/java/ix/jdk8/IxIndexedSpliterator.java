@@ -0,0 +1,83 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix.jdk8;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * A Spliterator over a random access List view of a sequence which splits its index range in half.
+ *
+ * @param <T> the value type
+ */
+final class IxIndexedSpliterator<T> implements Spliterator<T> {
+
+    final List<T> source;
+
+    int index;
+
+    final int fence;
+
+    IxIndexedSpliterator(List<T> source, int index, int fence) {
+        this.source = source;
+        this.index = index;
+        this.fence = fence;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        int i = index;
+        if (i < fence) {
+            index = i + 1;
+            action.accept(source.get(i));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        List<T> s = source;
+        int f = fence;
+        int i = index;
+        index = f;
+        for (; i < f; i++) {
+            action.accept(s.get(i));
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        int lo = index;
+        int mid = (lo + fence) >>> 1;
+        if (lo >= mid) {
+            return null;
+        }
+        index = mid;
+        return new IxIndexedSpliterator<T>(source, lo, mid);
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix.jdk8;
+
+import java.util.*;
+import java.util.stream.*;
+
+import ix.Ix;
+import ix.IxIntrospection;
+
+/**
+ * Bridges Ix sequences and the Java 8 Stream API.
+ * <p>
+ * Sequences with a known number of elements accessible by index (such as
+ * {@link Ix#range(int, int)}, {@link Ix#fromArray(Object...)}, {@link Ix#from(Iterable)}
+ * over a random access List and the {@code map}, {@code skip} and {@code take} operators
+ * applied to them) are turned into SIZED and SUBSIZED Spliterators that split
+ * their index range; other sequences are split by buffering batches of elements.
+ * @since 1.0
+ */
+public enum IxStreams {
+    ;
+
+    /**
+     * Returns a Spliterator over the elements of the given sequence.
+     * @param <T> the value type
+     * @param source the source sequence, not null
+     * @return the new Spliterator instance
+     * @throws NullPointerException if source is null
+     * @since 1.0
+     */
+    public static <T> Spliterator<T> spliterator(Iterable<T> source) {
+        List<T> indexed = IxIntrospection.indexedView(Objects.requireNonNull(source, "source is null"));
+        if (indexed != null) {
+            return new IxIndexedSpliterator<T>(indexed, 0, indexed.size());
+        }
+        Collection<T> c = IxIntrospection.collection(source);
+        if (c != null) {
+            return c.spliterator();
+        }
+        int size = IxIntrospection.knownSize(source);
+        if (size >= 0) {
+            return Spliterators.spliterator(source.iterator(), size, Spliterator.ORDERED);
+        }
+        return Spliterators.spliteratorUnknownSize(source.iterator(), Spliterator.ORDERED);
+    }
+
+    /**
+     * Returns a sequential Stream over the elements of the given sequence.
+     * @param <T> the value type
+     * @param source the source sequence, not null
+     * @return the new Stream instance
+     * @throws NullPointerException if source is null
+     * @since 1.0
+     */
+    public static <T> Stream<T> stream(Iterable<T> source) {
+        return StreamSupport.stream(spliterator(source), false);
+    }
+
+    /**
+     * Returns a parallel Stream over the elements of the given sequence.
+     * @param <T> the value type
+     * @param source the source sequence, not null
+     * @return the new Stream instance
+     * @throws NullPointerException if source is null
+     * @since 1.0
+     */
+    public static <T> Stream<T> parallelStream(Iterable<T> source) {
+        return StreamSupport.stream(spliterator(source), true);
+    }
+}
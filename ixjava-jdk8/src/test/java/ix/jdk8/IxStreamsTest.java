@@ -0,0 +1,114 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix.jdk8;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import org.junit.*;
+
+import ix.Ix;
+
+public class IxStreamsTest {
+
+    @Test
+    public void rangeSplits() {
+        Spliterator<Integer> s = IxStreams.spliterator(Ix.range(1, 10));
+
+        Assert.assertTrue(s.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        Assert.assertEquals(10, s.getExactSizeIfKnown());
+
+        Spliterator<Integer> t = s.trySplit();
+
+        Assert.assertNotNull(t);
+        Assert.assertEquals(5, t.getExactSizeIfKnown());
+        Assert.assertEquals(5, s.getExactSizeIfKnown());
+
+        List<Integer> list = new ArrayList<>();
+        t.forEachRemaining(list::add);
+        s.forEachRemaining(list::add);
+
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), list);
+    }
+
+    @Test
+    public void arrayStream() {
+        Assert.assertEquals(Arrays.asList(1, 2, 3),
+                IxStreams.stream(Ix.fromArray(1, 2, 3)).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void randomAccessListSplits() {
+        Spliterator<Integer> s = IxStreams.spliterator(Ix.from(Arrays.asList(1, 2, 3, 4)));
+
+        Assert.assertTrue(s.hasCharacteristics(Spliterator.SUBSIZED));
+        Assert.assertNotNull(s.trySplit());
+    }
+
+    @Test
+    public void sizedOperators() {
+        Ix<Integer> source = Ix.range(0, 100).map(v -> v * 2).skip(10).take(20);
+
+        Spliterator<Integer> s = IxStreams.spliterator(source);
+
+        Assert.assertTrue(s.hasCharacteristics(Spliterator.SUBSIZED));
+        Assert.assertEquals(20, s.getExactSizeIfKnown());
+
+        Assert.assertEquals(source.toList(), IxStreams.stream(source).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void skipBeyondSize() {
+        Spliterator<Integer> s = IxStreams.spliterator(Ix.range(0, 5).skip(10));
+
+        Assert.assertEquals(0, s.getExactSizeIfKnown());
+        Assert.assertFalse(s.tryAdvance(v -> Assert.fail()));
+    }
+
+    @Test
+    public void parallel() {
+        long sum = IxStreams.parallelStream(Ix.range(1, 100000)).mapToLong(v -> v).sum();
+
+        Assert.assertEquals(100000L * 100001L / 2, sum);
+    }
+
+    @Test
+    public void parallelOrdered() {
+        List<Integer> list = IxStreams.parallelStream(Ix.range(0, 10000).map(v -> v + 1))
+                .collect(Collectors.toList());
+
+        Assert.assertEquals(Ix.range(1, 10000).toList(), list);
+    }
+
+    @Test
+    public void unknownSize() {
+        Ix<Integer> source = Ix.range(1, 10).filter(v -> v % 2 == 0);
+
+        Spliterator<Integer> s = IxStreams.spliterator(source);
+
+        Assert.assertFalse(s.hasCharacteristics(Spliterator.SIZED));
+
+        Assert.assertEquals(Arrays.asList(2, 4, 6, 8, 10), IxStreams.parallelStream(source).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void collection() {
+        Set<Integer> set = new LinkedHashSet<>(Arrays.asList(3, 1, 2));
+
+        Assert.assertEquals(Arrays.asList(3, 1, 2), IxStreams.stream(Ix.from(set)).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.IOException;
+import java.nio.*;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Decodes primitive values from a ByteBuffer or ReadableByteChannel without
+ * boxing them; see {@link Ix#binaryCursor(ByteBuffer)} and
+ * {@link Ix#binaryCursor(ReadableByteChannel, ByteOrder)}.
+ * <p>
+ * The fixed-width values are decoded in the cursor's byte order, the variable-length
+ * values are unsigned LEB128 varints (7 bits per byte, least significant group first).
+ * Reading a value past the end of the data throws a BufferUnderflowException.
+ * <p>
+ * Usage:
+ * <pre>
+ * BinaryCursor c = Ix.binaryCursor(channel, ByteOrder.LITTLE_ENDIAN);
+ * long value = 0L;
+ * while (c.hasRemaining()) {
+ *     value += c.nextVarLongZigZag();
+ *     process(value);
+ * }
+ * </pre>
+ * @since 1.0
+ */
+public final class BinaryCursor {
+
+    /** The default size of the blocks read from a channel. */
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    /** The maximum number of bytes of a 64 bit varint. */
+    static final int MAX_VARLONG_BYTES = 10;
+
+    final ReadableByteChannel channel;
+
+    final ByteBuffer buffer;
+
+    boolean eof;
+
+    BinaryCursor(ByteBuffer source) {
+        this.channel = null;
+        this.buffer = source.duplicate().order(source.order());
+        this.eof = true;
+    }
+
+    BinaryCursor(ReadableByteChannel channel, ByteOrder order, int blockSize) {
+        this.channel = channel;
+        ByteBuffer b = ByteBuffer.allocateDirect(Math.max(blockSize, MAX_VARLONG_BYTES)).order(order);
+        b.limit(0);
+        this.buffer = b;
+    }
+
+    /**
+     * Makes sure at least the given number of bytes are available in the buffer
+     * if the data has that many bytes left.
+     * @param n the number of bytes required
+     * @return true if at least n bytes are available
+     */
+    boolean request(int n) {
+        ByteBuffer b = buffer;
+        if (b.remaining() >= n) {
+            return true;
+        }
+        if (eof) {
+            return false;
+        }
+        b.compact();
+        try {
+            while (b.position() < n) {
+                if (channel.read(b) < 0) {
+                    eof = true;
+                    break;
+                }
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            b.flip();
+        }
+        return b.remaining() >= n;
+    }
+
+    ByteBuffer require(int n) {
+        if (!request(n)) {
+            throw new BufferUnderflowException();
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns true if there is at least one more byte to decode; reads the
+     * next block from the channel if necessary.
+     * @return true if there are more bytes to decode
+     */
+    public boolean hasRemaining() {
+        return request(1);
+    }
+
+    /**
+     * Decodes the next byte.
+     * @return the next byte
+     * @throws BufferUnderflowException if there are no more bytes
+     */
+    public byte nextByte() {
+        return require(1).get();
+    }
+
+    /**
+     * Decodes the next 4 bytes as an int.
+     * @return the next int
+     * @throws BufferUnderflowException if there are less than 4 bytes left
+     */
+    public int nextInt() {
+        return require(4).getInt();
+    }
+
+    /**
+     * Decodes the next 8 bytes as a long.
+     * @return the next long
+     * @throws BufferUnderflowException if there are less than 8 bytes left
+     */
+    public long nextLong() {
+        return require(8).getLong();
+    }
+
+    /**
+     * Decodes the next 8 bytes as a double.
+     * @return the next double
+     * @throws BufferUnderflowException if there are less than 8 bytes left
+     */
+    public double nextDouble() {
+        return require(8).getDouble();
+    }
+
+    /**
+     * Decodes the next unsigned LEB128 varint as an int.
+     * @return the next int
+     * @throws BufferUnderflowException if the data ends within the varint
+     * @throws IllegalStateException if the value doesn't fit into 32 bits
+     */
+    public int nextVarInt() {
+        long v = nextVarLong();
+        if ((v >>> 32) != 0L) {
+            throw new IllegalStateException("Varint doesn't fit into an int: " + v);
+        }
+        return (int)v;
+    }
+
+    /**
+     * Decodes the next unsigned LEB128 varint of at most 10 bytes as a long.
+     * @return the next long
+     * @throws BufferUnderflowException if the data ends within the varint
+     * @throws IllegalStateException if the varint is longer than 10 bytes
+     */
+    public long nextVarLong() {
+        ByteBuffer b = buffer;
+        if (b.remaining() < MAX_VARLONG_BYTES && !request(MAX_VARLONG_BYTES)) {
+            // less than 10 bytes until the end, the varint may still fit
+            if (!b.hasRemaining()) {
+                throw new BufferUnderflowException();
+            }
+        }
+        int p = b.position();
+        int limit = Math.min(b.limit(), p + MAX_VARLONG_BYTES);
+        long v = 0L;
+        int shift = 0;
+        while (p < limit) {
+            byte c = b.get(p++);
+            v |= (long)(c & 0x7F) << shift;
+            if (c >= 0) {
+                b.position(p);
+                return v;
+            }
+            shift += 7;
+        }
+        if (p - b.position() == MAX_VARLONG_BYTES) {
+            throw new IllegalStateException("Malformed varint longer than " + MAX_VARLONG_BYTES + " bytes");
+        }
+        throw new BufferUnderflowException();
+    }
+
+    /**
+     * Decodes the next ZigZag encoded LEB128 varint as a signed long; small negative
+     * values, such as the differences between subsequent values, take few bytes in
+     * this encoding.
+     * @return the next long
+     * @throws BufferUnderflowException if the data ends within the varint
+     * @throws IllegalStateException if the varint is longer than 10 bytes
+     */
+    public long nextVarLongZigZag() {
+        long v = nextVarLong();
+        return (v >>> 1) ^ -(v & 1L);
+    }
+
+    /**
+     * Returns the byte order of the fixed-width values.
+     * @return the byte order
+     */
+    public ByteOrder order() {
+        return buffer.order();
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * A reusable DataInput reading a region of a big-endian ByteBuffer with absolute
+ * gets, so the buffer itself is not modified and can be shared.
+ */
+final class ByteBufferDataInput implements DataInput {
+
+    ByteBuffer buffer;
+
+    int index;
+
+    int end;
+
+    /**
+     * Sets the region to read.
+     * @param buffer the buffer to read
+     * @param index the index of the first byte to read
+     * @param end the index after the last byte to read
+     * @return this
+     */
+    ByteBufferDataInput reset(ByteBuffer buffer, int index, int end) {
+        this.buffer = buffer;
+        this.index = index;
+        this.end = end;
+        return this;
+    }
+
+    int advance(int n) throws EOFException {
+        int i = index;
+        if (end - i < n) {
+            throw new EOFException();
+        }
+        index = i + n;
+        return i;
+    }
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        int i = advance(len);
+        ByteBuffer d = buffer.duplicate();
+        d.position(i);
+        d.get(b, off, len);
+    }
+
+    @Override
+    public int skipBytes(int n) {
+        int k = Math.max(0, Math.min(n, end - index));
+        index += k;
+        return k;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        return buffer.get(advance(1));
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return readByte() & 0xFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return buffer.getShort(advance(2));
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return buffer.getChar(advance(2));
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        return buffer.getInt(advance(4));
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return buffer.getLong(advance(8));
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return buffer.getFloat(advance(4));
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return buffer.getDouble(advance(8));
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        if (index == end) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        while (index != end) {
+            int c = readUnsignedByte();
+            if (c == '\n') {
+                break;
+            }
+            if (c == '\r') {
+                if (index != end && buffer.get(index) == '\n') {
+                    index++;
+                }
+                break;
+            }
+            sb.append((char)c);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+}
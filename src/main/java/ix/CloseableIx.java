@@ -0,0 +1,37 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.Closeable;
+
+/**
+ * An Ix sequence holding resources beyond the lifetime of its iterator() consumers,
+ * such as the temporary file of {@code replay(memoryLimit, codec)}, which are
+ * released by close().
+ *
+ * @param <T> the value type
+ */
+public abstract class CloseableIx<T> extends Ix<T> implements Closeable {
+
+    /**
+     * Releases the resources held by this sequence; calling it again has no effect.
+     * <p>
+     * After closing, iterator() and the iterators still in use throw an IllegalStateException.
+     */
+    @Override
+    public abstract void close();
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+/**
+ * A reusable view of one delimited (CSV, TSV) line whose fields are located
+ * without copying the characters; see {@link Ix#delimitedRecords(Iterable, char, char)}.
+ * <p>
+ * The same instance is emitted for every line of an iterator(), so its contents
+ * are valid only until the next call to hasNext() or next(); call {@link #toArray()}
+ * to keep the values of a record.
+ * <p>
+ * Fields enclosed in quote characters may contain the delimiter, and a quote character inside
+ * them is written twice; such a field is unescaped into a String when accessed. When a projection
+ * of columns is used, the column indexes of the accessors refer to the projected columns.
+ * @since 1.0
+ */
+public final class DelimitedRecord {
+
+    /** The exact powers of ten as doubles used by the fast path of getDouble. */
+    static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    final char delimiter;
+
+    final char quoteChar;
+
+    final boolean quoting;
+
+    /** The requested source columns in projection order, null if all columns are needed. */
+    final int[] columns;
+
+    /** The highest requested source column, Integer.MAX_VALUE if all columns are needed. */
+    final int maxColumn;
+
+    CharSequence line;
+
+    /** The field boundaries of the line by source column. */
+    int[] starts;
+
+    int[] ends;
+
+    /** Bit 0: the field was quoted, bit 1: the field contains escaped quotes. */
+    byte[] flags;
+
+    int count;
+
+    DelimitedRecord(char delimiter, char quoteChar, boolean quoting, int[] columns) {
+        this.delimiter = delimiter;
+        this.quoteChar = quoteChar;
+        this.quoting = quoting;
+        this.columns = columns;
+        int max = Integer.MAX_VALUE;
+        if (columns != null) {
+            max = -1;
+            for (int c : columns) {
+                max = Math.max(max, c);
+            }
+        }
+        this.maxColumn = max;
+        int n = columns != null ? max + 1 : 16;
+        this.starts = new int[n];
+        this.ends = new int[n];
+        this.flags = new byte[n];
+    }
+
+    /**
+     * Locates the fields of the given line, up to the highest requested column.
+     * @param line the line to parse
+     */
+    void reset(CharSequence line) {
+        this.line = line;
+        int n = line.length();
+        char delim = delimiter;
+        char quote = quoteChar;
+        boolean q = quoting;
+        int max = maxColumn;
+        int c = 0;
+        int i = 0;
+        for (;;) {
+            if (c == starts.length) {
+                grow();
+            }
+            byte f = 0;
+            int start;
+            int end;
+            if (q && i < n && line.charAt(i) == quote) {
+                f = 1;
+                start = ++i;
+                for (;;) {
+                    if (i >= n) {
+                        end = n;
+                        break;
+                    }
+                    if (line.charAt(i) == quote) {
+                        if (i + 1 < n && line.charAt(i + 1) == quote) {
+                            f = 3;
+                            i += 2;
+                            continue;
+                        }
+                        end = i++;
+                        break;
+                    }
+                    i++;
+                }
+                while (i < n && line.charAt(i) != delim) {
+                    i++;
+                }
+            } else {
+                start = i;
+                while (i < n && line.charAt(i) != delim) {
+                    i++;
+                }
+                end = i;
+            }
+            starts[c] = start;
+            ends[c] = end;
+            flags[c] = f;
+            c++;
+            if (i >= n || c > max) {
+                break;
+            }
+            i++;
+        }
+        count = c;
+    }
+
+    void grow() {
+        int n = starts.length * 2;
+        int[] s = new int[n];
+        System.arraycopy(starts, 0, s, 0, starts.length);
+        starts = s;
+        int[] e = new int[n];
+        System.arraycopy(ends, 0, e, 0, ends.length);
+        ends = e;
+        byte[] f = new byte[n];
+        System.arraycopy(flags, 0, f, 0, flags.length);
+        flags = f;
+    }
+
+    /**
+     * Returns the source column index of the given column, -1 if the line has no such column.
+     * @param column the column index
+     * @return the source column index or -1
+     */
+    int sourceColumn(int column) {
+        int[] cols = columns;
+        if (cols != null) {
+            if (column < 0 || column >= cols.length) {
+                throw new IndexOutOfBoundsException("column: " + column + ", projected columns: " + cols.length);
+            }
+            column = cols[column];
+        } else if (column < 0) {
+            throw new IndexOutOfBoundsException("column: " + column);
+        }
+        return column < count ? column : -1;
+    }
+
+    int checkedSourceColumn(int column) {
+        int c = sourceColumn(column);
+        if (c < 0) {
+            throw new IndexOutOfBoundsException("column: " + column + ", fields: " + count);
+        }
+        return c;
+    }
+
+    /**
+     * Returns the number of columns accessible: the number of fields of the line or,
+     * with a projection, the number of projected columns.
+     * @return the number of columns
+     */
+    public int size() {
+        int[] cols = columns;
+        return cols != null ? cols.length : count;
+    }
+
+    /**
+     * Returns true if the line has the given column.
+     * @param column the column index
+     * @return true if the line has the given column
+     */
+    public boolean has(int column) {
+        return sourceColumn(column) >= 0;
+    }
+
+    /**
+     * Returns the whole line.
+     * @return the line
+     */
+    public CharSequence line() {
+        return line;
+    }
+
+    /**
+     * Returns the given column as a view of the line's characters, or as a String if
+     * the field contained escaped quote characters.
+     * @param column the column index
+     * @return the field's characters without the enclosing quote characters
+     * @throws IndexOutOfBoundsException if the line has no such column
+     */
+    public CharSequence get(int column) {
+        int c = checkedSourceColumn(column);
+        if ((flags[c] & 2) != 0) {
+            return unescape(c);
+        }
+        return new IxSplitView.CharSlice(line, starts[c], ends[c]);
+    }
+
+    /**
+     * Returns the given column as a String.
+     * @param column the column index
+     * @return the field's value without the enclosing quote characters
+     * @throws IndexOutOfBoundsException if the line has no such column
+     */
+    public String getString(int column) {
+        int c = checkedSourceColumn(column);
+        if ((flags[c] & 2) != 0) {
+            return unescape(c);
+        }
+        return line.subSequence(starts[c], ends[c]).toString();
+    }
+
+    String unescape(int c) {
+        CharSequence s = line;
+        char quote = quoteChar;
+        int end = ends[c];
+        StringBuilder sb = new StringBuilder(end - starts[c]);
+        for (int i = starts[c]; i < end; i++) {
+            char ch = s.charAt(i);
+            sb.append(ch);
+            if (ch == quote) {
+                i++;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parses the given column as a decimal int without copying its characters.
+     * @param column the column index
+     * @return the parsed value
+     * @throws IndexOutOfBoundsException if the line has no such column
+     * @throws NumberFormatException if the field is not a valid int
+     */
+    public int getInt(int column) {
+        long v = getLong(column);
+        if (v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Value out of int range: " + v);
+        }
+        return (int)v;
+    }
+
+    /**
+     * Parses the given column as a decimal long without copying its characters.
+     * @param column the column index
+     * @return the parsed value
+     * @throws IndexOutOfBoundsException if the line has no such column
+     * @throws NumberFormatException if the field is not a valid long
+     */
+    public long getLong(int column) {
+        int c = checkedSourceColumn(column);
+        CharSequence s = line;
+        int i = starts[c];
+        int end = ends[c];
+        if (i == end) {
+            throw new NumberFormatException("Empty field in column " + column);
+        }
+        boolean negative = false;
+        char ch = s.charAt(i);
+        if (ch == '-' || ch == '+') {
+            negative = ch == '-';
+            if (++i == end) {
+                throw numberFormat(c);
+            }
+        }
+        // accumulate negatively to reach Long.MIN_VALUE
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multLimit = limit / 10;
+        long result = 0L;
+        for (; i < end; i++) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9 || result < multLimit) {
+                throw numberFormat(c);
+            }
+            result *= 10;
+            if (result < limit + d) {
+                throw numberFormat(c);
+            }
+            result -= d;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parses the given column as a double; plain decimals with at most 15 significant
+     * digits are parsed without copying the characters, other forms via
+     * {@link Double#parseDouble(String)}.
+     * @param column the column index
+     * @return the parsed value
+     * @throws IndexOutOfBoundsException if the line has no such column
+     * @throws NumberFormatException if the field is not a valid double
+     */
+    public double getDouble(int column) {
+        int c = checkedSourceColumn(column);
+        CharSequence s = line;
+        int i = starts[c];
+        int end = ends[c];
+        int j = i;
+        boolean negative = false;
+        if (j < end && (s.charAt(j) == '-' || s.charAt(j) == '+')) {
+            negative = s.charAt(j) == '-';
+            j++;
+        }
+        int numberStart = j;
+        long mantissa = 0L;
+        int digits = 0;
+        int fraction = 0;
+        boolean dot = false;
+        boolean fast = j < end;
+        for (; j < end; j++) {
+            char ch = s.charAt(j);
+            if (ch >= '0' && ch <= '9') {
+                if (mantissa != 0L || ch != '0') {
+                    digits++;
+                }
+                mantissa = mantissa * 10 + (ch - '0');
+                if (dot) {
+                    fraction++;
+                }
+            } else if (ch == '.' && !dot) {
+                dot = true;
+            } else {
+                fast = false;
+                break;
+            }
+        }
+        // a mantissa below 2^53 and an exact power of ten give a correctly rounded quotient
+        if (fast && digits <= 15 && fraction < POWERS_OF_TEN.length && j - numberStart > (dot ? 1 : 0)) {
+            double d = mantissa / POWERS_OF_TEN[fraction];
+            return negative ? -d : d;
+        }
+        return Double.parseDouble(s.subSequence(i, end).toString());
+    }
+
+    NumberFormatException numberFormat(int c) {
+        return new NumberFormatException("For input string: \"" + line.subSequence(starts[c], ends[c]) + "\"");
+    }
+
+    /**
+     * Returns the values of the accessible columns as a new array of Strings.
+     * @return the new array
+     */
+    public String[] toArray() {
+        int n = size();
+        String[] result = new String[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = has(i) ? getString(i) : null;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "DelimitedRecord[" + line + "]";
+    }
+}
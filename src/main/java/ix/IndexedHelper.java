@@ -0,0 +1,209 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+
+/**
+ * Utility methods to view sequences as IxIndexed where the elements
+ * can be accessed by index without iterating the sequence.
+ */
+enum IndexedHelper {
+    ;
+
+    /**
+     * Returns an IxIndexed view of the given sequence or null if the sequence
+     * doesn't support accessing its elements by index.
+     * <p>
+     * Supported are the IxIndexed sources (range, fromArray, fromMaterialized, mappedRecords), random access Lists
+     * and the map, skip and take operators applied to them.
+     * @param <T> the value type
+     * @param source the source sequence
+     * @return the indexed view or null
+     */
+    @SuppressWarnings("unchecked")
+    static <T> IxIndexed<T> indexed(Iterable<T> source) {
+        IxIndexed<T> direct = direct(source);
+        if (direct != null) {
+            return direct;
+        }
+        if (source instanceof IxWrapper) {
+            source = ((IxWrapper<T>)source).source;
+        }
+        if (source instanceof List && source instanceof RandomAccess) {
+            return new ListIndexed<T>((List<T>)source);
+        }
+        if (source instanceof IxMap) {
+            IxMap<Object, T> m = (IxMap<Object, T>)source;
+            IxIndexed<Object> inner = indexed(m.source);
+            if (inner != null) {
+                return new MapIndexed<Object, T>(inner, m.mapper);
+            }
+            return null;
+        }
+        if (source instanceof IxTake) {
+            IxTake<T> t = (IxTake<T>)source;
+            IxIndexed<T> inner = indexed(t.source);
+            if (inner != null) {
+                return new SliceIndexed<T>(inner, 0, t.n);
+            }
+            return null;
+        }
+        if (source instanceof IxSkip) {
+            IxSkip<T> s = (IxSkip<T>)source;
+            IxIndexed<T> inner = indexed(s.source);
+            if (inner != null) {
+                return new SliceIndexed<T>(inner, s.n, Integer.MAX_VALUE);
+            }
+            return null;
+        }
+        return null;
+    }
+
+    /**
+     * Returns an IxIndexed view of the given sequence if it is an IxIndexed source
+     * (range, fromArray, fromMaterialized) or a mappedRecords source with at most
+     * Integer.MAX_VALUE records, null otherwise.
+     * <p>
+     * Unlike indexed(), this doesn't look through any operators.
+     * @param <T> the value type
+     * @param source the source sequence
+     * @return the indexed view or null
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static <T> IxIndexed<T> direct(Iterable<T> source) {
+        if (source instanceof IxIndexed) {
+            return (IxIndexed<T>)source;
+        }
+        if (source instanceof IxMappedRecords) {
+            return ((IxMappedRecords)source).indexed();
+        }
+        return null;
+    }
+
+    static final class ListIndexed<T> implements IxIndexed<T> {
+        final List<T> list;
+
+        ListIndexed(List<T> list) {
+            this.list = list;
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public T get(int index) {
+            return list.get(index);
+        }
+
+        @Override
+        public Iterator<T> iterator(int from, int to) {
+            return new IndexedIterator<T>(this, from, to);
+        }
+    }
+
+    static final class MapIndexed<T, R> implements IxIndexed<R> {
+        final IxIndexed<T> source;
+
+        final IxFunction<? super T, ? extends R> mapper;
+
+        MapIndexed(IxIndexed<T> source, IxFunction<? super T, ? extends R> mapper) {
+            this.source = source;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public int size() {
+            return source.size();
+        }
+
+        @Override
+        public R get(int index) {
+            return mapper.apply(source.get(index));
+        }
+
+        @Override
+        public Iterator<R> iterator(int from, int to) {
+            return new IndexedIterator<R>(this, from, to);
+        }
+    }
+
+    static final class SliceIndexed<T> implements IxIndexed<T> {
+        final IxIndexed<T> source;
+
+        final int offset;
+
+        final int limit;
+
+        SliceIndexed(IxIndexed<T> source, int offset, int limit) {
+            this.source = source;
+            this.offset = offset;
+            this.limit = limit;
+        }
+
+        @Override
+        public int size() {
+            return Math.max(0, Math.min(source.size() - offset, limit));
+        }
+
+        @Override
+        public T get(int index) {
+            return source.get(offset + index);
+        }
+
+        @Override
+        public Iterator<T> iterator(int from, int to) {
+            return new IndexedIterator<T>(this, from, to);
+        }
+    }
+
+    static final class IndexedIterator<T> implements Iterator<T> {
+        final IxIndexed<T> source;
+
+        final int end;
+
+        int index;
+
+        IndexedIterator(IxIndexed<T> source, int start, int end) {
+            this.source = source;
+            this.index = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index != end;
+        }
+
+        @Override
+        public T next() {
+            int i = index;
+            if (i != end) {
+                index = i + 1;
+                return source.get(i);
+            }
+            throw new NoSuchElementException();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
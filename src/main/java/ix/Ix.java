@@ -16,8 +16,13 @@
 
 package ix;
 
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.*;
+import java.nio.charset.Charset;
 import java.util.*;
-import java.util.concurrent.Callable;
+import java.util.concurrent.*;
 
 /**
  * Base class and entry point for fluent Iterables.
@@ -31,6 +36,98 @@ import java.util.concurrent.Callable;
  */
 public abstract class Ix<T> implements Iterable<T> {
 
+    /**
+     * Returns a BinaryCursor that decodes primitive values from the remaining bytes of the
+     * given ByteBuffer, in the buffer's byte order, without boxing them.
+     * <p>
+     * The cursor works on a duplicate of the buffer, thus the position of the buffer
+     * is not changed.
+     * @param buffer the buffer to decode, not null
+     * @return the new BinaryCursor instance
+     * @throws NullPointerException if buffer is null
+     * @since 1.0
+     */
+    public static BinaryCursor binaryCursor(ByteBuffer buffer) {
+        return new BinaryCursor(nullCheck(buffer, "buffer is null"));
+    }
+
+    /**
+     * Returns a BinaryCursor that decodes primitive values from the given channel, in the
+     * given byte order, reading it in blocks of 64 kB.
+     * <p>
+     * See {@link #binaryCursor(ReadableByteChannel, ByteOrder, int)} for details.
+     * @param channel the channel to read, not null
+     * @param order the byte order of the fixed-width values, not null
+     * @return the new BinaryCursor instance
+     * @throws NullPointerException if channel or order is null
+     * @since 1.0
+     */
+    public static BinaryCursor binaryCursor(ReadableByteChannel channel, ByteOrder order) {
+        return binaryCursor(channel, order, BinaryCursor.BLOCK_SIZE);
+    }
+
+    /**
+     * Returns a BinaryCursor that decodes primitive values from the given channel, in the
+     * given byte order, reading it in blocks of the given size.
+     * <p>
+     * The channel is read into a direct buffer whenever the bytes of the next value are not
+     * all available, so the decoding calls don't touch the channel otherwise. The channel is
+     * not closed by the cursor. IOExceptions are rethrown wrapped into RuntimeExceptions.
+     * @param channel the channel to read, not null
+     * @param order the byte order of the fixed-width values, not null
+     * @param blockSize the size of the buffer the channel is read into, positive
+     * @return the new BinaryCursor instance
+     * @throws NullPointerException if channel or order is null
+     * @throws IllegalArgumentException if blockSize is non-positive
+     * @since 1.0
+     */
+    public static BinaryCursor binaryCursor(ReadableByteChannel channel, ByteOrder order, int blockSize) {
+        return new BinaryCursor(nullCheck(channel, "channel is null"), nullCheck(order, "order is null"),
+                positive(blockSize, "blockSize"));
+    }
+
+    /**
+     * Emits the decompressed content of the given gzip file in blocks of 256 kB,
+     * inflated on a background thread up to 4 blocks ahead of the consumer.
+     * <p>
+     * See {@link #bytesInflated(File, int, int)} for details.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param file the gzip file to read, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if file is null
+     * @since 1.0
+     */
+    public static Ix<byte[]> bytesInflated(File file) {
+        return bytesInflated(file, IxInflate.BLOCK_SIZE, IxInflate.PREFETCH);
+    }
+
+    /**
+     * Emits the decompressed content of the given gzip file in blocks of the given size,
+     * inflated on a background thread up to the given number of blocks ahead of the consumer.
+     * <p>
+     * Each iterator() starts a new daemon thread which reads and inflates the file, so the
+     * decompression overlaps with the processing of the blocks already emitted. Each block
+     * is a new array of blockSize bytes, except the last which may be shorter. The iterator()
+     * can be closed via {@link java.io.Closeable#close()} which stops the background thread and
+     * closes the file; the thread stops by itself if the iterator becomes unreachable.
+     * <p>
+     * IOExceptions are rethrown wrapped into RuntimeExceptions.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param file the gzip file to read, not null
+     * @param blockSize the number of decompressed bytes per emitted block, positive
+     * @param prefetch the number of blocks inflated ahead of the consumer, positive
+     * @return the new Ix instance
+     * @throws NullPointerException if file is null
+     * @throws IllegalArgumentException if blockSize or prefetch is non-positive
+     * @since 1.0
+     * @see #linesGzip(File, Charset)
+     */
+    public static Ix<byte[]> bytesInflated(File file, int blockSize, int prefetch) {
+        return new IxInflate(nullCheck(file, "file is null"), positive(blockSize, "blockSize"), positive(prefetch, "prefetch"));
+    }
+
     /**
      * Emits all characters from the given CharSequence as integer values.
      * <p>
@@ -185,6 +282,71 @@ public abstract class Ix<T> implements Iterable<T> {
         return new IxDefer<T>(nullCheck(factory, "factory is null"));
     }
 
+    /**
+     * Emits a reusable DelimitedRecord view over each line of the source, locating the fields
+     * separated by the delimiter character, without quoting support.
+     * <p>
+     * See {@link #delimitedRecords(Iterable, char, char)} for details.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param source the source of lines, not null
+     * @param delimiter the character separating the fields
+     * @return the new Ix instance
+     * @throws NullPointerException if source is null
+     * @since 1.0
+     */
+    public static Ix<DelimitedRecord> delimitedRecords(Iterable<? extends CharSequence> source, char delimiter) {
+        return new IxDelimitedRecords(nullCheck(source, "source is null"), delimiter, '\0', false, null);
+    }
+
+    /**
+     * Emits a reusable DelimitedRecord view over each line of the source, locating the fields
+     * separated by the delimiter character, where fields enclosed in quoteChar may contain
+     * the delimiter and quoteChar written twice.
+     * <p>
+     * The same DelimitedRecord instance is emitted for each line of an iterator() and the fields are
+     * accessed and parsed in place, without copying the characters of the line. Quoted fields can't
+     * span multiple lines.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param source the source of lines, not null
+     * @param delimiter the character separating the fields
+     * @param quoteChar the character enclosing fields that may contain the delimiter
+     * @return the new Ix instance
+     * @throws NullPointerException if source is null
+     * @since 1.0
+     * @see #lines(File, Charset)
+     * @see #delimitedRecords(Iterable, char, char, int...)
+     */
+    public static Ix<DelimitedRecord> delimitedRecords(Iterable<? extends CharSequence> source, char delimiter, char quoteChar) {
+        return new IxDelimitedRecords(nullCheck(source, "source is null"), delimiter, quoteChar, true, null);
+    }
+
+    /**
+     * Emits a reusable DelimitedRecord view over the given columns of each line of the source,
+     * locating the fields separated by the delimiter character, where fields enclosed in quoteChar
+     * may contain the delimiter and quoteChar written twice.
+     * <p>
+     * The fields of a line are located only up to the highest requested column, and the
+     * DelimitedRecord's accessors take the index within the columns array, i.e., {@code get(0)}
+     * returns the field of the source column {@code columns[0]}.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param source the source of lines, not null
+     * @param delimiter the character separating the fields
+     * @param quoteChar the character enclosing fields that may contain the delimiter
+     * @param columns the zero-based source column indexes to project, not null, not empty, non-negative
+     * @return the new Ix instance
+     * @throws NullPointerException if source or columns is null
+     * @throws IllegalArgumentException if columns is empty or contains negative indexes
+     * @since 1.0
+     */
+    public static Ix<DelimitedRecord> delimitedRecords(Iterable<? extends CharSequence> source, char delimiter, char quoteChar,
+            int... columns) {
+        return new IxDelimitedRecords(nullCheck(source, "source is null"), delimiter, quoteChar, true,
+                IxDelimitedRecords.checkColumns(nullCheck(columns, "columns is null")));
+    }
+
     /**
      * No elements are emitted.
      * <p>
@@ -257,6 +419,31 @@ public abstract class Ix<T> implements Iterable<T> {
         return new IxFromArray<T>(start, end, values);
     }
 
+    /**
+     * Emits the elements of a file written by {@link #materializeTo(File, IxCodec)}, decoded
+     * with the given codec.
+     * <p>
+     * The file's header and index are read on first use and the encoded elements are
+     * memory-mapped, thus the number of elements is known without decoding them and
+     * {@link #count()}, {@link #skip(int)} and {@link #take(int)} directly on the result don't
+     * have to walk the elements. The mapping is shared by all iterator() calls, therefore the
+     * file must not be modified afterwards.
+     * <p>
+     * IOExceptions, including a file not written by materializeTo, are rethrown wrapped
+     * into RuntimeExceptions.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <T> the value type
+     * @param file the file to read, not null
+     * @param codec the codec to decode the elements with, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if file or codec is null
+     * @since 1.0
+     */
+    public static <T> Ix<T> fromMaterialized(File file, IxCodec<T> codec) {
+        return new IxMaterialized<T>(nullCheck(file, "file is null"), nullCheck(codec, "codec is null"));
+    }
+
     /**
      * Generates a sequence of values via a generic indexed for-loop style construct;
      * the index starts with the given seed, checked via a condition (to terminate),
@@ -364,12 +551,135 @@ public abstract class Ix<T> implements Iterable<T> {
         return new IxJust<T>(value);
     }
 
+    /**
+     * Emits the lines of the given file, decoded with the given charset.
+     * <p>
+     * Lines are separated by '\n' or "\r\n"; the line breaks are not emitted and a line break
+     * at the end of the file doesn't produce an empty last line.
+     * <p>
+     * For US-ASCII, ISO-8859-1 and UTF-8, the file is memory-mapped in windows and the lines
+     * are emitted as CharSequence views of the mapped bytes without copying them; the characters
+     * are decoded only when calling toString() or, for UTF-8 lines containing non-ASCII characters,
+     * on the first access. The views remain valid after the iteration but the file must not be
+     * truncated while they are in use. Other charsets are decoded through a Reader and the lines
+     * are emitted as Strings; such an iterator() can be closed via {@link java.io.Closeable#close()}.
+     * <p>
+     * Views of lines with the same characters are equal and have the hashCode() of the line as a
+     * String, so distinct(), groupBy() and the other key-based operators work the same for every
+     * charset. A view is never equal to a String though, therefore the lines have to be mapped to
+     * Strings via toString() before comparing them against Strings, for example, via contains().
+     * <p>
+     * IOExceptions are rethrown wrapped into RuntimeExceptions.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param file the file to read, not null
+     * @param charset the charset of the file, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if file or charset is null
+     * @since 1.0
+     */
+    public static Ix<CharSequence> lines(File file, Charset charset) {
+        return new IxLines(nullCheck(file, "file is null"), nullCheck(charset, "charset is null"));
+    }
+
+    /**
+     * Emits the lines of the given UTF-8 encoded gzip file.
+     * <p>
+     * See {@link #linesGzip(File, Charset)} for details.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param file the gzip file to read, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if file is null
+     * @since 1.0
+     */
+    public static Ix<CharSequence> linesGzip(File file) {
+        return linesGzip(file, Charset.forName("UTF-8"));
+    }
+
+    /**
+     * Emits the lines of the given gzip file, decoded with the given charset.
+     * <p>
+     * Each iterator() inflates the file on a background thread in blocks of 256 kB, up to 4 blocks
+     * ahead, while the consumer thread decodes the blocks and splits them into lines, so the
+     * decompression overlaps with the processing of the lines. The lines are emitted as Strings,
+     * separated by '\n', '\r' or "\r\n". The iterator() can be closed via
+     * {@link java.io.Closeable#close()} which stops the background thread and closes the file.
+     * <p>
+     * IOExceptions are rethrown wrapped into RuntimeExceptions.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param file the gzip file to read, not null
+     * @param charset the charset of the decompressed content, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if file or charset is null
+     * @since 1.0
+     * @see #bytesInflated(File, int, int)
+     */
+    public static Ix<CharSequence> linesGzip(File file, Charset charset) {
+        return new IxLinesGzip(nullCheck(file, "file is null"), nullCheck(charset, "charset is null"));
+    }
+
+    /**
+     * Emits the fixed-width binary records of the given file through a flyweight view
+     * reading big-endian values.
+     * <p>
+     * See {@link #mappedRecords(File, int, ByteOrder, IxSupplier)} for details.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <V> the view type
+     * @param file the file to read, not null
+     * @param recordSize the size of each record in bytes, positive
+     * @param viewFactory the function returning a new view instance, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if file or viewFactory is null
+     * @throws IllegalArgumentException if recordSize is non-positive
+     * @since 1.0
+     */
+    public static <V extends RecordView> Ix<V> mappedRecords(File file, int recordSize, IxSupplier<V> viewFactory) {
+        return mappedRecords(file, recordSize, ByteOrder.BIG_ENDIAN, viewFactory);
+    }
+
+    /**
+     * Emits the fixed-width binary records of the given file through a flyweight view
+     * reading values in the given byte order.
+     * <p>
+     * The file is memory-mapped in windows of whole records and each iterator() creates
+     * a single view via the viewFactory which is repositioned to each record, so iterating
+     * allocates nothing per record; the view is valid only until the next call to hasNext()
+     * or next(). The number of records (a trailing partial record is ignored) and the
+     * mapping are determined on first use and shared by all iterator() calls, thus the file
+     * must not be truncated afterwards.
+     * <p>
+     * The number of records is known in advance, so {@link #count()}, {@link #skip(int)} and
+     * {@link #take(int)} directly on the result don't have to walk the records, unless there are
+     * more than Integer.MAX_VALUE of them.
+     * <p>
+     * IOExceptions are rethrown wrapped into RuntimeExceptions.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <V> the view type
+     * @param file the file to read, not null
+     * @param recordSize the size of each record in bytes, positive
+     * @param order the byte order of the multi-byte values in the records, not null
+     * @param viewFactory the function returning a new view instance, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if file, order or viewFactory is null
+     * @throws IllegalArgumentException if recordSize is non-positive
+     * @since 1.0
+     */
+    public static <V extends RecordView> Ix<V> mappedRecords(File file, int recordSize, ByteOrder order, IxSupplier<V> viewFactory) {
+        return new IxMappedRecords<V>(nullCheck(file, "file is null"), positive(recordSize, "recordSize"),
+                nullCheck(order, "order is null"), nullCheck(viewFactory, "viewFactory is null"));
+    }
+
     /**
      * Concatenates the elements of Iterable sources, provided as an Iterable itself, sequentially.
      * <p>
      * The result's iterator() forwards the remove() calls to the current iterator.
      * <p>
-     * Note that merge and concat operations are the same in the Iterable world.
+     * Note that merge and concat operations are the same in the Iterable world; use
+     * {@link #mergeConcurrent(Iterable, int)} to drain the sources concurrently.
      * @param <T> the common base type
      * @param sources the Iterable sequence of source Iterables
      * @return the new Ix instance
@@ -398,6 +708,57 @@ public abstract class Ix<T> implements Iterable<T> {
         return concatArray(sources); // concat and merge are the same in the Iterable world
     }
 
+    /**
+     * Drains up to maxConcurrency Iterable sources at once, each on its own new daemon thread,
+     * and emits their elements in the order they arrive.
+     * <p>
+     * See {@link #mergeConcurrent(Iterable, int, Executor)} for details.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <T> the common base type
+     * @param sources the Iterable sequence of source Iterables, not null
+     * @param maxConcurrency the maximum number of sources drained at once, positive
+     * @return the new Ix instance
+     * @throws NullPointerException if sources is null
+     * @throws IllegalArgumentException if maxConcurrency is non-positive
+     * @since 1.0
+     * @see #merge(Iterable)
+     */
+    public static <T> Ix<T> mergeConcurrent(Iterable<? extends Iterable<? extends T>> sources, int maxConcurrency) {
+        return new IxMergeConcurrent<T>(nullCheck(sources, "sources is null"), positive(maxConcurrency, "maxConcurrency"), null);
+    }
+
+    /**
+     * Drains up to maxConcurrency Iterable sources at once, each as a task on the given Executor,
+     * and emits their elements in the order they arrive.
+     * <p>
+     * The sources share a bounded buffer; a source's task waits while the buffer is full.
+     * The outer sequence is consumed on the thread that iterates the result and the next
+     * source starts once a running one has completed. Elements of the same source keep their
+     * relative order.
+     * <p>
+     * If a source throws, the exception is rethrown by the result's iterator() and the
+     * other sources are stopped. The sources are also stopped when the result's iterator()
+     * is closed via {@link java.io.Closeable#close()} or becomes unreachable. Closing it also
+     * interrupts the sources waiting for their next element, and the iterators of the stopped
+     * sources are closed if they implement {@link java.io.Closeable}.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <T> the common base type
+     * @param sources the Iterable sequence of source Iterables, not null
+     * @param maxConcurrency the maximum number of sources drained at once, positive
+     * @param executor the Executor to drain the sources on, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if sources or executor is null
+     * @throws IllegalArgumentException if maxConcurrency is non-positive
+     * @since 1.0
+     * @see #merge(Iterable)
+     */
+    public static <T> Ix<T> mergeConcurrent(Iterable<? extends Iterable<? extends T>> sources, int maxConcurrency, Executor executor) {
+        return new IxMergeConcurrent<T>(nullCheck(sources, "sources is null"), positive(maxConcurrency, "maxConcurrency"),
+                nullCheck(executor, "executor is null"));
+    }
+
     /**
      * Merges self-comparable items from an Iterable sequence of Iterable sequences, picking
      * the smallest item from all those inner Iterables until all sources complete.
@@ -594,6 +955,129 @@ public abstract class Ix<T> implements Iterable<T> {
         return new IxSplit(nullCheck(string, "string is null"), nullCheck(by, "by is null"));
     }
 
+    /**
+     * Returns a SplitCursor that walks the tokens of the CharSequence split by the given
+     * separator character and exposes their start and end indexes without allocating anything
+     * per token.
+     * @param cs the character sequence to split, not null
+     * @param by the separator character
+     * @return the new SplitCursor instance
+     * @throws NullPointerException if cs is null
+     * @since 1.0
+     * @see #splitView(CharSequence, char)
+     */
+    public static SplitCursor splitCursor(CharSequence cs, char by) {
+        return new SplitCursor(nullCheck(cs, "cs is null"), String.valueOf(by));
+    }
+
+    /**
+     * Returns a SplitCursor that walks the tokens of the CharSequence split by the given
+     * separator and exposes their start and end indexes without allocating anything per token.
+     * @param cs the character sequence to split, not null
+     * @param by the separator to split along, not null, not empty
+     * @return the new SplitCursor instance
+     * @throws NullPointerException if cs or by is null
+     * @throws IllegalArgumentException if by is empty
+     * @since 1.0
+     * @see #splitView(CharSequence, CharSequence)
+     */
+    public static SplitCursor splitCursor(CharSequence cs, CharSequence by) {
+        return new SplitCursor(nullCheck(cs, "cs is null"), IxSplitView.nonEmpty(nullCheck(by, "by is null")));
+    }
+
+    /**
+     * Emits the tokens of the CharSequence split by the given separator character as
+     * CharSequence views of the original characters.
+     * <p>
+     * The tokens are the same as with {@link #split(String, String)} but the characters are not
+     * copied until toString() is called on a token. Tokens with the same characters are equal but
+     * never equal to a String, which they have to be mapped to via toString() to be compared with.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param cs the character sequence to split, not null
+     * @param by the separator character
+     * @return the new Ix instance
+     * @throws NullPointerException if cs is null
+     * @since 1.0
+     * @see #splitCursor(CharSequence, char)
+     */
+    public static Ix<CharSequence> splitView(CharSequence cs, char by) {
+        return new IxSplitView(nullCheck(cs, "cs is null"), String.valueOf(by));
+    }
+
+    /**
+     * Emits the tokens of the CharSequence split by the given separator as
+     * CharSequence views of the original characters.
+     * <p>
+     * The tokens are the same as with {@link #split(String, String)} but the characters are not
+     * copied until toString() is called on a token. Tokens with the same characters are equal but
+     * never equal to a String, which they have to be mapped to via toString() to be compared with.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param cs the character sequence to split, not null
+     * @param by the separator to split along, not null, not empty
+     * @return the new Ix instance
+     * @throws NullPointerException if cs or by is null
+     * @throws IllegalArgumentException if by is empty
+     * @since 1.0
+     * @see #splitCursor(CharSequence, CharSequence)
+     */
+    public static Ix<CharSequence> splitView(CharSequence cs, CharSequence by) {
+        return new IxSplitView(nullCheck(cs, "cs is null"), IxSplitView.nonEmpty(nullCheck(by, "by is null")));
+    }
+
+    /**
+     * Emits the lines of the given file as it grows, waiting between polls with a backoff of
+     * 1 millisecond doubled up to 1 second when there are no new complete lines.
+     * <p>
+     * See {@link #tail(File, Charset, IxFunction)} for details.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param file the file to read, not null
+     * @param charset the charset of the file, not null, must encode '\n' as a single byte
+     * @return the new Ix instance
+     * @throws NullPointerException if file or charset is null
+     * @throws IllegalArgumentException if the charset doesn't encode '\n' as a single byte
+     * @since 1.0
+     */
+    public static Ix<CharSequence> tail(File file, Charset charset) {
+        return tail(file, charset, IxTail.Backoff.INSTANCE);
+    }
+
+    /**
+     * Emits the lines of the given file as it grows, waiting between polls as the poll strategy
+     * specifies when there are no new complete lines.
+     * <p>
+     * Each iterator() opens the file, reads it from the beginning and then keeps its position
+     * in the file, so each poll reads only the newly appended bytes, in large chunks. Only complete
+     * lines, terminated by '\n' or "\r\n", are emitted as Strings; a partially written last line
+     * is emitted once its line break has been appended. If the file gets shorter than the current
+     * position, it is assumed to be truncated and read again from its beginning.
+     * <p>
+     * When the end of the file is reached, the pollStrategy is called with the number of
+     * consecutive polls that found no new bytes (starting from 0) and returns the number of
+     * milliseconds to wait before the next poll, or a negative number to complete the sequence.
+     * The iterator() can be closed via {@link java.io.Closeable#close()}, which closes the file;
+     * an interrupt while waiting closes the file and throws a RuntimeException.
+     * <p>
+     * IOExceptions are rethrown wrapped into RuntimeExceptions.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param file the file to read, not null
+     * @param charset the charset of the file, not null, must encode '\n' as a single byte
+     * @param pollStrategy the function receiving the number of consecutive empty polls and
+     * returning the milliseconds to wait or a negative value to stop, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if file, charset or pollStrategy is null
+     * @throws IllegalArgumentException if the charset doesn't encode '\n' as a single byte
+     * @since 1.0
+     * @see #lines(File, Charset)
+     */
+    public static Ix<CharSequence> tail(File file, Charset charset, IxFunction<? super Integer, ? extends Number> pollStrategy) {
+        return new IxTail(nullCheck(file, "file is null"), IxTail.checkCharset(nullCheck(charset, "charset is null")),
+                nullCheck(pollStrategy, "pollStrategy is null"));
+    }
+
     /**
      * Combines the next element from each source Iterable via a zipper function.
      * <p>
@@ -733,6 +1217,56 @@ public abstract class Ix<T> implements Iterable<T> {
         return new IxAll<T>(this, nullCheck(predicate, "predicate is null"));
     }
 
+    /**
+     * Emits elements of this sequence whose key is not present among the keys of the elements
+     * of the other sequence.
+     * <p>
+     * The other sequence is consumed when the first element is requested and only its keys
+     * are kept in memory.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <U> the other sequence's value type
+     * @param <K> the key type
+     * @param other the other Iterable sequence, not null
+     * @param leftKey the function that returns the key for an element of this sequence, not null
+     * @param rightKey the function that returns the key for an element of the other sequence, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if other, leftKey or rightKey is null
+     * @since 1.0
+     * @see #semiJoin(Iterable, IxFunction, IxFunction)
+     */
+    public final <U, K> Ix<T> antiJoin(Iterable<? extends U> other,
+            IxFunction<? super T, ? extends K> leftKey, IxFunction<? super U, ? extends K> rightKey) {
+        return new IxSemiJoin<T, U, K>(this, nullCheck(other, "other is null"),
+                nullCheck(leftKey, "leftKey is null"), nullCheck(rightKey, "rightKey is null"), true, false);
+    }
+
+    /**
+     * Emits elements of this sequence whose key is not present among the keys of the elements
+     * of the other sequence.
+     * <p>
+     * The other sequence is consumed when the first element is requested and only its keys
+     * are kept in memory.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <U> the other sequence's value type
+     * @param <K> the key type
+     * @param other the other Iterable sequence, not null
+     * @param leftKey the function that returns the key for an element of this sequence, not null
+     * @param rightKey the function that returns the key for an element of the other sequence, not null
+     * @param bloomFilter if true, the keys of the other sequence are also put into a Bloom filter
+     * which is checked first so that most of the non-matching keys skip the hash lookup
+     * @return the new Ix instance
+     * @throws NullPointerException if other, leftKey or rightKey is null
+     * @since 1.0
+     * @see #semiJoin(Iterable, IxFunction, IxFunction)
+     */
+    public final <U, K> Ix<T> antiJoin(Iterable<? extends U> other,
+            IxFunction<? super T, ? extends K> leftKey, IxFunction<? super U, ? extends K> rightKey, boolean bloomFilter) {
+        return new IxSemiJoin<T, U, K>(this, nullCheck(other, "other is null"),
+                nullCheck(leftKey, "leftKey is null"), nullCheck(rightKey, "rightKey is null"), true, bloomFilter);
+    }
+
     /**
      * Emits true if any element of this sequence matches the given predicate,
      * false otherwise (or for empty sequences).
@@ -792,6 +1326,35 @@ public abstract class Ix<T> implements Iterable<T> {
         return new IxAverageDouble((Iterable<Number>)this);
     }
 
+    /**
+     * Shares a single pass over this sequence among any number of iterator() consumers
+     * which can consume elements independently of each other, keeping only the elements
+     * between the slowest and the fastest consumer in a ring buffer of the given size.
+     * <p>
+     * A new iterator() starts at the slowest active consumer's position or, if
+     * there is no such consumer, at the next element of this sequence.
+     * <p>
+     * Moving a consumer more than {@code bufferSize} elements ahead of the slowest
+     * active consumer throws an IllegalStateException.
+     * <p>
+     * A consumer stops being active when it completes, when its iterator() is closed via
+     * {@link java.io.Closeable#close()} or when its iterator() becomes unreachable, so an
+     * iterator() abandoned early, for example by {@link #first()}, should be closed if the
+     * other consumers can't wait for the garbage collector.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param bufferSize the maximum number of elements the fastest consumer can be
+     * ahead of the slowest consumer, positive
+     * @return the new Ix instance
+     * @throws IllegalArgumentException if bufferSize is non-positive
+     * @since 1.0
+     * @see #publish()
+     * @see #replay()
+     */
+    public final Ix<T> broadcast(int bufferSize) {
+        return new IxBroadcast<T>(this, positive(bufferSize, "bufferSize"));
+    }
+
     /**
      * Buffers the subsequent {@code size} elements into a sequence of
      * non-overlapping Lists.
@@ -1049,6 +1612,61 @@ public abstract class Ix<T> implements Iterable<T> {
         return new IxFlattenIterable<T, R>(this, nullCheck(mapper, "mapper is null"));
     }
 
+    /**
+     * Maps each element from this sequence into inner Iterable sequences, opens and drains
+     * the current and up to prefetchSources subsequent inner sequences on new daemon threads,
+     * and emits their elements concatenated in order.
+     * <p>
+     * See {@link #concatMapEager(IxFunction, int, Executor)} for details.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <R> the result value type
+     * @param mapper the function that receives an element of this sequence and returns
+     * an Iterable sequence, not null
+     * @param prefetchSources the number of inner sequences opened ahead of the current one, non-negative
+     * @return the new Ix instance
+     * @throws NullPointerException if mapper is null
+     * @throws IllegalArgumentException if prefetchSources is negative
+     * @since 1.0
+     * @see #concatMap(IxFunction)
+     */
+    public final <R> Ix<R> concatMapEager(IxFunction<? super T, ? extends Iterable<? extends R>> mapper, int prefetchSources) {
+        return new IxConcatMapEager<T, R>(this, nullCheck(mapper, "mapper is null"),
+                nonNegative(prefetchSources, "prefetchSources"), null);
+    }
+
+    /**
+     * Maps each element from this sequence into inner Iterable sequences, opens and drains
+     * the current and up to prefetchSources subsequent inner sequences on the given Executor,
+     * and emits their elements concatenated in order.
+     * <p>
+     * The mapper function is called on the thread that iterates the result whereas the inner
+     * sequences' iterator() and their elements are produced in the background, each buffering
+     * up to 128 elements ahead of the consumer. This way, the cost of opening the inner
+     * sequences overlaps with consuming the current one.
+     * <p>
+     * If the mapper or an inner sequence throws, the exception is rethrown by the result's
+     * iterator() and the inner sequences opened ahead of time are stopped. They are also stopped
+     * when the result's iterator() is closed via {@link java.io.Closeable#close()}.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <R> the result value type
+     * @param mapper the function that receives an element of this sequence and returns
+     * an Iterable sequence, not null
+     * @param prefetchSources the number of inner sequences opened ahead of the current one, non-negative
+     * @param executor the Executor to open and drain the inner sequences on, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if mapper or executor is null
+     * @throws IllegalArgumentException if prefetchSources is negative
+     * @since 1.0
+     * @see #concatMap(IxFunction)
+     */
+    public final <R> Ix<R> concatMapEager(IxFunction<? super T, ? extends Iterable<? extends R>> mapper, int prefetchSources,
+            Executor executor) {
+        return new IxConcatMapEager<T, R>(this, nullCheck(mapper, "mapper is null"),
+                nonNegative(prefetchSources, "prefetchSources"), nullCheck(executor, "executor is null"));
+    }
+
     /**
      * Emits elements of this sequence followed by the elements of the other sequence.
      * <p>
@@ -1257,6 +1875,30 @@ public abstract class Ix<T> implements Iterable<T> {
         return new IxExcept<T>(this, nullCheck(other, "other is null"));
     }
 
+    /**
+     * Emits distinct elements from this and the other Iterable which are not
+     * in the other sequence (i.e., (A union B) minus (A intersection B)), assuming
+     * both sequences are sorted according to the given comparator.
+     * <p>
+     * The sequences are merged in a single pass without buffering any of them
+     * and the elements are emitted in the sort order; elements comparing equal are
+     * considered the same.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param other the other Iterable sequence sorted by the comparator, not null
+     * @param comparator the comparator both sequences are sorted by, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if other or comparator is null
+     * @since 1.0
+     * @see #except(Iterable)
+     * @see #unionSorted(Iterable, Comparator)
+     * @see #intersectSorted(Iterable, Comparator)
+     */
+    public final Ix<T> exceptSorted(Iterable<? extends T> other, Comparator<? super T> comparator) {
+        return new IxSortedSetOperation<T>(this, nullCheck(other, "other is null"),
+                nullCheck(comparator, "comparator is null"), IxSortedSetOperation.EXCEPT);
+    }
+
     /**
      * Emits elements of this sequence which match the given predicate only.
      * <p>
@@ -1340,71 +1982,224 @@ public abstract class Ix<T> implements Iterable<T> {
      * @return the new Ix instance
      * @since 1.0
      */
-    public final Ix<Boolean> hasElements() {
-        return new IxHasElements<T>(this);
+    public final Ix<Boolean> hasElements() {
+        return new IxHasElements<T>(this);
+    }
+
+    /**
+     * Hides the identity of this Ix instance and prevents certain identity-based optimizations.
+     * <p>
+     * The result's iterator() forwards the remove() calls to this' Iterator.
+     * @return the new Ix instance
+     * @since 1.0
+     */
+    public final Ix<T> hide() {
+        return new IxWrapper<T>(this);
+    }
+
+    /**
+     * Emits distinct values of this and the other Iterables that are present in
+     * both sequences.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param other the other Iterable sequence
+     * @return the new Ix instance
+     * @throws NullPointerException if other is null
+     * @since 1.0
+     * @see #except(Iterable)
+     * @see #union(Iterable)
+     */
+    public final Ix<T> intersect(Iterable<? extends T> other) {
+        return new IxIntersect<T>(this, nullCheck(other, "other is null"));
+    }
+
+    /**
+     * Emits distinct values of this and the other Iterables that are present in
+     * both sequences, assuming both sequences are sorted according to the given comparator.
+     * <p>
+     * The sequences are merged in a single pass without buffering any of them
+     * and the elements are emitted in the sort order; elements comparing equal are
+     * considered the same.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param other the other Iterable sequence sorted by the comparator, not null
+     * @param comparator the comparator both sequences are sorted by, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if other or comparator is null
+     * @since 1.0
+     * @see #intersect(Iterable)
+     * @see #exceptSorted(Iterable, Comparator)
+     * @see #unionSorted(Iterable, Comparator)
+     */
+    public final Ix<T> intersectSorted(Iterable<? extends T> other, Comparator<? super T> comparator) {
+        return new IxSortedSetOperation<T>(this, nullCheck(other, "other is null"),
+                nullCheck(comparator, "comparator is null"), IxSortedSetOperation.INTERSECT);
+    }
+
+    /**
+     * Runs through this sequence, ignoring all values until this sequence completes.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @return the new Ix instance
+     * @since 1.0
+     */
+    public final Ix<T> ignoreElements() {
+        return new IxIgnoreElements<T>(this);
+    }
+
+    /**
+     * Converts elements of this sequence to String and concatenates them into
+     * a single, comma separated String.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @return the new Ix instance
+     * @since 1.0
+     */
+    public final Ix<String> join() {
+        return join(", ");
     }
 
     /**
-     * Hides the identity of this Ix instance and prevents certain identity-based optimizations.
+     * Converts elements of this sequence to String and concatenates them into
+     * a single String separated by the given character sequence.
      * <p>
-     * The result's iterator() forwards the remove() calls to this' Iterator.
+     * The result's iterator() doesn't support remove().
+     * @param separator the character sequence separating elements
      * @return the new Ix instance
      * @since 1.0
      */
-    public final Ix<T> hide() {
-        return new IxWrapper<T>(this);
+    public final Ix<String> join(CharSequence separator) {
+        return new IxJoin<T>(this, separator);
     }
 
     /**
-     * Emits distinct values of this and the other Iterables that are present in
-     * both sequences.
+     * Emits the combination of each element of this sequence with each element of the other
+     * sequence which has an equal join key (inner join).
+     * <p>
+     * Elements are combined in the order of the streamed sequence and for each streamed element
+     * in the order of the matching elements of the hashed sequence.
+     * <p>
+     * One of the sequences is loaded into a hash table and the other is streamed against it:
+     * the other sequence is hashed unless both sizes are known in advance (i.e., Collections,
+     * arrays or ranges) and this sequence is the smaller one.
      * <p>
      * The result's iterator() doesn't support remove().
-     * @param other the other Iterable sequence
+     * @param <U> the other sequence's value type
+     * @param <K> the join key type
+     * @param <R> the result value type
+     * @param other the other Iterable sequence, not null
+     * @param leftKey the function that returns the join key for an element of this sequence, not null
+     * @param rightKey the function that returns the join key for an element of the other sequence, not null
+     * @param combiner the function called with matching pairs of elements and returns the value to emit, not null
      * @return the new Ix instance
-     * @throws NullPointerException if other is null
+     * @throws NullPointerException if other, leftKey, rightKey or combiner is null
      * @since 1.0
-     * @see #except(Iterable)
-     * @see #union(Iterable)
      */
-    public final Ix<T> intersect(Iterable<? extends T> other) {
-        return new IxIntersect<T>(this, nullCheck(other, "other is null"));
+    public final <U, K, R> Ix<R> join(Iterable<? extends U> other,
+            IxFunction<? super T, ? extends K> leftKey, IxFunction<? super U, ? extends K> rightKey,
+            IxFunction2<? super T, ? super U, ? extends R> combiner) {
+        return new IxHashJoin<T, U, K, R>(this, nullCheck(other, "other is null"),
+                nullCheck(leftKey, "leftKey is null"), nullCheck(rightKey, "rightKey is null"),
+                nullCheck(combiner, "combiner is null"), IxHashJoin.INNER, IxHashJoin.HASH_AUTO);
     }
 
     /**
-     * Runs through this sequence, ignoring all values until this sequence completes.
+     * Emits the combination of each element of this sequence with each element of the other
+     * sequence which has an equal join key (inner join).
+     * <p>
+     * Elements are combined in the order of the streamed sequence and for each streamed element
+     * in the order of the matching elements of the hashed sequence.
+     * <p>
+     * The hashThis parameter selects which sequence is loaded into a hash table; the other
+     * sequence is streamed against it.
      * <p>
      * The result's iterator() doesn't support remove().
+     * @param <U> the other sequence's value type
+     * @param <K> the join key type
+     * @param <R> the result value type
+     * @param other the other Iterable sequence, not null
+     * @param leftKey the function that returns the join key for an element of this sequence, not null
+     * @param rightKey the function that returns the join key for an element of the other sequence, not null
+     * @param combiner the function called with matching pairs of elements and returns the value to emit, not null
+     * @param hashThis if true, this sequence is loaded into the hash table and the other sequence
+     * is streamed; if false, the other sequence is loaded and this sequence is streamed
      * @return the new Ix instance
+     * @throws NullPointerException if other, leftKey, rightKey or combiner is null
      * @since 1.0
      */
-    public final Ix<T> ignoreElements() {
-        return new IxIgnoreElements<T>(this);
+    public final <U, K, R> Ix<R> join(Iterable<? extends U> other,
+            IxFunction<? super T, ? extends K> leftKey, IxFunction<? super U, ? extends K> rightKey,
+            IxFunction2<? super T, ? super U, ? extends R> combiner, boolean hashThis) {
+        return new IxHashJoin<T, U, K, R>(this, nullCheck(other, "other is null"),
+                nullCheck(leftKey, "leftKey is null"), nullCheck(rightKey, "rightKey is null"),
+                nullCheck(combiner, "combiner is null"), IxHashJoin.INNER, hashThis ? IxHashJoin.HASH_THIS : IxHashJoin.HASH_OTHER);
     }
 
     /**
-     * Converts elements of this sequence to String and concatenates them into
-     * a single, comma separated String.
+     * Emits the combination of each element of this sequence with each element of the other
+     * sequence which has an equal join key and combines the elements of this sequence that have no
+     * matching element with null (left outer join).
+     * <p>
+     * Elements are combined in the order of the streamed sequence and for each streamed element
+     * in the order of the matching elements of the hashed sequence; if this sequence is hashed, its
+     * unmatched elements are emitted after the other sequence has been streamed.
+     * <p>
+     * One of the sequences is loaded into a hash table and the other is streamed against it:
+     * the other sequence is hashed unless both sizes are known in advance (i.e., Collections,
+     * arrays or ranges) and this sequence is the smaller one.
      * <p>
      * The result's iterator() doesn't support remove().
+     * @param <U> the other sequence's value type
+     * @param <K> the join key type
+     * @param <R> the result value type
+     * @param other the other Iterable sequence, not null
+     * @param leftKey the function that returns the join key for an element of this sequence, not null
+     * @param rightKey the function that returns the join key for an element of the other sequence, not null
+     * @param combiner the function called with matching pairs of elements and returns the value to emit, not null
      * @return the new Ix instance
+     * @throws NullPointerException if other, leftKey, rightKey or combiner is null
      * @since 1.0
      */
-    public final Ix<String> join() {
-        return join(", ");
+    public final <U, K, R> Ix<R> leftJoin(Iterable<? extends U> other,
+            IxFunction<? super T, ? extends K> leftKey, IxFunction<? super U, ? extends K> rightKey,
+            IxFunction2<? super T, ? super U, ? extends R> combiner) {
+        return new IxHashJoin<T, U, K, R>(this, nullCheck(other, "other is null"),
+                nullCheck(leftKey, "leftKey is null"), nullCheck(rightKey, "rightKey is null"),
+                nullCheck(combiner, "combiner is null"), IxHashJoin.LEFT, IxHashJoin.HASH_AUTO);
     }
 
     /**
-     * Converts elements of this sequence to String and concatenates them into
-     * a single String separated by the given character sequence.
+     * Emits the combination of each element of this sequence with each element of the other
+     * sequence which has an equal join key and combines the elements of this sequence that have no
+     * matching element with null (left outer join).
+     * <p>
+     * Elements are combined in the order of the streamed sequence and for each streamed element
+     * in the order of the matching elements of the hashed sequence; if this sequence is hashed, its
+     * unmatched elements are emitted after the other sequence has been streamed.
+     * <p>
+     * The hashThis parameter selects which sequence is loaded into a hash table; the other
+     * sequence is streamed against it.
      * <p>
      * The result's iterator() doesn't support remove().
-     * @param separator the character sequence separating elements
+     * @param <U> the other sequence's value type
+     * @param <K> the join key type
+     * @param <R> the result value type
+     * @param other the other Iterable sequence, not null
+     * @param leftKey the function that returns the join key for an element of this sequence, not null
+     * @param rightKey the function that returns the join key for an element of the other sequence, not null
+     * @param combiner the function called with matching pairs of elements and returns the value to emit, not null
+     * @param hashThis if true, this sequence is loaded into the hash table and the other sequence
+     * is streamed; if false, the other sequence is loaded and this sequence is streamed
      * @return the new Ix instance
+     * @throws NullPointerException if other, leftKey, rightKey or combiner is null
      * @since 1.0
      */
-    public final Ix<String> join(CharSequence separator) {
-        return new IxJoin<T>(this, separator);
+    public final <U, K, R> Ix<R> leftJoin(Iterable<? extends U> other,
+            IxFunction<? super T, ? extends K> leftKey, IxFunction<? super U, ? extends K> rightKey,
+            IxFunction2<? super T, ? super U, ? extends R> combiner, boolean hashThis) {
+        return new IxHashJoin<T, U, K, R>(this, nullCheck(other, "other is null"),
+                nullCheck(leftKey, "leftKey is null"), nullCheck(rightKey, "rightKey is null"),
+                nullCheck(combiner, "combiner is null"), IxHashJoin.LEFT, hashThis ? IxHashJoin.HASH_THIS : IxHashJoin.HASH_OTHER);
     }
 
     /**
@@ -1500,6 +2295,64 @@ public abstract class Ix<T> implements Iterable<T> {
         return new IxMaxLong((Ix<Long>)this);
     }
 
+    /**
+     * Emits the combination of each element of this sequence with each element of the other
+     * sequence which has an equal join key, assuming both sequences are ordered by their
+     * join keys according to the natural order of the keys (inner merge join).
+     * <p>
+     * Both sequences are consumed in step and only the current run of elements of the other
+     * sequence that have the same key is kept in memory.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <U> the other sequence's value type
+     * @param <K> the join key type
+     * @param <R> the result value type
+     * @param other the other Iterable sequence ordered by its join keys, not null
+     * @param leftKey the function that returns the join key for an element of this sequence, not null
+     * @param rightKey the function that returns the join key for an element of the other sequence, not null
+     * @param combiner the function called with matching pairs of elements and returns the value to emit, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if other, leftKey, rightKey or combiner is null
+     * @since 1.0
+     * @see #join(Iterable, IxFunction, IxFunction, IxFunction2)
+     */
+    @SuppressWarnings("unchecked")
+    public final <U, K extends Comparable<? super K>, R> Ix<R> mergeJoin(Iterable<? extends U> other,
+            IxFunction<? super T, ? extends K> leftKey, IxFunction<? super U, ? extends K> rightKey,
+            IxFunction2<? super T, ? super U, ? extends R> combiner) {
+        return mergeJoin(other, leftKey, rightKey, SelfComparator.INSTANCE, combiner);
+    }
+
+    /**
+     * Emits the combination of each element of this sequence with each element of the other
+     * sequence which has an equal join key, assuming both sequences are ordered by their
+     * join keys according to the given comparator (inner merge join).
+     * <p>
+     * Both sequences are consumed in step and only the current run of elements of the other
+     * sequence that have the same key is kept in memory.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <U> the other sequence's value type
+     * @param <K> the join key type
+     * @param <R> the result value type
+     * @param other the other Iterable sequence ordered by its join keys, not null
+     * @param leftKey the function that returns the join key for an element of this sequence, not null
+     * @param rightKey the function that returns the join key for an element of the other sequence, not null
+     * @param comparator the comparator the sequences are ordered by their keys, not null
+     * @param combiner the function called with matching pairs of elements and returns the value to emit, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if other, leftKey, rightKey, comparator or combiner is null
+     * @since 1.0
+     * @see #join(Iterable, IxFunction, IxFunction, IxFunction2)
+     */
+    public final <U, K, R> Ix<R> mergeJoin(Iterable<? extends U> other,
+            IxFunction<? super T, ? extends K> leftKey, IxFunction<? super U, ? extends K> rightKey,
+            Comparator<? super K> comparator, IxFunction2<? super T, ? super U, ? extends R> combiner) {
+        return new IxMergeJoin<T, U, K, R>(this, nullCheck(other, "other is null"),
+                nullCheck(leftKey, "leftKey is null"), nullCheck(rightKey, "rightKey is null"),
+                nullCheck(comparator, "comparator is null"), nullCheck(combiner, "combiner is null"));
+    }
+
     /**
      * Emits elements of this sequence followed by the elements of the other sequence.
      * <p>
@@ -1676,6 +2529,265 @@ public abstract class Ix<T> implements Iterable<T> {
         return new IxOrderBy<T, K>(this, nullCheck(keySelector, "keySelector is null"), SelfComparator.INSTANCE, -1);
     }
 
+    /**
+     * Emits the combination of each element of this sequence with each element of the other
+     * sequence which has an equal join key and combines the elements of either sequence that have no
+     * matching element with null (full outer join).
+     * <p>
+     * Elements are combined in the order of the streamed sequence and for each streamed element
+     * in the order of the matching elements of the hashed sequence; the unmatched elements of the
+     * hashed sequence are emitted after the streamed sequence has been consumed.
+     * <p>
+     * One of the sequences is loaded into a hash table and the other is streamed against it:
+     * the other sequence is hashed unless both sizes are known in advance (i.e., Collections,
+     * arrays or ranges) and this sequence is the smaller one.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <U> the other sequence's value type
+     * @param <K> the join key type
+     * @param <R> the result value type
+     * @param other the other Iterable sequence, not null
+     * @param leftKey the function that returns the join key for an element of this sequence, not null
+     * @param rightKey the function that returns the join key for an element of the other sequence, not null
+     * @param combiner the function called with matching pairs of elements and returns the value to emit, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if other, leftKey, rightKey or combiner is null
+     * @since 1.0
+     */
+    public final <U, K, R> Ix<R> outerJoin(Iterable<? extends U> other,
+            IxFunction<? super T, ? extends K> leftKey, IxFunction<? super U, ? extends K> rightKey,
+            IxFunction2<? super T, ? super U, ? extends R> combiner) {
+        return new IxHashJoin<T, U, K, R>(this, nullCheck(other, "other is null"),
+                nullCheck(leftKey, "leftKey is null"), nullCheck(rightKey, "rightKey is null"),
+                nullCheck(combiner, "combiner is null"), IxHashJoin.FULL, IxHashJoin.HASH_AUTO);
+    }
+
+    /**
+     * Emits the combination of each element of this sequence with each element of the other
+     * sequence which has an equal join key and combines the elements of either sequence that have no
+     * matching element with null (full outer join).
+     * <p>
+     * Elements are combined in the order of the streamed sequence and for each streamed element
+     * in the order of the matching elements of the hashed sequence; the unmatched elements of the
+     * hashed sequence are emitted after the streamed sequence has been consumed.
+     * <p>
+     * The hashThis parameter selects which sequence is loaded into a hash table; the other
+     * sequence is streamed against it.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <U> the other sequence's value type
+     * @param <K> the join key type
+     * @param <R> the result value type
+     * @param other the other Iterable sequence, not null
+     * @param leftKey the function that returns the join key for an element of this sequence, not null
+     * @param rightKey the function that returns the join key for an element of the other sequence, not null
+     * @param combiner the function called with matching pairs of elements and returns the value to emit, not null
+     * @param hashThis if true, this sequence is loaded into the hash table and the other sequence
+     * is streamed; if false, the other sequence is loaded and this sequence is streamed
+     * @return the new Ix instance
+     * @throws NullPointerException if other, leftKey, rightKey or combiner is null
+     * @since 1.0
+     */
+    public final <U, K, R> Ix<R> outerJoin(Iterable<? extends U> other,
+            IxFunction<? super T, ? extends K> leftKey, IxFunction<? super U, ? extends K> rightKey,
+            IxFunction2<? super T, ? super U, ? extends R> combiner, boolean hashThis) {
+        return new IxHashJoin<T, U, K, R>(this, nullCheck(other, "other is null"),
+                nullCheck(leftKey, "leftKey is null"), nullCheck(rightKey, "rightKey is null"),
+                nullCheck(combiner, "combiner is null"), IxHashJoin.FULL, hashThis ? IxHashJoin.HASH_THIS : IxHashJoin.HASH_OTHER);
+    }
+
+    /**
+     * Returns a ParallelIx whose reduce() and collect() fold chunks of this sequence
+     * on up to {@code parallelism} new daemon threads per iterator() call.
+     * <p>
+     * Sequences with known size and indexed access (ranges, arrays, random access Lists and
+     * map/skip/take on top of them) are split into index ranges; other sequences are
+     * consumed on the thread that iterates the result and handed over in batches.
+     * @param parallelism the number of threads to fold on, positive
+     * @return the new ParallelIx instance
+     * @throws IllegalArgumentException if parallelism is non-positive
+     * @since 1.0
+     * @see #parallel(int, Executor)
+     */
+    public final ParallelIx<T> parallel(int parallelism) {
+        return new ParallelIx<T>(this, positive(parallelism, "parallelism"), null);
+    }
+
+    /**
+     * Returns a ParallelIx whose reduce() and collect() fold chunks of this sequence
+     * on the given Executor.
+     * <p>
+     * Sequences with known size and indexed access (ranges, arrays, random access Lists and
+     * map/skip/take on top of them) are split into {@code 4 * parallelism} index ranges; other
+     * sequences are consumed on the thread that iterates the result and handed over in batches,
+     * keeping at most {@code 2 * parallelism} batch tasks in flight so the Executor doesn't
+     * wait for the next batch.
+     * @param parallelism the number of folds expected to run concurrently, positive
+     * @param executor the Executor to run the folds on, not null
+     * @return the new ParallelIx instance
+     * @throws NullPointerException if executor is null
+     * @throws IllegalArgumentException if parallelism is non-positive
+     * @since 1.0
+     * @see #parallel(int)
+     */
+    public final ParallelIx<T> parallel(int parallelism, Executor executor) {
+        return new ParallelIx<T>(this, positive(parallelism, "parallelism"), nullCheck(executor, "executor is null"));
+    }
+
+    /**
+     * Maps the elements of this sequence via a function executed on the given Executor,
+     * keeping at most {@code parallelism} mappings in flight, and emits the results in
+     * the order of this sequence.
+     * <p>
+     * This sequence is consumed and the results are emitted on the thread that iterates
+     * the result; only the mapper function runs on the Executor. If the mapper function
+     * throws, the exception is rethrown by the result's iterator() and the in-flight mappings
+     * are cancelled.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <R> the result value type
+     * @param mapper the function that receives an element of this sequence and returns a value
+     * to be emitted, not null
+     * @param parallelism the maximum number of mappings in flight, positive
+     * @param executor the Executor to run the mapper function on, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if mapper or executor is null
+     * @throws IllegalArgumentException if parallelism is non-positive
+     * @since 1.0
+     * @see #parallelMapUnordered(IxFunction, int, Executor)
+     */
+    public final <R> Ix<R> parallelMap(IxFunction<? super T, ? extends R> mapper, int parallelism, Executor executor) {
+        return new IxParallelMap<T, R>(this, nullCheck(mapper, "mapper is null"),
+                positive(parallelism, "parallelism"), nullCheck(executor, "executor is null"), true);
+    }
+
+    /**
+     * Maps the elements of this sequence via a function executed on the given Executor,
+     * keeping at most {@code parallelism} mappings in flight, and emits the results in
+     * the order the mappings complete.
+     * <p>
+     * This sequence is consumed and the results are emitted on the thread that iterates
+     * the result; only the mapper function runs on the Executor. If the mapper function
+     * throws, the exception is rethrown by the result's iterator() and the in-flight mappings
+     * are cancelled.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <R> the result value type
+     * @param mapper the function that receives an element of this sequence and returns a value
+     * to be emitted, not null
+     * @param parallelism the maximum number of mappings in flight, positive
+     * @param executor the Executor to run the mapper function on, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if mapper or executor is null
+     * @throws IllegalArgumentException if parallelism is non-positive
+     * @since 1.0
+     * @see #parallelMap(IxFunction, int, Executor)
+     */
+    public final <R> Ix<R> parallelMapUnordered(IxFunction<? super T, ? extends R> mapper, int parallelism, Executor executor) {
+        return new IxParallelMap<T, R>(this, nullCheck(mapper, "mapper is null"),
+                positive(parallelism, "parallelism"), nullCheck(executor, "executor is null"), false);
+    }
+
+    /**
+     * Splits this sequence into n lanes by the hash code of the keys of its elements, where
+     * each lane buffers at most 128 elements, so that each lane can be consumed
+     * by a different thread.
+     * <p>
+     * See {@link #partition(int, IxFunction, int)} for details.
+     * <p>
+     * The result's iterator() and the lanes' Iterators don't support remove().
+     * @param n the number of lanes, positive
+     * @param keySelector the function that receives an element and returns the key
+     * whose hash code determines the lane of the element, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if keySelector is null
+     * @throws IllegalArgumentException if n is non-positive
+     * @since 1.0
+     * @see #partition(int, IxFunction, int)
+     */
+    public final Ix<Ix<T>> partition(int n, IxFunction<? super T, ?> keySelector) {
+        return partition(n, keySelector, 128);
+    }
+
+    /**
+     * Splits this sequence into n lanes by the hash code of the keys of its elements, where
+     * each lane buffers at most bufferSize elements, so that each lane can be consumed
+     * by a different thread.
+     * <p>
+     * Each iterator() call on the result emits n new lanes which share one Iterator
+     * of this sequence. A lane with no buffered elements pulls this sequence on its
+     * consumer's thread and hands the elements of the other lanes over to their buffers.
+     * If the buffer of a lane is full, the pulling thread waits until that lane's consumer
+     * catches up, thus every lane has to be consumed (or closed) for the others to progress.
+     * <p>
+     * A lane's Iterator can be closed via {@link java.io.Closeable#close()}, after which the
+     * elements routed to it are dropped. Exceptions thrown by this sequence are rethrown by each
+     * lane after its buffered elements. Each lane can be iterated only once.
+     * <p>
+     * The result's iterator() and the lanes' Iterators don't support remove().
+     * @param n the number of lanes, positive
+     * @param keySelector the function that receives an element and returns the key
+     * whose hash code determines the lane of the element, not null
+     * @param bufferSize the maximum number of elements buffered for a lane, positive
+     * @return the new Ix instance
+     * @throws NullPointerException if keySelector is null
+     * @throws IllegalArgumentException if n or bufferSize is non-positive
+     * @since 1.0
+     * @see #partition(int, IxFunction)
+     */
+    public final Ix<Ix<T>> partition(int n, IxFunction<? super T, ?> keySelector, int bufferSize) {
+        return new IxPartition<T>(this, positive(n, "n"), nullCheck(keySelector, "keySelector is null"),
+                positive(bufferSize, "bufferSize"));
+    }
+
+    /**
+     * Consumes this sequence on a new daemon thread for each iterator() call and
+     * hands its elements over to the consumer through a bounded buffer, so that producing
+     * and consuming the elements can overlap.
+     * <p>
+     * Exceptions thrown by this sequence are rethrown by the result's iterator() after the
+     * elements produced before the exception have been consumed.
+     * <p>
+     * The background thread stops when this sequence ends, when the consumer's thread
+     * is interrupted while waiting, when the result's iterator() is closed via
+     * {@link java.io.Closeable#close()} or when the result's iterator() becomes unreachable.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param bufferSize the maximum number of elements produced ahead of the consumer, positive
+     * @return the new Ix instance
+     * @throws IllegalArgumentException if bufferSize is non-positive
+     * @since 1.0
+     * @see #prefetch(int, Executor)
+     */
+    public final Ix<T> prefetch(int bufferSize) {
+        return new IxPrefetch<T>(this, positive(bufferSize, "bufferSize"), null);
+    }
+
+    /**
+     * Consumes this sequence on the given Executor for each iterator() call and
+     * hands its elements over to the consumer through a bounded buffer, so that producing
+     * and consuming the elements can overlap.
+     * <p>
+     * Exceptions thrown by this sequence are rethrown by the result's iterator() after the
+     * elements produced before the exception have been consumed.
+     * <p>
+     * The background task stops when this sequence ends, when the consumer's thread
+     * is interrupted while waiting, when the result's iterator() is closed via
+     * {@link java.io.Closeable#close()} or when the result's iterator() becomes unreachable.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param bufferSize the maximum number of elements produced ahead of the consumer, positive
+     * @param executor the Executor to run the task consuming this sequence, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if executor is null
+     * @throws IllegalArgumentException if bufferSize is non-positive
+     * @since 1.0
+     * @see #prefetch(int)
+     */
+    public final Ix<T> prefetch(int bufferSize, Executor executor) {
+        return new IxPrefetch<T>(this, positive(bufferSize, "bufferSize"), nullCheck(executor, "executor is null"));
+    }
+
     /**
      * Shares an underlying Iterator that is consumed only once and each created iterator() that calls
      * next() will receive the elements; other iterator() instances may receive different or no elements
@@ -1843,6 +2955,34 @@ public abstract class Ix<T> implements Iterable<T> {
         return new IxReplaySize<T>(this, positive(size, "size"));
     }
 
+    /**
+     * Caches and replays all elements of this sequence to consumers of this' iterator(), keeping
+     * only the first memoryLimit elements in memory and the rest, encoded with the codec, in a
+     * temporary file.
+     * <p>
+     * The elements beyond the memory limit are appended to the temporary file as the source is
+     * consumed and each iterator() reads them back sequentially, through its own buffer, from its
+     * own position in the file, so replaying a large source multiple times doesn't have to hold all
+     * of its elements in memory at once.
+     * <p>
+     * As any later iterator() may replay the cache, the temporary file and its disk space are kept
+     * until {@link CloseableIx#close()} is called on the result or the JVM exits. After closing,
+     * iterator() and the existing iterators throw an IllegalStateException.
+     * <p>
+     * IOExceptions are rethrown wrapped into RuntimeExceptions.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param memoryLimit the number of elements to keep in memory, non-negative
+     * @param codec the codec to encode and decode the elements beyond the memory limit, not null
+     * @return the new CloseableIx instance
+     * @throws NullPointerException if codec is null
+     * @throws IllegalArgumentException if memoryLimit is negative
+     * @since 1.0
+     */
+    public final CloseableIx<T> replay(int memoryLimit, IxCodec<T> codec) {
+        return new IxReplaySpill<T>(this, nonNegative(memoryLimit, "memoryLimit"), nullCheck(codec, "codec is null"));
+    }
+
     /**
      * Caches and replays the elements of this sequence for the duration of the given transform function
      * without consuming this sequence multiple times.
@@ -1942,6 +3082,56 @@ public abstract class Ix<T> implements Iterable<T> {
         return new IxScanSeed<T, R>(this, nullCheck(initialFactory, "initialFactory is null"), nullCheck(scanner, "scanner is null"));
     }
 
+    /**
+     * Emits elements of this sequence whose key is present among the keys of the elements
+     * of the other sequence.
+     * <p>
+     * The other sequence is consumed when the first element is requested and only its keys
+     * are kept in memory.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <U> the other sequence's value type
+     * @param <K> the key type
+     * @param other the other Iterable sequence, not null
+     * @param leftKey the function that returns the key for an element of this sequence, not null
+     * @param rightKey the function that returns the key for an element of the other sequence, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if other, leftKey or rightKey is null
+     * @since 1.0
+     * @see #antiJoin(Iterable, IxFunction, IxFunction)
+     */
+    public final <U, K> Ix<T> semiJoin(Iterable<? extends U> other,
+            IxFunction<? super T, ? extends K> leftKey, IxFunction<? super U, ? extends K> rightKey) {
+        return new IxSemiJoin<T, U, K>(this, nullCheck(other, "other is null"),
+                nullCheck(leftKey, "leftKey is null"), nullCheck(rightKey, "rightKey is null"), false, false);
+    }
+
+    /**
+     * Emits elements of this sequence whose key is present among the keys of the elements
+     * of the other sequence.
+     * <p>
+     * The other sequence is consumed when the first element is requested and only its keys
+     * are kept in memory.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <U> the other sequence's value type
+     * @param <K> the key type
+     * @param other the other Iterable sequence, not null
+     * @param leftKey the function that returns the key for an element of this sequence, not null
+     * @param rightKey the function that returns the key for an element of the other sequence, not null
+     * @param bloomFilter if true, the keys of the other sequence are also put into a Bloom filter
+     * which is checked first so that most of the non-matching keys skip the hash lookup
+     * @return the new Ix instance
+     * @throws NullPointerException if other, leftKey or rightKey is null
+     * @since 1.0
+     * @see #antiJoin(Iterable, IxFunction, IxFunction)
+     */
+    public final <U, K> Ix<T> semiJoin(Iterable<? extends U> other,
+            IxFunction<? super T, ? extends K> leftKey, IxFunction<? super U, ? extends K> rightKey, boolean bloomFilter) {
+        return new IxSemiJoin<T, U, K>(this, nullCheck(other, "other is null"),
+                nullCheck(leftKey, "leftKey is null"), nullCheck(rightKey, "rightKey is null"), false, bloomFilter);
+    }
+
     /**
      * Determines if two sequences have the same elements in the same order and are the same length based
      * on null-safe object equality.
@@ -1972,6 +3162,28 @@ public abstract class Ix<T> implements Iterable<T> {
         return new IxSequenceEqual<T>(this, nullCheck(other, "other is null"), nullCheck(comparer, "comparer is null"));
     }
 
+    /**
+     * Shares an underlying Iterator that is consumed only once among the iterator() instances
+     * of the result, which can be consumed by different threads concurrently, each receiving
+     * a disjoint subset of the elements.
+     * <p>
+     * Each iterator() takes up to batchSize elements at once from the underlying Iterator
+     * while holding a lock and emits them without further synchronization. The elements of each
+     * batch are in order but the batches are distributed among the iterator() instances as they
+     * request them. Exceptions thrown by this sequence are rethrown by every iterator() that
+     * runs out of elements afterwards.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param batchSize the maximum number of elements taken by an iterator() at once, positive
+     * @return the new Ix instance
+     * @throws IllegalArgumentException if batchSize is non-positive
+     * @since 1.0
+     * @see #publish()
+     */
+    public final Ix<T> shared(int batchSize) {
+        return new IxShared<T>(this, positive(batchSize, "batchSize"));
+    }
+
     /**
      * Skips the first n elements from this sequence.
      * <p>
@@ -2184,6 +3396,29 @@ public abstract class Ix<T> implements Iterable<T> {
         return new IxUnion<T>(this, nullCheck(other, "other is null"));
     }
 
+    /**
+     * Emits a distinct set of values from both this and the other sequence, assuming
+     * both sequences are sorted according to the given comparator.
+     * <p>
+     * The sequences are merged in a single pass without buffering any of them
+     * and the elements are emitted in the sort order; elements comparing equal are
+     * considered the same.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param other the other Iterable sequence sorted by the comparator, not null
+     * @param comparator the comparator both sequences are sorted by, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if other or comparator is null
+     * @since 1.0
+     * @see #union(Iterable)
+     * @see #exceptSorted(Iterable, Comparator)
+     * @see #intersectSorted(Iterable, Comparator)
+     */
+    public final Ix<T> unionSorted(Iterable<? extends T> other, Comparator<? super T> comparator) {
+        return new IxSortedSetOperation<T>(this, nullCheck(other, "other is null"),
+                nullCheck(comparator, "comparator is null"), IxSortedSetOperation.UNION);
+    }
+
     /**
      * Emits inner Ix Iterables of non-overlapping sequences mapped from this sequence
      * with the given maximum size each.
@@ -2378,6 +3613,26 @@ public abstract class Ix<T> implements Iterable<T> {
         }
     }
 
+    /**
+     * Writes the elements of this sequence, encoded with the given codec, into the given file
+     * which can be read back via {@link #fromMaterialized(File, IxCodec)}.
+     * <p>
+     * The file starts with a header holding the number of elements, followed by the encoded
+     * elements and an index of their positions in the file. The elements are written into a
+     * temporary file next to the target, which then replaces the target, so a failure doesn't
+     * leave a partially written file behind. The positions are kept in memory (8 bytes per
+     * element) until the index is written.
+     * <p>
+     * IOExceptions are rethrown wrapped into RuntimeExceptions.
+     * @param file the file to create or replace, not null
+     * @param codec the codec to encode the elements with, not null
+     * @throws NullPointerException if file or codec is null
+     * @since 1.0
+     */
+    public final void materializeTo(File file, IxCodec<? super T> codec) {
+        IxMaterialized.write(this, nullCheck(file, "file is null"), nullCheck(codec, "codec is null"));
+    }
+
     /**
      * Prints the elements of this sequence to the console, separated
      * by a comma+space and with a line break after roughly 80 characters.
@@ -2734,6 +3989,107 @@ public abstract class Ix<T> implements Iterable<T> {
         return into(list);
     }
 
+    /**
+     * Writes the elements of this sequence into the given file as lines encoded with the
+     * given charset, batched through a 1 MB buffer.
+     * <p>
+     * See {@link #writeLines(File, Charset, int, boolean)} for details.
+     * @param file the file to create or overwrite, not null
+     * @param charset the charset to encode the lines with, not null
+     * @throws NullPointerException if file or charset is null
+     * @since 1.0
+     */
+    public final void writeLines(File file, Charset charset) {
+        writeLines(file, charset, IxBatchWriter.BUFFER_SIZE, false);
+    }
+
+    /**
+     * Writes the elements of this sequence into the given file as lines encoded with the
+     * given charset, batched through a buffer of the given size.
+     * <p>
+     * See {@link #writeLines(File, Charset, int, boolean)} for details.
+     * @param file the file to create or overwrite, not null
+     * @param charset the charset to encode the lines with, not null
+     * @param bufferSize the size of the buffer in bytes, positive
+     * @throws NullPointerException if file or charset is null
+     * @throws IllegalArgumentException if bufferSize is non-positive or less than the
+     * charset's maximum number of bytes per character
+     * @since 1.0
+     */
+    public final void writeLines(File file, Charset charset, int bufferSize) {
+        writeLines(file, charset, bufferSize, false);
+    }
+
+    /**
+     * Writes the elements of this sequence into the given file as lines encoded with the
+     * given charset, batched through buffers of the given size and optionally written out
+     * by a background thread.
+     * <p>
+     * CharSequence elements are encoded directly, other elements via String.valueOf(), each
+     * followed by a '\n'. The characters are encoded into a direct ByteBuffer which is written
+     * to the file's channel only when it gets full. With backgroundWriter set, a full buffer is
+     * handed to a background thread and the encoding continues in a second buffer, so the
+     * encoding overlaps with the file I/O. Characters not mappable by the charset are replaced.
+     * <p>
+     * The file is closed when this method returns. IOExceptions are rethrown wrapped into
+     * RuntimeExceptions.
+     * @param file the file to create or overwrite, not null
+     * @param charset the charset to encode the lines with, not null
+     * @param bufferSize the size of the buffer(s) in bytes, positive
+     * @param backgroundWriter if true, the buffers are written by a background thread
+     * @throws NullPointerException if file or charset is null
+     * @throws IllegalArgumentException if bufferSize is non-positive or less than the
+     * charset's maximum number of bytes per character
+     * @since 1.0
+     * @see #lines(File, Charset)
+     */
+    public final void writeLines(File file, Charset charset, int bufferSize, boolean backgroundWriter) {
+        IxBatchWriter.writeLines(this, nullCheck(file, "file is null"), nullCheck(charset, "charset is null"),
+                positive(bufferSize, "bufferSize"), backgroundWriter);
+    }
+
+    /**
+     * Writes the elements of this sequence, encoded by the given encoder, into the given channel,
+     * batched through a 1 MB buffer.
+     * <p>
+     * See {@link #writeTo(WritableByteChannel, IxConsumer2, int, boolean)} for details.
+     * @param channel the channel to write to, not null
+     * @param encoder the callback receiving an element and the ByteBuffer to put its encoded form into, not null
+     * @throws NullPointerException if channel or encoder is null
+     * @since 1.0
+     */
+    public final void writeTo(WritableByteChannel channel, IxConsumer2<? super T, ? super ByteBuffer> encoder) {
+        writeTo(channel, encoder, IxBatchWriter.BUFFER_SIZE, false);
+    }
+
+    /**
+     * Writes the elements of this sequence, encoded by the given encoder, into the given channel,
+     * batched through buffers of the given size and optionally written out by a background thread.
+     * <p>
+     * The encoder is called with each element and a direct ByteBuffer to put the element's bytes
+     * into; the buffer is written to the channel only when it gets full. If the encoder overflows
+     * the buffer with a BufferOverflowException, the partially encoded bytes are discarded, the
+     * buffer is written out and the encoder is called again with the same element and an empty
+     * buffer; an element that doesn't fit into an empty buffer fails with an IllegalArgumentException.
+     * With backgroundWriter set, a full buffer is handed to a background thread and the encoding
+     * continues in a second buffer, so the encoding overlaps with the I/O.
+     * <p>
+     * The channel is not closed by this method. IOExceptions are rethrown wrapped into
+     * RuntimeExceptions.
+     * @param channel the channel to write to, not null
+     * @param encoder the callback receiving an element and the ByteBuffer to put its encoded form into, not null
+     * @param bufferSize the size of the buffer(s) in bytes, positive
+     * @param backgroundWriter if true, the buffers are written by a background thread
+     * @throws NullPointerException if channel or encoder is null
+     * @throws IllegalArgumentException if bufferSize is non-positive
+     * @since 1.0
+     */
+    public final void writeTo(WritableByteChannel channel, IxConsumer2<? super T, ? super ByteBuffer> encoder,
+            int bufferSize, boolean backgroundWriter) {
+        IxBatchWriter.writeTo(this, nullCheck(channel, "channel is null"), nullCheck(encoder, "encoder is null"),
+                positive(bufferSize, "bufferSize"), backgroundWriter);
+    }
+
     // --------------------------------------------------------------------------------------------
     // Helper methods
     // --------------------------------------------------------------------------------------------
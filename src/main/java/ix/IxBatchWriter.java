@@ -0,0 +1,314 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Encodes elements into a large direct ByteBuffer and writes the buffer to a
+ * channel whenever it gets full, either on the caller thread or, handing over
+ * full buffers and taking back written ones, on a background thread.
+ */
+final class IxBatchWriter {
+
+    static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    /** The default buffer size of the writeLines and writeTo terminals. */
+    static final int BUFFER_SIZE = 1 << 20;
+
+    /** How long to wait for the background writer before checking if it failed. */
+    static final long WAIT_MILLIS = 100L;
+
+    final WritableByteChannel channel;
+
+    final Background background;
+
+    ByteBuffer buffer;
+
+    IxBatchWriter(WritableByteChannel channel, int bufferSize, boolean backgroundWriter) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        if (backgroundWriter) {
+            Background bg = new Background(channel, bufferSize);
+            Thread t = new Thread(bg, "IxWriter-" + THREAD_COUNTER.incrementAndGet());
+            t.setDaemon(true);
+            t.start();
+            this.background = bg;
+        } else {
+            this.background = null;
+        }
+    }
+
+    static <T> void writeTo(Iterable<T> source, WritableByteChannel channel,
+            IxConsumer2<? super T, ? super ByteBuffer> encoder, int bufferSize, boolean backgroundWriter) {
+        IxBatchWriter w = new IxBatchWriter(channel, bufferSize, backgroundWriter);
+        boolean success = false;
+        try {
+            for (T v : source) {
+                ByteBuffer b = w.buffer;
+                int start = b.position();
+                try {
+                    encoder.accept(v, b);
+                } catch (BufferOverflowException ex) {
+                    if (start == 0) {
+                        throw tooLarge(v, bufferSize);
+                    }
+                    // retry the element with an empty buffer
+                    b.position(start);
+                    w.flush();
+                    try {
+                        encoder.accept(v, w.buffer);
+                    } catch (BufferOverflowException ex2) {
+                        throw tooLarge(v, bufferSize);
+                    }
+                }
+                if (!w.buffer.hasRemaining()) {
+                    w.flush();
+                }
+            }
+            w.finish();
+            success = true;
+        } finally {
+            if (!success) {
+                w.cancel();
+            }
+        }
+    }
+
+    static IllegalArgumentException tooLarge(Object v, int bufferSize) {
+        return new IllegalArgumentException("The encoded element doesn't fit into the buffer of " + bufferSize + " bytes: " + v);
+    }
+
+    static void writeLines(Iterable<?> source, File file, Charset charset, int bufferSize, boolean backgroundWriter) {
+        checkBufferSize(charset.newEncoder(), bufferSize);
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+            try {
+                writeLines(source, out.getChannel(), charset, bufferSize, backgroundWriter);
+            } finally {
+                out.close();
+            }
+        } catch (IOException ex) {
+            throw IxLines.wrap(ex);
+        }
+    }
+
+    static void writeLines(Iterable<?> source, WritableByteChannel channel, Charset charset, int bufferSize, boolean backgroundWriter) {
+        CharsetEncoder encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        checkBufferSize(encoder, bufferSize);
+        CharBuffer lineBreak = CharBuffer.wrap("\n");
+        IxBatchWriter w = new IxBatchWriter(channel, bufferSize, backgroundWriter);
+        boolean success = false;
+        try {
+            for (Object v : source) {
+                CharSequence cs = v instanceof CharSequence ? (CharSequence)v : String.valueOf(v);
+                w.encode(encoder, CharBuffer.wrap(cs), false);
+                lineBreak.rewind();
+                w.encode(encoder, lineBreak, false);
+            }
+            lineBreak.limit(0);
+            w.encode(encoder, lineBreak, true);
+            while (encoder.flush(w.buffer) == CoderResult.OVERFLOW) {
+                w.flush();
+            }
+            w.finish();
+            success = true;
+        } finally {
+            if (!success) {
+                w.cancel();
+            }
+        }
+    }
+
+    /**
+     * Checks if the buffer can hold the encoded form of any single character.
+     */
+    static void checkBufferSize(CharsetEncoder encoder, int bufferSize) {
+        int minSize = (int)Math.ceil(encoder.maxBytesPerChar());
+        if (bufferSize < minSize) {
+            throw new IllegalArgumentException("bufferSize >= " + minSize + " required by " + encoder.charset() + " but it was " + bufferSize);
+        }
+    }
+
+    void encode(CharsetEncoder encoder, CharBuffer chars, boolean endOfInput) {
+        for (;;) {
+            CoderResult r = encoder.encode(chars, buffer, endOfInput);
+            if (r.isOverflow()) {
+                if (buffer.position() == 0) {
+                    throw new IllegalStateException("The encoder can't make progress with a buffer of " + buffer.capacity() + " bytes");
+                }
+                flush();
+            } else {
+                if (r.isError()) {
+                    try {
+                        r.throwException();
+                    } catch (CharacterCodingException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Writes out the contents of the current buffer and makes an empty buffer current.
+     */
+    void flush() {
+        ByteBuffer b = buffer;
+        b.flip();
+        Background bg = background;
+        if (bg == null) {
+            write(channel, b);
+            b.clear();
+        } else {
+            buffer = bg.exchange(b);
+        }
+    }
+
+    /**
+     * Writes out the remaining contents and waits for the background writer to finish.
+     */
+    void finish() {
+        if (buffer.position() != 0) {
+            flush();
+        }
+        Background bg = background;
+        if (bg != null) {
+            bg.put(Background.DONE);
+            bg.await();
+        }
+    }
+
+    void cancel() {
+        Background bg = background;
+        if (bg != null) {
+            bg.cancelled = true;
+            bg.full.offer(Background.DONE);
+        }
+    }
+
+    static void write(WritableByteChannel channel, ByteBuffer b) {
+        try {
+            while (b.hasRemaining()) {
+                channel.write(b);
+            }
+        } catch (IOException ex) {
+            throw IxLines.wrap(ex);
+        }
+    }
+
+    static final class Background implements Runnable {
+
+        static final ByteBuffer DONE = ByteBuffer.allocate(0);
+
+        final WritableByteChannel channel;
+
+        final BlockingQueue<ByteBuffer> full;
+
+        final BlockingQueue<ByteBuffer> free;
+
+        final CountDownLatch terminated;
+
+        volatile Throwable error;
+
+        volatile boolean cancelled;
+
+        Background(WritableByteChannel channel, int bufferSize) {
+            this.channel = channel;
+            this.full = new ArrayBlockingQueue<ByteBuffer>(2);
+            this.free = new ArrayBlockingQueue<ByteBuffer>(1);
+            this.free.offer(ByteBuffer.allocateDirect(bufferSize));
+            this.terminated = new CountDownLatch(1);
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (;;) {
+                    ByteBuffer b = full.take();
+                    if (b == DONE || cancelled) {
+                        break;
+                    }
+                    write(channel, b);
+                    b.clear();
+                    free.offer(b);
+                }
+            } catch (Throwable ex) {
+                error = ex;
+            }
+            terminated.countDown();
+        }
+
+        /**
+         * Hands over a full buffer and returns an empty one once available.
+         */
+        ByteBuffer exchange(ByteBuffer b) {
+            put(b);
+            try {
+                for (;;) {
+                    ByteBuffer e = free.poll(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (e != null) {
+                        return e;
+                    }
+                    checkError();
+                }
+            } catch (InterruptedException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+
+        void put(ByteBuffer b) {
+            try {
+                while (!full.offer(b, WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    checkError();
+                }
+            } catch (InterruptedException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+
+        void await() {
+            try {
+                terminated.await();
+            } catch (InterruptedException ex) {
+                throw new RuntimeException(ex);
+            }
+            checkError();
+        }
+
+        void checkError() {
+            Throwable ex = error;
+            if (ex != null) {
+                if (ex instanceof RuntimeException) {
+                    throw (RuntimeException)ex;
+                }
+                if (ex instanceof Error) {
+                    throw (Error)ex;
+                }
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+}
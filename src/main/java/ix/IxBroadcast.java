@@ -0,0 +1,149 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.Closeable;
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * Shares a single pass over the source among any number of independent
+ * iterators by keeping the elements between the slowest and the fastest
+ * iterator in a fixed-size ring buffer.
+ * <p>
+ * The iterators are tracked weakly so that those abandoned before completion, such as the one
+ * behind {@code first()}, stop holding back the others once they are closed or become unreachable.
+ *
+ * @param <T> the value type
+ */
+final class IxBroadcast<T> extends IxSource<T, T> {
+
+    final int bufferSize;
+
+    final Object[] buffer;
+
+    final List<WeakReference<BroadcastIterator<T>>> consumers;
+
+    Iterator<T> it;
+
+    long produced;
+
+    boolean done;
+
+    IxBroadcast(Iterable<T> source, int bufferSize) {
+        super(source);
+        this.bufferSize = bufferSize;
+        this.buffer = new Object[bufferSize];
+        this.consumers = new ArrayList<WeakReference<BroadcastIterator<T>>>();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        if (it == null) {
+            it = source.iterator();
+        }
+        BroadcastIterator<T> c = new BroadcastIterator<T>(this, slowest());
+        consumers.add(c.self);
+        return c;
+    }
+
+    long slowest() {
+        long min = produced;
+        Iterator<WeakReference<BroadcastIterator<T>>> cs = consumers.iterator();
+        while (cs.hasNext()) {
+            BroadcastIterator<T> c = cs.next().get();
+            if (c == null) {
+                cs.remove();
+            } else
+            if (c.index < min) {
+                min = c.index;
+            }
+        }
+        return min;
+    }
+
+    boolean moveNext() {
+        if (done) {
+            return false;
+        }
+        if (!it.hasNext()) {
+            done = true;
+            return false;
+        }
+        long p = produced;
+        int n = bufferSize;
+        if (p - slowest() == n) {
+            throw new IllegalStateException("An iterator() is more than " + n + " elements ahead of the slowest iterator()");
+        }
+        buffer[(int)(p % n)] = it.next();
+        produced = p + 1;
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(long index) {
+        return (T)buffer[(int)(index % bufferSize)];
+    }
+
+    void remove(BroadcastIterator<T> consumer) {
+        List<WeakReference<BroadcastIterator<T>>> cs = consumers;
+        cs.remove(consumer.self);
+        if (cs.isEmpty() && done) {
+            Arrays.fill(buffer, null);
+        }
+    }
+
+    static final class BroadcastIterator<T> extends IxBaseIterator<T> implements Closeable {
+
+        final IxBroadcast<T> parent;
+
+        final WeakReference<BroadcastIterator<T>> self;
+
+        long index;
+
+        BroadcastIterator(IxBroadcast<T> parent, long index) {
+            this.parent = parent;
+            this.index = index;
+            this.self = new WeakReference<BroadcastIterator<T>>(this);
+        }
+
+        @Override
+        protected boolean moveNext() {
+            long i = index;
+            IxBroadcast<T> p = parent;
+            if (i == p.produced && !p.moveNext()) {
+                done = true;
+                p.remove(this);
+                return false;
+            }
+            value = p.get(i);
+            hasValue = true;
+            index = i + 1;
+            return true;
+        }
+
+        @Override
+        public void close() {
+            if (!done) {
+                done = true;
+                hasValue = false;
+                value = null;
+                parent.remove(this);
+            }
+        }
+    }
+}
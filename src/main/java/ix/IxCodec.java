@@ -0,0 +1,42 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.*;
+
+/**
+ * Encodes values into binary form and decodes them back, used by the
+ * operators persisting elements to files.
+ * @param <T> the value type
+ */
+public interface IxCodec<T> {
+    /**
+     * Writes the binary form of the value into the output.
+     * @param value the value to encode
+     * @param output the output to write to
+     * @throws IOException if the output fails
+     */
+    void encode(T value, DataOutput output) throws IOException;
+
+    /**
+     * Reads a value written by encode() from the input.
+     * @param input the input to read from, positioned at the start of a value
+     * @return the decoded value
+     * @throws IOException if the input fails or ends prematurely
+     */
+    T decode(DataInput input) throws IOException;
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.Executor;
+
+/**
+ * Maps the source elements into inner Iterables and drains the current and the
+ * next prefetchSources inner Iterables in the background, emitting their elements
+ * in order.
+ *
+ * @param <T> the source value type
+ * @param <R> the result value type
+ */
+final class IxConcatMapEager<T, R> extends IxSource<T, R> {
+
+    /** The number of elements buffered per inner Iterable. */
+    static final int BUFFER_SIZE = 128;
+
+    final IxFunction<? super T, ? extends Iterable<? extends R>> mapper;
+
+    final int prefetchSources;
+
+    final Executor executor;
+
+    IxConcatMapEager(Iterable<T> source, IxFunction<? super T, ? extends Iterable<? extends R>> mapper,
+            int prefetchSources, Executor executor) {
+        super(source);
+        this.mapper = mapper;
+        this.prefetchSources = prefetchSources;
+        this.executor = executor;
+    }
+
+    @Override
+    public Iterator<R> iterator() {
+        return new ConcatMapEagerIterator<T, R>(source.iterator(), mapper, prefetchSources, executor);
+    }
+
+    static final class ConcatMapEagerIterator<T, R> extends IxSourceIterator<T, R> implements Closeable {
+
+        final IxFunction<? super T, ? extends Iterable<? extends R>> mapper;
+
+        final int prefetchSources;
+
+        final Executor executor;
+
+        final ArrayDeque<IxPrefetch.PrefetchIterator<R>> inners;
+
+        boolean sourceDone;
+
+        ConcatMapEagerIterator(Iterator<T> it, IxFunction<? super T, ? extends Iterable<? extends R>> mapper,
+                int prefetchSources, Executor executor) {
+            super(it);
+            this.mapper = mapper;
+            this.prefetchSources = prefetchSources;
+            this.executor = executor;
+            this.inners = new ArrayDeque<IxPrefetch.PrefetchIterator<R>>();
+        }
+
+        @Override
+        protected boolean moveNext() {
+            ArrayDeque<IxPrefetch.PrefetchIterator<R>> q = inners;
+            try {
+                for (;;) {
+                    while (!sourceDone && q.size() <= prefetchSources) {
+                        if (it.hasNext()) {
+                            Iterable<? extends R> inner = mapper.apply(it.next());
+                            q.offer(IxPrefetch.<R>start(inner, BUFFER_SIZE, executor));
+                        } else {
+                            sourceDone = true;
+                        }
+                    }
+
+                    IxPrefetch.PrefetchIterator<R> c = q.peek();
+                    if (c == null) {
+                        done = true;
+                        return false;
+                    }
+                    if (c.hasNext()) {
+                        value = c.next();
+                        hasValue = true;
+                        return true;
+                    }
+                    q.poll();
+                }
+            } catch (RuntimeException ex) {
+                close();
+                throw ex;
+            } catch (Error ex) {
+                close();
+                throw ex;
+            }
+        }
+
+        /**
+         * Stops draining the inner Iterables opened ahead of time.
+         */
+        @Override
+        public void close() {
+            done = true;
+            sourceDone = true;
+            IxPrefetch.PrefetchIterator<R> c;
+            while ((c = inners.poll()) != null) {
+                c.close();
+            }
+        }
+    }
+}
@@ -26,6 +26,10 @@ final class IxCount<T> extends IxSource<T, Integer> {
 
     @Override
     public Iterator<Integer> iterator() {
+        int size = SizeHelper.exactSize(source);
+        if (size >= 0) {
+            return new IxJust<Integer>(size).iterator();
+        }
         return new CountIterator<T>(source.iterator());
     }
 
@@ -26,6 +26,10 @@ final class IxCountLong<T> extends IxSource<T, Long> {
 
     @Override
     public Iterator<Long> iterator() {
+        int size = SizeHelper.exactSize(source);
+        if (size >= 0) {
+            return new IxJust<Long>((long)size).iterator();
+        }
         return new CountLongIterator<T>(source.iterator());
     }
 
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.Iterator;
+
+/**
+ * Locates the fields of each source line and emits them through a single
+ * DelimitedRecord instance per iterator().
+ */
+final class IxDelimitedRecords extends Ix<DelimitedRecord> {
+
+    final Iterable<? extends CharSequence> source;
+
+    final char delimiter;
+
+    final char quoteChar;
+
+    final boolean quoting;
+
+    final int[] columns;
+
+    IxDelimitedRecords(Iterable<? extends CharSequence> source, char delimiter, char quoteChar, boolean quoting, int[] columns) {
+        this.source = source;
+        this.delimiter = delimiter;
+        this.quoteChar = quoteChar;
+        this.quoting = quoting;
+        this.columns = columns;
+    }
+
+    @Override
+    public Iterator<DelimitedRecord> iterator() {
+        return new DelimitedRecordsIterator(source.iterator(),
+                new DelimitedRecord(delimiter, quoteChar, quoting, columns));
+    }
+
+    static int[] checkColumns(int[] columns) {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("columns is empty");
+        }
+        for (int c : columns) {
+            if (c < 0) {
+                throw new IllegalArgumentException("columns >= 0 required but it contains " + c);
+            }
+        }
+        return columns.clone();
+    }
+
+    static final class DelimitedRecordsIterator extends IxBaseIterator<DelimitedRecord> {
+
+        final Iterator<? extends CharSequence> it;
+
+        final DelimitedRecord record;
+
+        DelimitedRecordsIterator(Iterator<? extends CharSequence> it, DelimitedRecord record) {
+            this.it = it;
+            this.record = record;
+        }
+
+        @Override
+        protected boolean moveNext() {
+            if (it.hasNext()) {
+                DelimitedRecord r = record;
+                r.reset(it.next());
+                value = r;
+                hasValue = true;
+                return true;
+            }
+            done = true;
+            return false;
+        }
+    }
+}
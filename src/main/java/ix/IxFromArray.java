@@ -18,7 +18,7 @@ package ix;
 
 import java.util.*;
 
-final class IxFromArray<T> extends Ix<T> {
+final class IxFromArray<T> extends Ix<T> implements IxIndexed<T> {
 
     final int start;
     final int end;
@@ -35,6 +35,21 @@ final class IxFromArray<T> extends Ix<T> {
         return new FromArray<T>(start, end, array);
     }
 
+    @Override
+    public int size() {
+        return end - start;
+    }
+
+    @Override
+    public T get(int index) {
+        return array[start + index];
+    }
+
+    @Override
+    public Iterator<T> iterator(int from, int to) {
+        return new FromArray<T>(start + from, start + to, array);
+    }
+
     static final class FromArray<T> implements Iterator<T> {
         final T[] array;
 
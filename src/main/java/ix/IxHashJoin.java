@@ -0,0 +1,274 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+
+/**
+ * Joins two sequences by loading one of them into a hash table
+ * keyed by the join key and streaming the other one against it.
+ *
+ * @param <T> the left value type
+ * @param <U> the right value type
+ * @param <K> the join key type
+ * @param <R> the result value type
+ */
+final class IxHashJoin<T, U, K, R> extends IxSource<T, R> {
+
+    static final int INNER = 0;
+
+    static final int LEFT = 1;
+
+    static final int FULL = 2;
+
+    static final int HASH_AUTO = 0;
+
+    static final int HASH_THIS = 1;
+
+    static final int HASH_OTHER = 2;
+
+    final Iterable<? extends U> other;
+
+    final IxFunction<? super T, ? extends K> leftKey;
+
+    final IxFunction<? super U, ? extends K> rightKey;
+
+    final IxFunction2<? super T, ? super U, ? extends R> combiner;
+
+    final int mode;
+
+    final int hash;
+
+    IxHashJoin(Iterable<T> source, Iterable<? extends U> other,
+            IxFunction<? super T, ? extends K> leftKey, IxFunction<? super U, ? extends K> rightKey,
+            IxFunction2<? super T, ? super U, ? extends R> combiner, int mode, int hash) {
+        super(source);
+        this.other = other;
+        this.leftKey = leftKey;
+        this.rightKey = rightKey;
+        this.combiner = combiner;
+        this.mode = mode;
+        this.hash = hash;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Override
+    public Iterator<R> iterator() {
+        boolean hashThis;
+        if (hash == HASH_AUTO) {
+            int leftSize = SizeHelper.knownSize(source);
+            int rightSize = SizeHelper.knownSize(other);
+            hashThis = leftSize >= 0 && rightSize >= 0 && leftSize < rightSize;
+        } else {
+            hashThis = hash == HASH_THIS;
+        }
+        int m = mode;
+        if (hashThis) {
+            return new HashJoinIterator<R>((Iterator)other.iterator(), (IxFunction)rightKey,
+                    (Iterable)source, (IxFunction)leftKey, (IxFunction2)combiner, false,
+                    m == FULL, m != INNER);
+        }
+        return new HashJoinIterator<R>((Iterator)source.iterator(), (IxFunction)leftKey,
+                (Iterable)other, (IxFunction)rightKey, (IxFunction2)combiner, true,
+                m != INNER, m == FULL);
+    }
+
+    static final class HashJoinIterator<R> extends IxBaseIterator<R> {
+
+        static final Object NULL = new Object();
+
+        final Iterator<Object> probe;
+
+        final IxFunction<Object, Object> probeKey;
+
+        final Iterable<Object> build;
+
+        final IxFunction<Object, Object> buildKey;
+
+        final IxFunction2<Object, Object, R> combiner;
+
+        final boolean probeIsLeft;
+
+        final boolean emitProbeUnmatched;
+
+        final boolean emitBuildUnmatched;
+
+        Map<Object, Object> table;
+
+        Set<Object> matched;
+
+        Object probeValue;
+
+        Bucket matches;
+
+        int matchIndex;
+
+        Iterator<Map.Entry<Object, Object>> unmatched;
+
+        HashJoinIterator(Iterator<Object> probe, IxFunction<Object, Object> probeKey,
+                Iterable<Object> build, IxFunction<Object, Object> buildKey,
+                IxFunction2<Object, Object, R> combiner, boolean probeIsLeft,
+                boolean emitProbeUnmatched, boolean emitBuildUnmatched) {
+            this.probe = probe;
+            this.probeKey = probeKey;
+            this.build = build;
+            this.buildKey = buildKey;
+            this.combiner = combiner;
+            this.probeIsLeft = probeIsLeft;
+            this.emitProbeUnmatched = emitProbeUnmatched;
+            this.emitBuildUnmatched = emitBuildUnmatched;
+        }
+
+        void buildTable() {
+            int capacity = SizeHelper.hashCapacity(SizeHelper.knownSize(build));
+            Map<Object, Object> t;
+            if (emitBuildUnmatched) {
+                t = new LinkedHashMap<Object, Object>(capacity);
+                matched = new HashSet<Object>();
+            } else {
+                t = new HashMap<Object, Object>(capacity);
+            }
+
+            IxFunction<Object, Object> keySelector = buildKey;
+            for (Object v : build) {
+                Object k = keySelector.apply(v);
+                Object o = v != null ? v : NULL;
+
+                Object e = t.put(k, o);
+                if (e != null) {
+                    Bucket b;
+                    if (e instanceof Bucket) {
+                        b = (Bucket)e;
+                    } else {
+                        b = new Bucket();
+                        b.add(e);
+                    }
+                    b.add(o);
+                    t.put(k, b);
+                }
+            }
+            table = t;
+        }
+
+        R combine(Object probeItem, Object buildItem) {
+            Object b = buildItem == NULL ? null : buildItem;
+            if (probeIsLeft) {
+                return combiner.apply(probeItem, b);
+            }
+            return combiner.apply(b, probeItem);
+        }
+
+        @Override
+        protected boolean moveNext() {
+            Map<Object, Object> t = table;
+            if (t == null) {
+                buildTable();
+                t = table;
+            }
+
+            for (;;) {
+                Bucket b = matches;
+                if (b != null) {
+                    int i = matchIndex;
+                    if (i != b.size()) {
+                        matchIndex = i + 1;
+                        value = combine(probeValue, b.get(i));
+                        hasValue = true;
+                        return true;
+                    }
+                    matches = null;
+                    probeValue = null;
+                }
+
+                Iterator<Map.Entry<Object, Object>> u = unmatched;
+                if (u == null) {
+                    Iterator<Object> p = probe;
+                    if (p.hasNext()) {
+                        Object v = p.next();
+                        Object k = probeKey.apply(v);
+                        Object e = t.get(k);
+
+                        if (e == null) {
+                            if (emitProbeUnmatched) {
+                                value = combine(v, null);
+                                hasValue = true;
+                                return true;
+                            }
+                            continue;
+                        }
+
+                        Set<Object> m = matched;
+                        if (m != null) {
+                            m.add(k);
+                        }
+
+                        if (e instanceof Bucket) {
+                            probeValue = v;
+                            matches = (Bucket)e;
+                            matchIndex = 0;
+                            continue;
+                        }
+
+                        value = combine(v, e);
+                        hasValue = true;
+                        return true;
+                    }
+
+                    if (!emitBuildUnmatched) {
+                        break;
+                    }
+                    u = t.entrySet().iterator();
+                    unmatched = u;
+                }
+
+                Set<Object> m = matched;
+                while (u.hasNext()) {
+                    Map.Entry<Object, Object> entry = u.next();
+                    if (!m.contains(entry.getKey())) {
+                        Object e = entry.getValue();
+                        if (e instanceof Bucket) {
+                            matches = (Bucket)e;
+                            matchIndex = 0;
+                            break;
+                        }
+                        value = combine(null, e);
+                        hasValue = true;
+                        return true;
+                    }
+                }
+                if (matches == null) {
+                    break;
+                }
+            }
+
+            table = Collections.emptyMap();
+            matched = null;
+            unmatched = null;
+            done = true;
+            return false;
+        }
+    }
+
+    static final class Bucket extends ArrayList<Object> {
+
+        private static final long serialVersionUID = -1394468418442962394L;
+
+        Bucket() {
+            super(4);
+        }
+    }
+}
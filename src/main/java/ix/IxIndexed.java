@@ -0,0 +1,49 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.Iterator;
+
+/**
+ * A sequence with a known number of elements which can be
+ * accessed by their index in constant time.
+ *
+ * @param <T> the value type
+ */
+interface IxIndexed<T> {
+
+    /**
+     * Returns the number of elements.
+     * @return the number of elements
+     */
+    int size();
+
+    /**
+     * Returns the element at the given index.
+     * @param index the index in [0, size())
+     * @return the element
+     */
+    T get(int index);
+
+    /**
+     * Returns an Iterator over the elements with indexes in [from, to).
+     * @param from the index of the first element, inclusive
+     * @param to the index after the last element, exclusive
+     * @return the new Iterator instance
+     */
+    Iterator<T> iterator(int from, int to);
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Inflates a gzip file in blocks on a background thread and emits the
+ * decompressed blocks, at most a given number of them ahead of the consumer.
+ */
+final class IxInflate extends Ix<byte[]> {
+
+    /** The default size of the decompressed blocks. */
+    static final int BLOCK_SIZE = 256 * 1024;
+
+    /** The default number of decompressed blocks produced ahead of the consumer. */
+    static final int PREFETCH = 4;
+
+    /** The size of the buffer holding the compressed bytes read from the file. */
+    static final int INPUT_BUFFER_SIZE = 64 * 1024;
+
+    final File file;
+
+    final int blockSize;
+
+    final int prefetch;
+
+    IxInflate(File file, int blockSize, int prefetch) {
+        this.file = file;
+        this.blockSize = blockSize;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public Iterator<byte[]> iterator() {
+        return start(file, blockSize, prefetch);
+    }
+
+    static IxPrefetch.PrefetchIterator<byte[]> start(final File file, final int blockSize, int prefetch) {
+        return IxPrefetch.start(new Iterable<byte[]>() {
+            @Override
+            public Iterator<byte[]> iterator() {
+                return new GzipBlockIterator(file, blockSize);
+            }
+        }, prefetch, null);
+    }
+
+    static final class GzipBlockIterator extends IxBaseIterator<byte[]> implements Closeable {
+
+        final File file;
+
+        final int blockSize;
+
+        InputStream in;
+
+        GzipBlockIterator(File file, int blockSize) {
+            this.file = file;
+            this.blockSize = blockSize;
+        }
+
+        @Override
+        protected boolean moveNext() {
+            try {
+                InputStream is = in;
+                if (is == null) {
+                    FileInputStream fin = new FileInputStream(file);
+                    try {
+                        is = new GZIPInputStream(fin, INPUT_BUFFER_SIZE);
+                    } catch (IOException ex) {
+                        fin.close();
+                        throw ex;
+                    }
+                    in = is;
+                }
+                byte[] block = new byte[blockSize];
+                int n = 0;
+                while (n < block.length) {
+                    int r = is.read(block, n, block.length - n);
+                    if (r < 0) {
+                        break;
+                    }
+                    n += r;
+                }
+                if (n == 0) {
+                    close();
+                    return false;
+                }
+                value = n == block.length ? block : Arrays.copyOf(block, n);
+                hasValue = true;
+                return true;
+            } catch (IOException ex) {
+                close();
+                throw IxLines.wrap(ex);
+            }
+        }
+
+        /**
+         * Closes the underlying file.
+         */
+        @Override
+        public void close() {
+            done = true;
+            InputStream is = in;
+            if (is != null) {
+                in = null;
+                try {
+                    is.close();
+                } catch (IOException ex) {
+                    // ignored
+                }
+            }
+        }
+    }
+
+    /**
+     * Exposes the decompressed blocks as an InputStream; closing it stops the
+     * background inflation.
+     */
+    static final class BlockInputStream extends InputStream {
+
+        final IxPrefetch.PrefetchIterator<byte[]> blocks;
+
+        byte[] current;
+
+        int index;
+
+        BlockInputStream(IxPrefetch.PrefetchIterator<byte[]> blocks) {
+            this.blocks = blocks;
+        }
+
+        /**
+         * Makes sure there are unread bytes in the current block.
+         * @return false if all blocks have been read
+         */
+        boolean fill() {
+            byte[] b = current;
+            while (b == null || index == b.length) {
+                if (!blocks.hasNext()) {
+                    current = null;
+                    return false;
+                }
+                b = blocks.next();
+                current = b;
+                index = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public int read() {
+            if (!fill()) {
+                return -1;
+            }
+            return current[index++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(len, current.length - index);
+            System.arraycopy(current, index, b, off, n);
+            index += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            byte[] b = current;
+            return b != null ? b.length - index : 0;
+        }
+
+        @Override
+        public void close() {
+            current = null;
+            blocks.close();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+
+/**
+ * Exposes what is known about the structure of a sequence without iterating it,
+ * for companion modules, such as the Stream bridge of ixjava-jdk8, that live
+ * outside this package.
+ */
+public enum IxIntrospection {
+    ;
+
+    /**
+     * Returns a read-only List view of the given sequence whose get() accesses the elements
+     * by their index without iterating the sequence, or null if the sequence doesn't support that.
+     * <p>
+     * Supported are range, fromArray, fromMaterialized, mappedRecords with at most Integer.MAX_VALUE
+     * records, random access Lists and the map, skip and take operators applied to them.
+     * @param <T> the value type
+     * @param source the source sequence, not null
+     * @return the new random access List view or null
+     * @throws NullPointerException if source is null
+     * @since 1.0
+     */
+    public static <T> List<T> indexedView(Iterable<T> source) {
+        IxIndexed<T> indexed = IndexedHelper.indexed(Ix.nullCheck(source, "source is null"));
+        if (indexed != null) {
+            return new IndexedList<T>(indexed);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the given sequence as a Collection if it is one or wraps one
+     * via {@link Ix#from(Iterable)}, null otherwise.
+     * @param <T> the value type
+     * @param source the source sequence, not null
+     * @return the Collection or null
+     * @throws NullPointerException if source is null
+     * @since 1.0
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Collection<T> collection(Iterable<T> source) {
+        Iterable<T> s = Ix.nullCheck(source, "source is null");
+        if (s instanceof IxWrapper) {
+            s = ((IxWrapper<T>)s).source;
+        }
+        if (s instanceof Collection) {
+            return (Collection<T>)s;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of elements the given sequence will produce if it can be
+     * determined without iterating it, -1 otherwise.
+     * @param source the source sequence, not null
+     * @return the number of elements or -1 if not known
+     * @throws NullPointerException if source is null
+     * @since 1.0
+     */
+    public static int knownSize(Iterable<?> source) {
+        return SizeHelper.knownSize(Ix.nullCheck(source, "source is null"));
+    }
+
+    static final class IndexedList<T> extends AbstractList<T> implements RandomAccess {
+
+        final IxIndexed<T> source;
+
+        IndexedList(IxIndexed<T> source) {
+            this.source = source;
+        }
+
+        @Override
+        public T get(int index) {
+            int n = source.size();
+            if (index < 0 || index >= n) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + n);
+            }
+            return source.get(index);
+        }
+
+        @Override
+        public int size() {
+            return source.size();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return source.iterator(0, source.size());
+        }
+    }
+}
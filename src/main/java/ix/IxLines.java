@@ -0,0 +1,347 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+
+/**
+ * Emits the lines of a file by scanning memory-mapped windows of it for line breaks.
+ * <p>
+ * For US-ASCII, ISO-8859-1 and UTF-8, the line breaks are found directly in the
+ * mapped bytes and the lines are emitted as CharSequence views of them; other
+ * charsets are decoded through a Reader.
+ */
+final class IxLines extends Ix<CharSequence> {
+
+    /** The size of the regions mapped at once. */
+    static final int WINDOW_SIZE = 1 << 28;
+
+    final File file;
+
+    final Charset charset;
+
+    IxLines(File file, Charset charset) {
+        this.file = file;
+        this.charset = charset;
+    }
+
+    @Override
+    public Iterator<CharSequence> iterator() {
+        String name = charset.name();
+        if ("UTF-8".equals(name)) {
+            return new MappedLinesIterator(file, true);
+        }
+        if ("US-ASCII".equals(name) || "ISO-8859-1".equals(name)) {
+            return new MappedLinesIterator(file, false);
+        }
+        return new ReaderLinesIterator(file, charset);
+    }
+
+    static RuntimeException wrap(IOException ex) {
+        return new RuntimeException(ex);
+    }
+
+    static MappedByteBuffer map(File file, long position, long size) {
+        try {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                // the mapping stays valid after the channel is closed
+                return raf.getChannel().map(FileChannel.MapMode.READ_ONLY, position, size);
+            } finally {
+                raf.close();
+            }
+        } catch (IOException ex) {
+            throw wrap(ex);
+        }
+    }
+
+    static final class MappedLinesIterator extends IxBaseIterator<CharSequence> {
+
+        final File file;
+
+        final boolean utf8;
+
+        long fileSize = -1L;
+
+        /** The file position of the mapped window. */
+        long windowStart;
+
+        ByteBuffer window;
+
+        /** The position of the next line within the window. */
+        int index;
+
+        MappedLinesIterator(File file, boolean utf8) {
+            this.file = file;
+            this.utf8 = utf8;
+        }
+
+        @Override
+        protected boolean moveNext() {
+            ByteBuffer w = window;
+            if (w == null) {
+                if (!file.isFile()) {
+                    throw wrap(new FileNotFoundException(file.toString()));
+                }
+                fileSize = file.length();
+                w = remap(0L, WINDOW_SIZE);
+            }
+            for (;;) {
+                int start = index;
+                int limit = w.limit();
+                boolean lastWindow = windowStart + limit == fileSize;
+                if (start == limit && lastWindow) {
+                    window = null;
+                    done = true;
+                    return false;
+                }
+
+                int i = start;
+                boolean ascii = true;
+                while (i < limit) {
+                    byte b = w.get(i);
+                    if (b == '\n') {
+                        break;
+                    }
+                    if (b < 0) {
+                        ascii = false;
+                    }
+                    i++;
+                }
+
+                if (i < limit || lastWindow) {
+                    int end = i;
+                    if (end > start && w.get(end - 1) == '\r') {
+                        end--;
+                    }
+                    index = i < limit ? i + 1 : i;
+                    value = new ByteLine(w, start, end - start, !utf8 || ascii);
+                    hasValue = true;
+                    return true;
+                }
+
+                // the line continues past the window, map a new window starting with it
+                int size = WINDOW_SIZE;
+                if (start == 0) {
+                    if (limit == Integer.MAX_VALUE) {
+                        throw new IllegalStateException("Line longer than " + Integer.MAX_VALUE + " bytes at position " + windowStart);
+                    }
+                    size = (int)Math.min(Integer.MAX_VALUE, 2L * limit);
+                }
+                w = remap(windowStart + start, size);
+            }
+        }
+
+        ByteBuffer remap(long position, int maxSize) {
+            long size = Math.min(fileSize - position, maxSize);
+            ByteBuffer w = map(file, position, size);
+            window = w;
+            windowStart = position;
+            index = 0;
+            return w;
+        }
+    }
+
+    /**
+     * A line as a view of bytes of a mapped file; if the bytes are single-byte
+     * characters, the CharSequence methods work on the bytes directly, otherwise
+     * they decode the line as UTF-8 on first use.
+     * <p>
+     * Lines are equal to other lines with the same characters and their hashCode()
+     * matches that of the same characters as a String.
+     */
+    static final class ByteLine implements CharSequence {
+
+        static final Charset UTF_8 = Charset.forName("UTF-8");
+
+        static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+        final ByteBuffer buffer;
+
+        final int offset;
+
+        final int size;
+
+        final boolean singleByte;
+
+        String decoded;
+
+        int hash;
+
+        ByteLine(ByteBuffer buffer, int offset, int size, boolean singleByte) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.size = size;
+            this.singleByte = singleByte;
+        }
+
+        @Override
+        public int length() {
+            if (singleByte) {
+                return size;
+            }
+            return toString().length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (singleByte) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException("index: " + index + ", length: " + size);
+                }
+                return (char)(buffer.get(offset + index) & 0xFF);
+            }
+            return toString().charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (singleByte) {
+                if (start < 0 || end > size || start > end) {
+                    throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + size);
+                }
+                return new ByteLine(buffer, offset + start, end - start, true);
+            }
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            String s = decoded;
+            if (s == null) {
+                ByteBuffer b = buffer.duplicate();
+                b.limit(offset + size);
+                b.position(offset);
+                s = (singleByte ? ISO_8859_1 : UTF_8).decode(b).toString();
+                decoded = s;
+            }
+            return s;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ByteLine)) {
+                return false;
+            }
+            ByteLine other = (ByteLine)obj;
+            if (singleByte && other.singleByte) {
+                int n = size;
+                if (n != other.size) {
+                    return false;
+                }
+                ByteBuffer b = buffer;
+                ByteBuffer ob = other.buffer;
+                int o = offset;
+                int oo = other.offset;
+                for (int i = 0; i < n; i++) {
+                    if (b.get(o + i) != ob.get(oo + i)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return toString().equals(other.toString());
+        }
+
+        @Override
+        public int hashCode() {
+            int h = hash;
+            if (h == 0) {
+                if (singleByte) {
+                    ByteBuffer b = buffer;
+                    int end = offset + size;
+                    for (int i = offset; i < end; i++) {
+                        h = 31 * h + (b.get(i) & 0xFF);
+                    }
+                } else {
+                    h = toString().hashCode();
+                }
+                hash = h;
+            }
+            return h;
+        }
+    }
+
+    static class ReaderLinesIterator extends IxBaseIterator<CharSequence> implements Closeable {
+
+        final File file;
+
+        final Charset charset;
+
+        BufferedReader reader;
+
+        ReaderLinesIterator(File file, Charset charset) {
+            this.file = file;
+            this.charset = charset;
+        }
+
+        @Override
+        protected boolean moveNext() {
+            try {
+                BufferedReader r = reader;
+                if (r == null) {
+                    r = new BufferedReader(new InputStreamReader(open(), charset));
+                    reader = r;
+                }
+                String line = r.readLine();
+                if (line == null) {
+                    close();
+                    return false;
+                }
+                value = line;
+                hasValue = true;
+                return true;
+            } catch (IOException ex) {
+                close();
+                throw wrap(ex);
+            }
+        }
+
+        /**
+         * Opens the stream of bytes to decode.
+         * @return the new InputStream
+         * @throws IOException if the file can't be opened
+         */
+        InputStream open() throws IOException {
+            return new FileInputStream(file);
+        }
+
+        /**
+         * Closes the underlying file.
+         */
+        @Override
+        public void close() {
+            done = true;
+            BufferedReader r = reader;
+            if (r != null) {
+                reader = null;
+                try {
+                    r.close();
+                } catch (IOException ex) {
+                    // ignored
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+
+/**
+ * Emits the lines of a gzip file; the file is inflated on a background thread
+ * while the consumer decodes and splits the decompressed blocks.
+ */
+final class IxLinesGzip extends Ix<CharSequence> {
+
+    final File file;
+
+    final Charset charset;
+
+    IxLinesGzip(File file, Charset charset) {
+        this.file = file;
+        this.charset = charset;
+    }
+
+    @Override
+    public Iterator<CharSequence> iterator() {
+        return new GzipLinesIterator(file, charset);
+    }
+
+    static final class GzipLinesIterator extends IxLines.ReaderLinesIterator {
+
+        GzipLinesIterator(File file, Charset charset) {
+            super(file, charset);
+        }
+
+        @Override
+        InputStream open() throws IOException {
+            if (!file.isFile()) {
+                throw new FileNotFoundException(file.toString());
+            }
+            return new IxInflate.BlockInputStream(IxInflate.start(file, IxInflate.BLOCK_SIZE, IxInflate.PREFETCH));
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.File;
+import java.nio.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Emits the fixed-width records of a file through a flyweight view positioned
+ * over memory-mapped windows of the file.
+ * <p>
+ * The number of records and the mapped windows are determined on first use and
+ * shared by all iterator() calls. The records can be accessed by index through
+ * {@link #indexed()} if their number fits into an int.
+ *
+ * @param <V> the view type
+ */
+final class IxMappedRecords<V extends RecordView> extends Ix<V> {
+
+    /** The maximum size of the regions mapped at once. */
+    static final int WINDOW_SIZE = 1 << 28;
+
+    final File file;
+
+    final int recordSize;
+
+    final ByteOrder order;
+
+    final IxSupplier<V> viewFactory;
+
+    final int recordsPerWindow;
+
+    volatile long recordCount = -1L;
+
+    volatile AtomicReferenceArray<ByteBuffer> windows;
+
+    IxMappedRecords(File file, int recordSize, ByteOrder order, IxSupplier<V> viewFactory) {
+        this(file, recordSize, order, viewFactory, WINDOW_SIZE);
+    }
+
+    IxMappedRecords(File file, int recordSize, ByteOrder order, IxSupplier<V> viewFactory, int windowSize) {
+        this.file = file;
+        this.recordSize = recordSize;
+        this.order = order;
+        this.viewFactory = viewFactory;
+        this.recordsPerWindow = Math.max(1, windowSize / recordSize);
+    }
+
+    long recordCount() {
+        long c = recordCount;
+        if (c < 0L) {
+            synchronized (this) {
+                c = recordCount;
+                if (c < 0L) {
+                    if (!file.isFile()) {
+                        throw new RuntimeException(new java.io.FileNotFoundException(file.toString()));
+                    }
+                    c = file.length() / recordSize;
+                    long w = (c + recordsPerWindow - 1) / recordsPerWindow;
+                    windows = new AtomicReferenceArray<ByteBuffer>((int)w);
+                    recordCount = c;
+                }
+            }
+        }
+        return c;
+    }
+
+    ByteBuffer mappedWindow(int w) {
+        AtomicReferenceArray<ByteBuffer> ws = windows;
+        ByteBuffer b = ws.get(w);
+        if (b == null) {
+            long start = (long)w * recordsPerWindow;
+            long n = Math.min(recordsPerWindow, recordCount - start);
+            b = IxLines.map(file, start * recordSize, n * recordSize).order(order);
+            if (!ws.compareAndSet(w, null, b)) {
+                b = ws.get(w);
+            }
+        }
+        return b;
+    }
+
+    V view(long index, V view) {
+        int rpw = recordsPerWindow;
+        int w = (int)(index / rpw);
+        int offset = (int)(index - (long)w * rpw) * recordSize;
+        view.position(mappedWindow(w), offset, index);
+        return view;
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return new MappedRecordsIterator<V>(this, 0L, recordCount());
+    }
+
+    /**
+     * Returns an IxIndexed view of the records or null if there are more than
+     * Integer.MAX_VALUE records and thus they have to be iterated.
+     * @return the indexed view or null
+     */
+    IxIndexed<V> indexed() {
+        if (recordCount() > Integer.MAX_VALUE) {
+            return null;
+        }
+        return new IndexedRecords();
+    }
+
+    final class IndexedRecords implements IxIndexed<V> {
+
+        @Override
+        public int size() {
+            return (int)recordCount;
+        }
+
+        @Override
+        public V get(int index) {
+            return view(index, viewFactory.get());
+        }
+
+        @Override
+        public Iterator<V> iterator(int from, int to) {
+            return new MappedRecordsIterator<V>(IxMappedRecords.this, from, to);
+        }
+    }
+
+    static final class MappedRecordsIterator<V extends RecordView> implements Iterator<V> {
+
+        final IxMappedRecords<V> parent;
+
+        final long end;
+
+        long index;
+
+        V view;
+
+        MappedRecordsIterator(IxMappedRecords<V> parent, long start, long end) {
+            this.parent = parent;
+            this.index = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index != end;
+        }
+
+        @Override
+        public V next() {
+            long i = index;
+            if (i != end) {
+                index = i + 1;
+                V v = view;
+                if (v == null) {
+                    v = parent.viewFactory.get();
+                    view = v;
+                }
+                return parent.view(i, v);
+            }
+            throw new NoSuchElementException();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Reads back the elements written by materializeTo() from a memory-mapped file.
+ * <p>
+ * The file consists of a header (magic, version, element count, index offset),
+ * the encoded elements and an index of the file offset of each element. The index
+ * and the windows of the element data are mapped on first use and shared by all
+ * iterator() calls.
+ *
+ * @param <T> the value type
+ */
+final class IxMaterialized<T> extends Ix<T> implements IxIndexed<T> {
+
+    static final int MAGIC = 0x49584D31;
+
+    static final int VERSION = 1;
+
+    /** The header: magic int, version int, element count long, index offset long. */
+    static final int HEADER_SIZE = 24;
+
+    /** The distance of the window starts; each window maps twice this size. */
+    static final int WINDOW_SIZE = 1 << 29;
+
+    final File file;
+
+    final IxCodec<T> codec;
+
+    final int windowSize;
+
+    volatile LongBuffer index;
+
+    int count;
+
+    long indexOffset;
+
+    AtomicReferenceArray<ByteBuffer> windows;
+
+    IxMaterialized(File file, IxCodec<T> codec) {
+        this(file, codec, WINDOW_SIZE);
+    }
+
+    IxMaterialized(File file, IxCodec<T> codec, int windowSize) {
+        this.file = file;
+        this.codec = codec;
+        this.windowSize = windowSize;
+    }
+
+    LongBuffer index() {
+        LongBuffer idx = index;
+        if (idx == null) {
+            synchronized (this) {
+                idx = index;
+                if (idx == null) {
+                    idx = open();
+                    index = idx;
+                }
+            }
+        }
+        return idx;
+    }
+
+    LongBuffer open() {
+        if (!file.isFile()) {
+            throw IxLines.wrap(new FileNotFoundException(file.toString()));
+        }
+        long length = file.length();
+        if (length < HEADER_SIZE) {
+            throw IxLines.wrap(new IOException("Not a materialized file: " + file));
+        }
+        ByteBuffer header = IxLines.map(file, 0L, HEADER_SIZE);
+        if (header.getInt(0) != MAGIC) {
+            throw IxLines.wrap(new IOException("Not a materialized file: " + file));
+        }
+        if (header.getInt(4) != VERSION) {
+            throw IxLines.wrap(new IOException("Unsupported materialized file version " + header.getInt(4) + ": " + file));
+        }
+        long c = header.getLong(8);
+        long io = header.getLong(16);
+        if (c > Integer.MAX_VALUE || c < 0L || io < HEADER_SIZE || io + c * 8 != length) {
+            throw IxLines.wrap(new IOException("Corrupted materialized file: " + file));
+        }
+        count = (int)c;
+        indexOffset = io;
+        windows = new AtomicReferenceArray<ByteBuffer>((int)((io - 1) / windowSize + 1));
+        return IxLines.map(file, io, c * 8).asLongBuffer();
+    }
+
+    /**
+     * Points the input to the encoded bytes of the given element.
+     */
+    ByteBufferDataInput locate(LongBuffer idx, int i, ByteBufferDataInput input) {
+        long start = idx.get(i);
+        long end = i + 1 < count ? idx.get(i + 1) : indexOffset;
+        int w = (int)(start / windowSize);
+        long windowStart = (long)w * windowSize;
+        long windowEnd = Math.min(indexOffset, windowStart + 2L * windowSize);
+        if (end <= windowEnd) {
+            AtomicReferenceArray<ByteBuffer> ws = windows;
+            ByteBuffer b = ws.get(w);
+            if (b == null) {
+                b = IxLines.map(file, windowStart, windowEnd - windowStart);
+                if (!ws.compareAndSet(w, null, b)) {
+                    b = ws.get(w);
+                }
+            }
+            return input.reset(b, (int)(start - windowStart), (int)(end - windowStart));
+        }
+        // an element larger than the window size gets its own mapping
+        ByteBuffer b = IxLines.map(file, start, end - start);
+        return input.reset(b, 0, b.limit());
+    }
+
+    T decode(LongBuffer idx, int i, ByteBufferDataInput input) {
+        try {
+            return codec.decode(locate(idx, i, input));
+        } catch (IOException ex) {
+            throw IxLines.wrap(ex);
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        LongBuffer idx = index();
+        return new MaterializedIterator<T>(this, idx, 0, count);
+    }
+
+    @Override
+    public int size() {
+        index();
+        return count;
+    }
+
+    @Override
+    public T get(int i) {
+        return decode(index(), i, new ByteBufferDataInput());
+    }
+
+    @Override
+    public Iterator<T> iterator(int from, int to) {
+        return new MaterializedIterator<T>(this, index(), from, to);
+    }
+
+    static <T> void write(Iterable<T> source, File file, IxCodec<? super T> codec) {
+        try {
+            File tmp = new File(file.getPath() + ".tmp");
+            FileOutputStream fos = new FileOutputStream(tmp);
+            boolean success = false;
+            try {
+                CountingOutput out = new CountingOutput(new BufferedOutputStream(fos, IxBatchWriter.BUFFER_SIZE));
+                out.write(new byte[HEADER_SIZE]);
+
+                long[] offsets = new long[16];
+                int n = 0;
+                for (T v : source) {
+                    if (n == offsets.length) {
+                        if (n == Integer.MAX_VALUE - 8) {
+                            throw new IllegalStateException("Can't materialize more than " + n + " elements");
+                        }
+                        offsets = Arrays.copyOf(offsets, (int)Math.min(Integer.MAX_VALUE - 8, n * 2L));
+                    }
+                    offsets[n++] = out.position();
+                    codec.encode(v, out);
+                }
+                long io = out.position();
+                for (int i = 0; i < n; i++) {
+                    out.writeLong(offsets[i]);
+                }
+                out.flush();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putLong(n).putLong(io).flip();
+                while (header.hasRemaining()) {
+                    fos.getChannel().write(header, header.position());
+                }
+                success = true;
+            } finally {
+                fos.close();
+                if (!success) {
+                    tmp.delete();
+                }
+            }
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Unable to replace " + file);
+            }
+            if (!tmp.renameTo(file)) {
+                throw new IOException("Unable to rename " + tmp + " to " + file);
+            }
+        } catch (IOException ex) {
+            throw IxLines.wrap(ex);
+        }
+    }
+
+    /**
+     * A DataOutputStream that tracks the number of bytes written as a long.
+     */
+    static final class CountingOutput extends DataOutputStream {
+
+        long total;
+
+        CountingOutput(OutputStream out) {
+            super(out);
+        }
+
+        long position() {
+            long t = total + written;
+            total = t;
+            written = 0;
+            return t;
+        }
+    }
+
+    static final class MaterializedIterator<T> implements Iterator<T> {
+
+        final IxMaterialized<T> parent;
+
+        final LongBuffer index;
+
+        final int end;
+
+        final ByteBufferDataInput input;
+
+        int current;
+
+        MaterializedIterator(IxMaterialized<T> parent, LongBuffer index, int start, int end) {
+            this.parent = parent;
+            this.index = index;
+            this.current = start;
+            this.end = end;
+            this.input = new ByteBufferDataInput();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current != end;
+        }
+
+        @Override
+        public T next() {
+            int i = current;
+            if (i != end) {
+                current = i + 1;
+                return parent.decode(index, i, input);
+            }
+            throw new NoSuchElementException();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.Closeable;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains up to maxConcurrency sources at once, each on its own thread, into a
+ * shared bounded queue and emits the elements in the order they arrive.
+ *
+ * @param <T> the value type
+ */
+final class IxMergeConcurrent<T> extends Ix<T> {
+
+    static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    /** The capacity of the queue shared by the sources. */
+    static final int BUFFER_SIZE = 128;
+
+    /** How long a producer waits for space before checking if the consumer is still reachable. */
+    static final long PRODUCER_WAIT_MILLIS = 100L;
+
+    static final Object NULL = new Object();
+
+    static final Object SOURCE_DONE = new Object();
+
+    final Iterable<? extends Iterable<? extends T>> sources;
+
+    final int maxConcurrency;
+
+    final Executor executor;
+
+    IxMergeConcurrent(Iterable<? extends Iterable<? extends T>> sources, int maxConcurrency, Executor executor) {
+        this.sources = sources;
+        this.maxConcurrency = maxConcurrency;
+        this.executor = executor;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new MergeConcurrentIterator<T>(sources.iterator(), maxConcurrency, executor);
+    }
+
+    static final class ErrorSignal {
+        final Throwable error;
+
+        ErrorSignal(Throwable error) {
+            this.error = error;
+        }
+    }
+
+    static final class Drainer<T> implements Runnable {
+
+        final Iterable<? extends T> source;
+
+        final BlockingQueue<Object> queue;
+
+        final WeakReference<MergeConcurrentIterator<T>> consumer;
+
+        /** The drainers currently running, shared with the consumer which interrupts them on close. */
+        final Set<Drainer<T>> running;
+
+        /** Guarded by running. */
+        Thread thread;
+
+        /** Guarded by running. */
+        boolean interrupted;
+
+        Drainer(Iterable<? extends T> source, MergeConcurrentIterator<T> consumer) {
+            this.source = source;
+            this.queue = consumer.queue;
+            this.consumer = new WeakReference<MergeConcurrentIterator<T>>(consumer);
+            this.running = consumer.running;
+        }
+
+        @Override
+        public void run() {
+            synchronized (running) {
+                MergeConcurrentIterator<T> c = consumer.get();
+                if (c == null || c.cancelled) {
+                    return;
+                }
+                thread = Thread.currentThread();
+                running.add(this);
+            }
+            try {
+                drain();
+            } finally {
+                boolean clear;
+                synchronized (running) {
+                    running.remove(this);
+                    clear = interrupted;
+                }
+                if (clear) {
+                    // don't leak the interrupt of close() to the next task of the thread
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        void drain() {
+            Object last;
+            Iterator<? extends T> it = null;
+            try {
+                it = source.iterator();
+                while (it.hasNext()) {
+                    T v = it.next();
+                    if (!offer(v != null ? v : NULL)) {
+                        IxPrefetch.Producer.release(it);
+                        return;
+                    }
+                }
+                last = SOURCE_DONE;
+            } catch (Throwable ex) {
+                IxPrefetch.Producer.release(it);
+                last = new ErrorSignal(ex);
+            }
+            offer(last);
+        }
+
+        boolean offer(Object o) {
+            try {
+                while (!queue.offer(o, PRODUCER_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    MergeConcurrentIterator<T> c = consumer.get();
+                    if (c == null || c.cancelled) {
+                        return false;
+                    }
+                }
+                MergeConcurrentIterator<T> c = consumer.get();
+                return c != null && !c.cancelled;
+            } catch (InterruptedException ex) {
+                return false;
+            }
+        }
+    }
+
+    static final class MergeConcurrentIterator<T> extends IxBaseIterator<T> implements Closeable {
+
+        final Iterator<? extends Iterable<? extends T>> sources;
+
+        final int maxConcurrency;
+
+        final Executor executor;
+
+        final BlockingQueue<Object> queue;
+
+        final Set<Drainer<T>> running;
+
+        volatile boolean cancelled;
+
+        int active;
+
+        boolean sourcesDone;
+
+        MergeConcurrentIterator(Iterator<? extends Iterable<? extends T>> sources, int maxConcurrency, Executor executor) {
+            this.sources = sources;
+            this.maxConcurrency = maxConcurrency;
+            this.executor = executor;
+            this.queue = new ArrayBlockingQueue<Object>(BUFFER_SIZE);
+            this.running = new HashSet<Drainer<T>>();
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        protected boolean moveNext() {
+            for (;;) {
+                if (cancelled) {
+                    done = true;
+                    return false;
+                }
+                while (!sourcesDone && active < maxConcurrency) {
+                    Iterable<? extends T> source;
+                    try {
+                        if (!sources.hasNext()) {
+                            sourcesDone = true;
+                            break;
+                        }
+                        source = sources.next();
+                    } catch (RuntimeException ex) {
+                        close();
+                        throw ex;
+                    } catch (Error ex) {
+                        close();
+                        throw ex;
+                    }
+                    start(new Drainer<T>(source, this));
+                    active++;
+                }
+                if (active == 0) {
+                    done = true;
+                    return false;
+                }
+
+                Object o;
+                try {
+                    o = queue.take();
+                } catch (InterruptedException ex) {
+                    close();
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(ex);
+                }
+
+                if (o == SOURCE_DONE) {
+                    active--;
+                    continue;
+                }
+                if (o instanceof ErrorSignal) {
+                    close();
+                    Throwable ex = ((ErrorSignal)o).error;
+                    if (ex instanceof RuntimeException) {
+                        throw (RuntimeException)ex;
+                    }
+                    if (ex instanceof Error) {
+                        throw (Error)ex;
+                    }
+                    throw new RuntimeException(ex);
+                }
+                value = o == NULL ? null : (T)o;
+                hasValue = true;
+                return true;
+            }
+        }
+
+        void start(Runnable drainer) {
+            Executor exec = executor;
+            if (exec == null) {
+                Thread t = new Thread(drainer, "IxMerge-" + THREAD_COUNTER.incrementAndGet());
+                t.setDaemon(true);
+                t.start();
+            } else {
+                exec.execute(drainer);
+            }
+        }
+
+        /**
+         * Stops the background threads from draining the sources any further and
+         * interrupts those waiting for their source.
+         */
+        @Override
+        public void close() {
+            cancelled = true;
+            done = true;
+            queue.clear();
+            synchronized (running) {
+                for (Drainer<T> d : running) {
+                    d.interrupted = true;
+                    d.thread.interrupt();
+                }
+            }
+        }
+    }
+}
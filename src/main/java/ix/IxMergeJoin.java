@@ -0,0 +1,188 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+
+/**
+ * Joins two sequences ordered by their join keys by advancing them
+ * in step and buffering only the run of equal keys of the other sequence.
+ *
+ * @param <T> the left value type
+ * @param <U> the right value type
+ * @param <K> the join key type
+ * @param <R> the result value type
+ */
+final class IxMergeJoin<T, U, K, R> extends IxSource<T, R> {
+
+    final Iterable<? extends U> other;
+
+    final IxFunction<? super T, ? extends K> leftKey;
+
+    final IxFunction<? super U, ? extends K> rightKey;
+
+    final Comparator<? super K> comparator;
+
+    final IxFunction2<? super T, ? super U, ? extends R> combiner;
+
+    IxMergeJoin(Iterable<T> source, Iterable<? extends U> other,
+            IxFunction<? super T, ? extends K> leftKey, IxFunction<? super U, ? extends K> rightKey,
+            Comparator<? super K> comparator, IxFunction2<? super T, ? super U, ? extends R> combiner) {
+        super(source);
+        this.other = other;
+        this.leftKey = leftKey;
+        this.rightKey = rightKey;
+        this.comparator = comparator;
+        this.combiner = combiner;
+    }
+
+    @Override
+    public Iterator<R> iterator() {
+        return new MergeJoinIterator<T, U, K, R>(source.iterator(), other.iterator(),
+                leftKey, rightKey, comparator, combiner);
+    }
+
+    static final class MergeJoinIterator<T, U, K, R> extends IxSourceIterator<T, R> {
+
+        final Iterator<? extends U> other;
+
+        final IxFunction<? super T, ? extends K> leftKey;
+
+        final IxFunction<? super U, ? extends K> rightKey;
+
+        final Comparator<? super K> comparator;
+
+        final IxFunction2<? super T, ? super U, ? extends R> combiner;
+
+        final List<U> run;
+
+        K runKey;
+
+        T current;
+
+        int runIndex;
+
+        U rightValue;
+
+        K rightValueKey;
+
+        boolean hasRightValue;
+
+        MergeJoinIterator(Iterator<T> it, Iterator<? extends U> other,
+                IxFunction<? super T, ? extends K> leftKey, IxFunction<? super U, ? extends K> rightKey,
+                Comparator<? super K> comparator, IxFunction2<? super T, ? super U, ? extends R> combiner) {
+            super(it);
+            this.other = other;
+            this.leftKey = leftKey;
+            this.rightKey = rightKey;
+            this.comparator = comparator;
+            this.combiner = combiner;
+            this.run = new ArrayList<U>();
+        }
+
+        @Override
+        protected boolean moveNext() {
+            List<U> r = run;
+            for (;;) {
+                int i = runIndex;
+                if (i != r.size()) {
+                    runIndex = i + 1;
+                    value = combiner.apply(current, r.get(i));
+                    hasValue = true;
+                    return true;
+                }
+
+                if (!it.hasNext()) {
+                    break;
+                }
+
+                T v = it.next();
+                K k = leftKey.apply(v);
+
+                if (r.isEmpty() || comparator.compare(k, runKey) != 0) {
+                    r.clear();
+                    runIndex = 0;
+                    if (!fillRun(k)) {
+                        if (!hasRightValue) {
+                            break;
+                        }
+                        continue;
+                    }
+                }
+
+                current = v;
+                runIndex = 0;
+            }
+
+            current = null;
+            r.clear();
+            runKey = null;
+            done = true;
+            return false;
+        }
+
+        /**
+         * Skips the elements of the other sequence with smaller keys and
+         * buffers the run of elements with the given key.
+         * @param key the key to look for
+         * @return true if at least one element with the given key was found
+         */
+        boolean fillRun(K key) {
+            Iterator<? extends U> o = other;
+            for (;;) {
+                if (!hasRightValue) {
+                    if (!o.hasNext()) {
+                        return false;
+                    }
+                    U u = o.next();
+                    rightValue = u;
+                    rightValueKey = rightKey.apply(u);
+                    hasRightValue = true;
+                }
+
+                int c = comparator.compare(rightValueKey, key);
+                if (c > 0) {
+                    return false;
+                }
+                if (c == 0) {
+                    break;
+                }
+                hasRightValue = false;
+            }
+
+            List<U> r = run;
+            r.add(rightValue);
+            runKey = rightValueKey;
+            hasRightValue = false;
+            rightValue = null;
+            rightValueKey = null;
+
+            while (o.hasNext()) {
+                U u = o.next();
+                K k = rightKey.apply(u);
+                if (comparator.compare(k, key) != 0) {
+                    rightValue = u;
+                    rightValueKey = k;
+                    hasRightValue = true;
+                    break;
+                }
+                r.add(u);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Folds chunks of the source on an Executor and combines the partial
+ * results in the order of the chunks.
+ * <p>
+ * Sources with indexed access are split into index ranges up front; other
+ * sources are read on the consumer thread and handed off in batches.
+ *
+ * @param <T> the source value type
+ * @param <C> the result type
+ */
+final class IxParallelFold<T, C> extends IxSource<T, C> {
+
+    /** The number of elements handed off at once for sources without indexed access. */
+    static final int BATCH_SIZE = 1024;
+
+    /** How many chunks to create per degree of parallelism for indexed sources. */
+    static final int CHUNKS_PER_WORKER = 4;
+
+    /**
+     * How many batches to keep in flight per degree of parallelism for sources without indexed
+     * access, so the workers don't wait while the consumer thread fills the next batch.
+     */
+    static final int BATCHES_PER_WORKER = 2;
+
+    final int parallelism;
+
+    final Executor executor;
+
+    final IxSupplier<C> initialFactory;
+
+    final IxFunction2<C, ? super T, C> accumulator;
+
+    final IxFunction2<C, C, C> combiner;
+
+    IxParallelFold(Iterable<T> source, int parallelism, Executor executor,
+            IxSupplier<C> initialFactory, IxFunction2<C, ? super T, C> accumulator,
+            IxFunction2<C, C, C> combiner) {
+        super(source);
+        this.parallelism = parallelism;
+        this.executor = executor;
+        this.initialFactory = initialFactory;
+        this.accumulator = accumulator;
+        this.combiner = combiner;
+    }
+
+    @Override
+    public Iterator<C> iterator() {
+        return new ParallelFoldIterator<T, C>(this);
+    }
+
+    C fold() {
+        Executor exec = executor;
+        ExecutorService own = null;
+        if (exec == null) {
+            own = Executors.newFixedThreadPool(parallelism, DaemonThreadFactory.INSTANCE);
+            exec = own;
+        }
+        try {
+            IxIndexed<T> indexed = IndexedHelper.indexed(source);
+            if (indexed != null) {
+                return foldIndexed(indexed, exec);
+            }
+            return foldBatched(source.iterator(), exec);
+        } finally {
+            if (own != null) {
+                own.shutdown();
+            }
+        }
+    }
+
+    C foldIndexed(IxIndexed<T> indexed, Executor exec) {
+        int n = indexed.size();
+        if (n == 0) {
+            return initialFactory.get();
+        }
+        int chunks = (int)Math.min(n, (long)parallelism * CHUNKS_PER_WORKER);
+        List<FutureTask<C>> tasks = new ArrayList<FutureTask<C>>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            int start = (int)((long)n * i / chunks);
+            int end = (int)((long)n * (i + 1) / chunks);
+            FutureTask<C> task = new FutureTask<C>(new IndexedChunk<T, C>(this, indexed, start, end));
+            tasks.add(task);
+            exec.execute(task);
+        }
+
+        try {
+            C result = IxParallelMap.await(tasks.get(0));
+            for (int i = 1; i < chunks; i++) {
+                result = combiner.apply(result, IxParallelMap.await(tasks.get(i)));
+            }
+            return result;
+        } catch (RuntimeException ex) {
+            cancelAll(tasks);
+            throw ex;
+        } catch (Error ex) {
+            cancelAll(tasks);
+            throw ex;
+        }
+    }
+
+    C foldBatched(Iterator<T> it, Executor exec) {
+        int maxInFlight = parallelism * BATCHES_PER_WORKER;
+        ArrayDeque<FutureTask<C>> inFlight = new ArrayDeque<FutureTask<C>>(maxInFlight);
+        C result = null;
+        boolean hasResult = false;
+        try {
+            while (it.hasNext()) {
+                Object[] batch = new Object[BATCH_SIZE];
+                int n = 0;
+                while (n < BATCH_SIZE && it.hasNext()) {
+                    batch[n++] = it.next();
+                }
+
+                FutureTask<C> task = new FutureTask<C>(new BatchChunk<T, C>(this, batch, n));
+                inFlight.offer(task);
+                exec.execute(task);
+
+                if (inFlight.size() == maxInFlight) {
+                    C c = IxParallelMap.await(inFlight.poll());
+                    result = hasResult ? combiner.apply(result, c) : c;
+                    hasResult = true;
+                }
+            }
+
+            FutureTask<C> task;
+            while ((task = inFlight.poll()) != null) {
+                C c = IxParallelMap.await(task);
+                result = hasResult ? combiner.apply(result, c) : c;
+                hasResult = true;
+            }
+        } catch (RuntimeException ex) {
+            cancelAll(inFlight);
+            throw ex;
+        } catch (Error ex) {
+            cancelAll(inFlight);
+            throw ex;
+        }
+        return hasResult ? result : initialFactory.get();
+    }
+
+    static <C> void cancelAll(Collection<FutureTask<C>> tasks) {
+        for (FutureTask<C> t : tasks) {
+            t.cancel(true);
+        }
+        tasks.clear();
+    }
+
+    static final class ParallelFoldIterator<T, C> extends IxBaseIterator<C> {
+
+        final IxParallelFold<T, C> parent;
+
+        ParallelFoldIterator(IxParallelFold<T, C> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        protected boolean moveNext() {
+            value = parent.fold();
+            hasValue = true;
+            done = true;
+            return true;
+        }
+    }
+
+    static final class IndexedChunk<T, C> implements Callable<C> {
+        final IxParallelFold<T, C> parent;
+
+        final IxIndexed<T> source;
+
+        final int start;
+
+        final int end;
+
+        IndexedChunk(IxParallelFold<T, C> parent, IxIndexed<T> source, int start, int end) {
+            this.parent = parent;
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public C call() throws Exception {
+            IxIndexed<T> s = source;
+            IxFunction2<C, ? super T, C> f = parent.accumulator;
+            C c = parent.initialFactory.get();
+            for (int i = start; i < end; i++) {
+                c = f.apply(c, s.get(i));
+            }
+            return c;
+        }
+    }
+
+    static final class BatchChunk<T, C> implements Callable<C> {
+        final IxParallelFold<T, C> parent;
+
+        final Object[] batch;
+
+        final int size;
+
+        BatchChunk(IxParallelFold<T, C> parent, Object[] batch, int size) {
+            this.parent = parent;
+            this.batch = batch;
+            this.size = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public C call() throws Exception {
+            Object[] b = batch;
+            IxFunction2<C, ? super T, C> f = parent.accumulator;
+            C c = parent.initialFactory.get();
+            for (int i = 0; i < size; i++) {
+                c = f.apply(c, (T)b[i]);
+            }
+            return c;
+        }
+    }
+
+    enum DaemonThreadFactory implements ThreadFactory {
+        INSTANCE;
+
+        static final AtomicInteger COUNTER = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "IxParallel-" + COUNTER.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Reads the source once, routes the elements by the hash of their key to
+ * worker tasks through bounded queues and lets each worker aggregate its
+ * disjoint share of the keys into its own map; the partial maps are
+ * concatenated at the end.
+ *
+ * @param <T> the source value type
+ * @param <K> the key type
+ * @param <V> the value type
+ * @param <A> the per-key aggregate type
+ */
+final class IxParallelGroupBy<T, K, V, A> extends IxSource<T, Map<K, A>> {
+
+    /** The number of key-element pairs handed to a worker at once. */
+    static final int BATCH_SIZE = 512;
+
+    /** The number of batches that can wait for a worker before the reader blocks. */
+    static final int QUEUE_CAPACITY = 4;
+
+    static final Object[] DONE = new Object[0];
+
+    final int parallelism;
+
+    final Executor executor;
+
+    final IxFunction<? super T, ? extends K> keySelector;
+
+    final IxFunction<? super T, ? extends V> valueSelector;
+
+    final IxSupplier<A> initialFactory;
+
+    final IxFunction2<A, ? super V, A> accumulator;
+
+    IxParallelGroupBy(Iterable<T> source, int parallelism, Executor executor,
+            IxFunction<? super T, ? extends K> keySelector, IxFunction<? super T, ? extends V> valueSelector,
+            IxSupplier<A> initialFactory, IxFunction2<A, ? super V, A> accumulator) {
+        super(source);
+        this.parallelism = parallelism;
+        this.executor = executor;
+        this.keySelector = keySelector;
+        this.valueSelector = valueSelector;
+        this.initialFactory = initialFactory;
+        this.accumulator = accumulator;
+    }
+
+    @Override
+    public Iterator<Map<K, A>> iterator() {
+        return new ParallelGroupByIterator<T, K, V, A>(this);
+    }
+
+    static int partition(Object key, int n) {
+        if (key == null) {
+            return 0;
+        }
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return (h & Integer.MAX_VALUE) % n;
+    }
+
+    Map<K, A> group() {
+        int n = parallelism;
+        Executor exec = executor;
+        ExecutorService own = null;
+        if (exec == null) {
+            own = Executors.newFixedThreadPool(n, IxParallelFold.DaemonThreadFactory.INSTANCE);
+            exec = own;
+        }
+        try {
+            List<Worker<T, K, V, A>> workers = new ArrayList<Worker<T, K, V, A>>(n);
+            List<FutureTask<Map<K, A>>> tasks = new ArrayList<FutureTask<Map<K, A>>>(n);
+            for (int i = 0; i < n; i++) {
+                Worker<T, K, V, A> w = new Worker<T, K, V, A>(this);
+                FutureTask<Map<K, A>> task = new FutureTask<Map<K, A>>(w);
+                workers.add(w);
+                tasks.add(task);
+                exec.execute(task);
+            }
+
+            try {
+                route(workers);
+            } catch (RuntimeException ex) {
+                cancelAll(workers, tasks);
+                throw ex;
+            } catch (Error ex) {
+                cancelAll(workers, tasks);
+                throw ex;
+            }
+
+            List<Map<K, A>> partials = new ArrayList<Map<K, A>>(n);
+            int size = 0;
+            try {
+                for (FutureTask<Map<K, A>> task : tasks) {
+                    Map<K, A> m = IxParallelMap.await(task);
+                    partials.add(m);
+                    size += m.size();
+                }
+            } catch (RuntimeException ex) {
+                cancelAll(workers, tasks);
+                throw ex;
+            } catch (Error ex) {
+                cancelAll(workers, tasks);
+                throw ex;
+            }
+
+            Map<K, A> result = new HashMap<K, A>(SizeHelper.hashCapacity(size));
+            for (Map<K, A> m : partials) {
+                result.putAll(m);
+            }
+            return result;
+        } finally {
+            if (own != null) {
+                own.shutdown();
+            }
+        }
+    }
+
+    void route(List<Worker<T, K, V, A>> workers) {
+        int n = workers.size();
+        Object[][] batches = new Object[n][];
+        int[] counts = new int[n];
+        IxFunction<? super T, ? extends K> keySelector = this.keySelector;
+
+        Iterator<T> it = source.iterator();
+        while (it.hasNext()) {
+            T t = it.next();
+            K k = keySelector.apply(t);
+            int p = partition(k, n);
+
+            Object[] b = batches[p];
+            if (b == null) {
+                b = new Object[BATCH_SIZE * 2];
+                batches[p] = b;
+            }
+            int c = counts[p];
+            b[c] = k;
+            b[c + 1] = t;
+            c += 2;
+            if (c == b.length) {
+                workers.get(p).put(b);
+                batches[p] = null;
+                c = 0;
+            }
+            counts[p] = c;
+        }
+
+        for (int i = 0; i < n; i++) {
+            Object[] b = batches[i];
+            int c = counts[i];
+            Worker<T, K, V, A> w = workers.get(i);
+            if (b != null && c != 0) {
+                if (c != b.length) {
+                    b[c] = DONE;
+                }
+                w.put(b);
+            }
+            w.put(DONE);
+        }
+    }
+
+    static <T, K, V, A> void cancelAll(List<Worker<T, K, V, A>> workers, List<FutureTask<Map<K, A>>> tasks) {
+        for (Worker<T, K, V, A> w : workers) {
+            w.cancelled = true;
+            w.queue.clear();
+        }
+        for (FutureTask<Map<K, A>> t : tasks) {
+            t.cancel(true);
+        }
+    }
+
+    static final class Worker<T, K, V, A> implements Callable<Map<K, A>> {
+
+        final IxParallelGroupBy<T, K, V, A> parent;
+
+        final BlockingQueue<Object[]> queue;
+
+        volatile boolean cancelled;
+
+        Worker(IxParallelGroupBy<T, K, V, A> parent) {
+            this.parent = parent;
+            this.queue = new ArrayBlockingQueue<Object[]>(QUEUE_CAPACITY);
+        }
+
+        void put(Object[] batch) {
+            try {
+                queue.put(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(ex);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Map<K, A> call() throws Exception {
+            IxFunction<? super T, ? extends V> valueSelector = parent.valueSelector;
+            IxSupplier<A> initialFactory = parent.initialFactory;
+            IxFunction2<A, ? super V, A> accumulator = parent.accumulator;
+            Map<K, A> map = new HashMap<K, A>();
+            Throwable error = null;
+
+            for (;;) {
+                Object[] b = queue.take();
+                if (b == DONE) {
+                    break;
+                }
+                if (error != null || cancelled) {
+                    // keep draining so the reader never blocks on a failed worker
+                    continue;
+                }
+                try {
+                    for (int i = 0; i < b.length; i += 2) {
+                        Object k = b[i];
+                        if (k == DONE) {
+                            break;
+                        }
+                        K key = (K)k;
+                        A a = map.get(key);
+                        boolean absent = a == null && !map.containsKey(key);
+                        if (absent) {
+                            a = initialFactory.get();
+                        }
+                        A r = accumulator.apply(a, valueSelector.apply((T)b[i + 1]));
+                        if (absent || r != a) {
+                            map.put(key, r);
+                        }
+                    }
+                } catch (Throwable ex) {
+                    error = ex;
+                }
+            }
+
+            if (error != null) {
+                if (error instanceof Exception) {
+                    throw (Exception)error;
+                }
+                throw (Error)error;
+            }
+            return map;
+        }
+    }
+
+    static final class ParallelGroupByIterator<T, K, V, A> extends IxBaseIterator<Map<K, A>> {
+
+        final IxParallelGroupBy<T, K, V, A> parent;
+
+        ParallelGroupByIterator(IxParallelGroupBy<T, K, V, A> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        protected boolean moveNext() {
+            value = parent.group();
+            hasValue = true;
+            done = true;
+            return true;
+        }
+    }
+}
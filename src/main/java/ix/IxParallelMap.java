@@ -0,0 +1,217 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Maps the source elements on an Executor while keeping at most
+ * {@code parallelism} mappings in flight; the results are emitted
+ * either in the source order or in the order they complete.
+ *
+ * @param <T> the source value type
+ * @param <R> the result value type
+ */
+final class IxParallelMap<T, R> extends IxSource<T, R> {
+
+    final IxFunction<? super T, ? extends R> mapper;
+
+    final int parallelism;
+
+    final Executor executor;
+
+    final boolean ordered;
+
+    IxParallelMap(Iterable<T> source, IxFunction<? super T, ? extends R> mapper,
+            int parallelism, Executor executor, boolean ordered) {
+        super(source);
+        this.mapper = mapper;
+        this.parallelism = parallelism;
+        this.executor = executor;
+        this.ordered = ordered;
+    }
+
+    @Override
+    public Iterator<R> iterator() {
+        if (ordered) {
+            return new ParallelMapOrderedIterator<T, R>(source.iterator(), mapper, parallelism, executor);
+        }
+        return new ParallelMapUnorderedIterator<T, R>(source.iterator(), mapper, parallelism, executor);
+    }
+
+    /**
+     * Returns the value of a completed Future or rethrows its failure
+     * (as RuntimeException if necessary).
+     * @param <R> the value type
+     * @param future the future to await
+     * @return the value of the future
+     */
+    static <R> R await(Future<R> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        } catch (ExecutionException ex) {
+            Throwable c = ex.getCause();
+            if (c instanceof RuntimeException) {
+                throw (RuntimeException)c;
+            }
+            if (c instanceof Error) {
+                throw (Error)c;
+            }
+            throw new RuntimeException(c);
+        }
+    }
+
+    static final class MapTask<T, R> implements Callable<R> {
+        final IxFunction<? super T, ? extends R> mapper;
+
+        final T value;
+
+        MapTask(IxFunction<? super T, ? extends R> mapper, T value) {
+            this.mapper = mapper;
+            this.value = value;
+        }
+
+        @Override
+        public R call() throws Exception {
+            return mapper.apply(value);
+        }
+    }
+
+    static final class ParallelMapOrderedIterator<T, R> extends IxSourceIterator<T, R> {
+
+        final IxFunction<? super T, ? extends R> mapper;
+
+        final int parallelism;
+
+        final Executor executor;
+
+        final ArrayDeque<FutureTask<R>> inFlight;
+
+        ParallelMapOrderedIterator(Iterator<T> it, IxFunction<? super T, ? extends R> mapper,
+                int parallelism, Executor executor) {
+            super(it);
+            this.mapper = mapper;
+            this.parallelism = parallelism;
+            this.executor = executor;
+            this.inFlight = new ArrayDeque<FutureTask<R>>(parallelism);
+        }
+
+        @Override
+        protected boolean moveNext() {
+            ArrayDeque<FutureTask<R>> q = inFlight;
+            Iterator<T> it = this.it;
+            while (q.size() < parallelism && it.hasNext()) {
+                FutureTask<R> task = new FutureTask<R>(new MapTask<T, R>(mapper, it.next()));
+                q.offer(task);
+                executor.execute(task);
+            }
+
+            FutureTask<R> task = q.poll();
+            if (task == null) {
+                done = true;
+                return false;
+            }
+            try {
+                value = await(task);
+            } catch (RuntimeException ex) {
+                cancelAll();
+                throw ex;
+            } catch (Error ex) {
+                cancelAll();
+                throw ex;
+            }
+            hasValue = true;
+            return true;
+        }
+
+        void cancelAll() {
+            ArrayDeque<FutureTask<R>> q = inFlight;
+            FutureTask<R> t;
+            while ((t = q.poll()) != null) {
+                t.cancel(true);
+            }
+            done = true;
+        }
+    }
+
+    static final class ParallelMapUnorderedIterator<T, R> extends IxSourceIterator<T, R> {
+
+        final IxFunction<? super T, ? extends R> mapper;
+
+        final int parallelism;
+
+        final ExecutorCompletionService<R> completion;
+
+        final Set<Future<R>> inFlight;
+
+        ParallelMapUnorderedIterator(Iterator<T> it, IxFunction<? super T, ? extends R> mapper,
+                int parallelism, Executor executor) {
+            super(it);
+            this.mapper = mapper;
+            this.parallelism = parallelism;
+            this.completion = new ExecutorCompletionService<R>(executor);
+            this.inFlight = new HashSet<Future<R>>();
+        }
+
+        @Override
+        protected boolean moveNext() {
+            Set<Future<R>> set = inFlight;
+            Iterator<T> it = this.it;
+            while (set.size() < parallelism && it.hasNext()) {
+                set.add(completion.submit(new MapTask<T, R>(mapper, it.next())));
+            }
+
+            if (set.isEmpty()) {
+                done = true;
+                return false;
+            }
+
+            try {
+                Future<R> f;
+                try {
+                    f = completion.take();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(ex);
+                }
+                set.remove(f);
+                value = await(f);
+            } catch (RuntimeException ex) {
+                cancelAll();
+                throw ex;
+            } catch (Error ex) {
+                cancelAll();
+                throw ex;
+            }
+            hasValue = true;
+            return true;
+        }
+
+        void cancelAll() {
+            for (Future<R> f : inFlight) {
+                f.cancel(true);
+            }
+            inFlight.clear();
+            done = true;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.Closeable;
+import java.util.*;
+
+/**
+ * Splits the source into a fixed number of lanes by the hash of the element keys.
+ * <p>
+ * The lanes share a single source Iterator: a lane whose queue is empty becomes
+ * the puller and hands the elements of other lanes to their bounded queues,
+ * waiting if a queue is full. All lanes share the monitor of their state object;
+ * the source itself is pulled without holding it.
+ *
+ * @param <T> the value type
+ */
+final class IxPartition<T> extends IxSource<T, Ix<T>> {
+
+    final int n;
+
+    final IxFunction<? super T, ?> keySelector;
+
+    final int bufferSize;
+
+    IxPartition(Iterable<T> source, int n, IxFunction<? super T, ?> keySelector, int bufferSize) {
+        super(source);
+        this.n = n;
+        this.keySelector = keySelector;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public Iterator<Ix<T>> iterator() {
+        PartitionState<T> state = new PartitionState<T>(source, keySelector, n, bufferSize);
+        Ix<T>[] lanes = state.lanes;
+        return new IxFromArray.FromArray<Ix<T>>(0, lanes.length, lanes);
+    }
+
+    static final class PartitionState<T> {
+
+        static final Object NULL = new Object();
+
+        final Iterable<T> source;
+
+        final IxFunction<? super T, ?> keySelector;
+
+        final int bufferSize;
+
+        final LaneIterable<T>[] lanes;
+
+        /** Accessed by the current puller only. */
+        Iterator<T> it;
+
+        /** Guarded by this. */
+        boolean pulling;
+
+        /** Guarded by this. */
+        boolean done;
+
+        /** Guarded by this. */
+        Throwable error;
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        PartitionState(Iterable<T> source, IxFunction<? super T, ?> keySelector, int n, int bufferSize) {
+            this.source = source;
+            this.keySelector = keySelector;
+            this.bufferSize = bufferSize;
+            this.lanes = new LaneIterable[n];
+            for (int i = 0; i < n; i++) {
+                lanes[i] = new LaneIterable<T>(new LaneIterator<T>(this));
+            }
+        }
+
+        /**
+         * Pulls the source on behalf of the given lane until an element for it shows up,
+         * handing the elements of other lanes over to their queues.
+         * Must be called by the lane that has set the pulling flag.
+         * @param lane the lane requesting an element
+         * @return the element wrapped into NULL if null, or null if the source has
+         * terminated or the lane has been closed
+         * @throws InterruptedException if the puller is interrupted while waiting for space
+         */
+        Object pull(LaneIterator<T> lane) throws InterruptedException {
+            Iterator<T> it = this.it;
+            if (it == null) {
+                it = source.iterator();
+                this.it = it;
+            }
+            LaneIterable<T>[] lanes = this.lanes;
+            int n = lanes.length;
+            int limit = bufferSize;
+            while (!lane.closed && it.hasNext()) {
+                T v = it.next();
+                LaneIterator<T> target = lanes[IxParallelGroupBy.partition(keySelector.apply(v), n)].iterator;
+                Object o = v != null ? v : NULL;
+                if (target == lane) {
+                    return o;
+                }
+                synchronized (this) {
+                    while (!target.closed && target.queue.size() == limit) {
+                        wait();
+                    }
+                    if (!target.closed) {
+                        target.queue.offer(o);
+                        notifyAll();
+                    }
+                }
+            }
+            if (!lane.closed) {
+                synchronized (this) {
+                    done = true;
+                }
+            }
+            return null;
+        }
+    }
+
+    static final class LaneIterable<T> extends Ix<T> {
+
+        final LaneIterator<T> iterator;
+
+        boolean once;
+
+        LaneIterable(LaneIterator<T> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            if (!once) {
+                once = true;
+                return iterator;
+            }
+            throw new IllegalStateException("This partition Ix iterable can be consumed only once.");
+        }
+    }
+
+    static final class LaneIterator<T> extends IxBaseIterator<T> implements Closeable {
+
+        final PartitionState<T> state;
+
+        /** Guarded by the state. */
+        final ArrayDeque<Object> queue;
+
+        volatile boolean closed;
+
+        boolean errorDelivered;
+
+        LaneIterator(PartitionState<T> state) {
+            this.state = state;
+            this.queue = new ArrayDeque<Object>();
+        }
+
+        @Override
+        protected boolean moveNext() {
+            if (closed) {
+                done = true;
+                return false;
+            }
+            PartitionState<T> s = state;
+            synchronized (s) {
+                for (;;) {
+                    Object o = queue.poll();
+                    if (o != null) {
+                        s.notifyAll();
+                        return emit(o);
+                    }
+                    if (s.done) {
+                        done = true;
+                        Throwable ex = s.error;
+                        if (ex != null && !errorDelivered) {
+                            errorDelivered = true;
+                            if (ex instanceof RuntimeException) {
+                                throw (RuntimeException)ex;
+                            }
+                            if (ex instanceof Error) {
+                                throw (Error)ex;
+                            }
+                            throw new RuntimeException(ex);
+                        }
+                        return false;
+                    }
+                    if (!s.pulling) {
+                        s.pulling = true;
+                        break;
+                    }
+                    try {
+                        s.wait();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException(ex);
+                    }
+                }
+            }
+
+            Object o;
+            try {
+                o = s.pull(this);
+            } catch (InterruptedException ex) {
+                release(s);
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(ex);
+            } catch (Throwable ex) {
+                synchronized (s) {
+                    s.error = ex;
+                    s.done = true;
+                }
+                release(s);
+                return moveNext();
+            }
+            release(s);
+            if (o != null) {
+                return emit(o);
+            }
+            return moveNext();
+        }
+
+        static void release(PartitionState<?> s) {
+            synchronized (s) {
+                s.pulling = false;
+                s.notifyAll();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        boolean emit(Object o) {
+            value = o == PartitionState.NULL ? null : (T)o;
+            hasValue = true;
+            return true;
+        }
+
+        /**
+         * Stops this lane; the elements routed to it from now on are dropped
+         * so the other lanes don't wait for it.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            done = true;
+            PartitionState<T> s = state;
+            synchronized (s) {
+                queue.clear();
+                s.notifyAll();
+            }
+        }
+    }
+}
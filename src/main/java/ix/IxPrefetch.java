@@ -0,0 +1,281 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.Closeable;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drains the source Iterator on a background thread into a bounded
+ * single-producer single-consumer ring buffer.
+ *
+ * @param <T> the value type
+ */
+final class IxPrefetch<T> extends IxSource<T, T> {
+
+    static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    final int bufferSize;
+
+    final Executor executor;
+
+    IxPrefetch(Iterable<T> source, int bufferSize, Executor executor) {
+        super(source);
+        this.bufferSize = bufferSize;
+        this.executor = executor;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return start(source, bufferSize, executor);
+    }
+
+    /**
+     * Starts draining the given source in the background; the source's iterator()
+     * is called on the background thread as well.
+     * @param <T> the value type
+     * @param source the source to drain
+     * @param bufferSize the maximum number of elements produced ahead of the consumer
+     * @param executor the Executor to drain the source on, null for a new daemon thread
+     * @return the consumer side
+     */
+    static <T> PrefetchIterator<T> start(Iterable<? extends T> source, int bufferSize, Executor executor) {
+        PrefetchIterator<T> parent = new PrefetchIterator<T>(bufferSize);
+        Producer<T> producer = new Producer<T>(source, parent);
+        Executor exec = executor;
+        if (exec == null) {
+            Thread t = new Thread(producer, "IxPrefetch-" + THREAD_COUNTER.incrementAndGet());
+            t.setDaemon(true);
+            t.start();
+        } else {
+            exec.execute(producer);
+        }
+        return parent;
+    }
+
+    /**
+     * The state shared between the producer and the consumer.
+     */
+    static final class Queue {
+
+        static final Object NULL = new Object();
+
+        /** How long the producer waits for space before checking if the consumer is still reachable. */
+        static final long PRODUCER_WAIT_NANOS = 100000000L;
+
+        final AtomicReferenceArray<Object> buffer;
+
+        final int mask;
+
+        /** The maximum number of elements in the buffer; the capacity is rounded up to a power of 2. */
+        final int limit;
+
+        volatile boolean producerDone;
+
+        volatile Throwable error;
+
+        volatile boolean cancelled;
+
+        volatile Thread consumerWaiting;
+
+        volatile Thread producerWaiting;
+
+        /** Accessed by the producer thread only. */
+        long producerIndex;
+
+        /** Accessed by the consumer thread only. */
+        long consumerIndex;
+
+        Queue(int bufferSize) {
+            int c = 1;
+            while (c < bufferSize) {
+                c <<= 1;
+            }
+            this.buffer = new AtomicReferenceArray<Object>(c);
+            this.mask = c - 1;
+            this.limit = bufferSize;
+        }
+
+        Object poll() {
+            AtomicReferenceArray<Object> b = buffer;
+            int offset = (int)consumerIndex & mask;
+            Object o = b.get(offset);
+            if (o != null) {
+                b.set(offset, null);
+                consumerIndex++;
+                Thread t = producerWaiting;
+                if (t != null) {
+                    LockSupport.unpark(t);
+                }
+            }
+            return o;
+        }
+
+        void signalConsumer() {
+            Thread t = consumerWaiting;
+            if (t != null) {
+                LockSupport.unpark(t);
+            }
+        }
+    }
+
+    static final class Producer<T> implements Runnable {
+
+        final Iterable<? extends T> source;
+
+        final Queue queue;
+
+        final WeakReference<PrefetchIterator<T>> consumer;
+
+        Producer(Iterable<? extends T> source, PrefetchIterator<T> consumer) {
+            this.source = source;
+            this.queue = consumer.queue;
+            this.consumer = new WeakReference<PrefetchIterator<T>>(consumer);
+        }
+
+        @Override
+        public void run() {
+            Queue q = queue;
+            try {
+                Iterator<? extends T> it = source.iterator();
+                while (!q.cancelled && it.hasNext()) {
+                    T v = it.next();
+                    if (!offer(v != null ? v : Queue.NULL)) {
+                        release(it);
+                        return;
+                    }
+                }
+                if (q.cancelled) {
+                    release(it);
+                }
+            } catch (Throwable ex) {
+                q.error = ex;
+            }
+            q.producerDone = true;
+            q.signalConsumer();
+        }
+
+        /**
+         * Closes the source iterator abandoned before completion if it holds resources.
+         */
+        static void release(Iterator<?> it) {
+            if (it instanceof Closeable) {
+                try {
+                    ((Closeable)it).close();
+                } catch (Throwable ex) {
+                    // ignored, nobody is listening anymore
+                }
+            }
+        }
+
+        boolean offer(Object o) {
+            Queue q = queue;
+            AtomicReferenceArray<Object> b = q.buffer;
+            int offset = (int)q.producerIndex & q.mask;
+            // the element bufferSize positions earlier has to be consumed first, which also frees offset
+            int limitOffset = (int)(q.producerIndex - q.limit) & q.mask;
+            for (;;) {
+                if (q.cancelled || consumer.get() == null) {
+                    return false;
+                }
+                if (b.get(limitOffset) == null) {
+                    b.set(offset, o);
+                    q.producerIndex++;
+                    q.signalConsumer();
+                    return true;
+                }
+                q.producerWaiting = Thread.currentThread();
+                if (b.get(limitOffset) != null && !q.cancelled) {
+                    LockSupport.parkNanos(this, Queue.PRODUCER_WAIT_NANOS);
+                }
+                q.producerWaiting = null;
+            }
+        }
+    }
+
+    static final class PrefetchIterator<T> extends IxBaseIterator<T> implements Closeable {
+
+        final Queue queue;
+
+        PrefetchIterator(int bufferSize) {
+            this.queue = new Queue(bufferSize);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        protected boolean moveNext() {
+            Queue q = queue;
+            for (;;) {
+                boolean d = q.producerDone;
+                Object o = q.poll();
+                if (o != null) {
+                    value = o == Queue.NULL ? null : (T)o;
+                    hasValue = true;
+                    return true;
+                }
+                if (d) {
+                    done = true;
+                    Throwable ex = q.error;
+                    if (ex != null) {
+                        q.error = null;
+                        if (ex instanceof RuntimeException) {
+                            throw (RuntimeException)ex;
+                        }
+                        if (ex instanceof Error) {
+                            throw (Error)ex;
+                        }
+                        throw new RuntimeException(ex);
+                    }
+                    return false;
+                }
+                if (q.cancelled) {
+                    done = true;
+                    return false;
+                }
+
+                q.consumerWaiting = Thread.currentThread();
+                if (!q.producerDone && q.buffer.get((int)q.consumerIndex & q.mask) == null) {
+                    LockSupport.park(this);
+                }
+                q.consumerWaiting = null;
+                if (Thread.interrupted()) {
+                    close();
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(new InterruptedException());
+                }
+            }
+        }
+
+        /**
+         * Stops the background thread from draining the source any further.
+         */
+        @Override
+        public void close() {
+            Queue q = queue;
+            q.cancelled = true;
+            done = true;
+            Thread t = q.producerWaiting;
+            if (t != null) {
+                LockSupport.unpark(t);
+            }
+        }
+    }
+}
@@ -18,7 +18,7 @@ package ix;
 
 import java.util.*;
 
-final class IxRange extends Ix<Integer> {
+final class IxRange extends Ix<Integer> implements IxIndexed<Integer> {
 
     final int start;
 
@@ -34,6 +34,21 @@ final class IxRange extends Ix<Integer> {
         return new RangeIterator(start, end);
     }
 
+    @Override
+    public int size() {
+        return end - start;
+    }
+
+    @Override
+    public Integer get(int index) {
+        return start + index;
+    }
+
+    @Override
+    public Iterator<Integer> iterator(int from, int to) {
+        return new RangeIterator(start + from, start + to);
+    }
+
     static final class RangeIterator implements Iterator<Integer> {
 
         final int end;
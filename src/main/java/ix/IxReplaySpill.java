@@ -0,0 +1,244 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+
+/**
+ * Caches and replays all elements of the source, keeping the first memoryLimit
+ * elements in a List and appending the rest, encoded, to a temporary file which
+ * each ReplayIterator reads back sequentially.
+ * <p>
+ * The cache, including the temporary file, is kept until close() is called as
+ * new iterator() calls may replay it at any time.
+ *
+ * @param <T> the value type
+ */
+final class IxReplaySpill<T> extends CloseableIx<T> {
+
+    /** The buffer size of the spill file's writer and readers. */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    final Iterable<T> source;
+
+    final int memoryLimit;
+
+    final IxCodec<T> codec;
+
+    List<T> list;
+
+    Iterator<T> it;
+
+    File file;
+
+    FileChannel channel;
+
+    DataOutputStream output;
+
+    /** The number of elements appended to the spill file. */
+    long spilled;
+
+    /** The number of spilled elements flushed to the file and thus readable. */
+    long flushed;
+
+    boolean closed;
+
+    IxReplaySpill(Iterable<T> source, int memoryLimit, IxCodec<T> codec) {
+        this.source = source;
+        this.memoryLimit = memoryLimit;
+        this.codec = codec;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        checkClosed();
+        if (it == null) {
+            it = source.iterator();
+            list = new ArrayList<T>();
+        }
+        return new ReplayIterator<T>(this);
+    }
+
+    long size() {
+        return list.size() + spilled;
+    }
+
+    boolean moveNext() {
+        if (!it.hasNext()) {
+            return false;
+        }
+        T v = it.next();
+        List<T> list = this.list;
+        if (list.size() < memoryLimit) {
+            list.add(v);
+        } else {
+            try {
+                DataOutputStream out = output;
+                if (out == null) {
+                    out = open();
+                }
+                codec.encode(v, out);
+            } catch (IOException ex) {
+                throw IxLines.wrap(ex);
+            }
+            spilled++;
+        }
+        return true;
+    }
+
+    DataOutputStream open() throws IOException {
+        File f = File.createTempFile("ixreplay", ".bin");
+        RandomAccessFile raf = new RandomAccessFile(f, "rw");
+        // the open channel keeps the content reachable; where an open file can't
+        // be deleted, it is deleted by close()
+        if (f.delete()) {
+            f = null;
+        } else {
+            f.deleteOnExit();
+        }
+        file = f;
+        FileChannel ch = raf.getChannel();
+        channel = ch;
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(ch), BUFFER_SIZE));
+        output = out;
+        return out;
+    }
+
+    void flush() {
+        try {
+            output.flush();
+        } catch (IOException ex) {
+            throw IxLines.wrap(ex);
+        }
+        flushed = spilled;
+    }
+
+    void checkClosed() {
+        if (closed) {
+            throw new IllegalStateException("The replay has been closed");
+        }
+    }
+
+    /**
+     * Drops the cached elements and closes and deletes the temporary file.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        list = null;
+        it = null;
+        output = null;
+        FileChannel ch = channel;
+        if (ch != null) {
+            channel = null;
+            try {
+                ch.close();
+            } catch (IOException ex) {
+                // ignored
+            }
+        }
+        File f = file;
+        if (f != null) {
+            file = null;
+            f.delete();
+        }
+    }
+
+    /**
+     * Reads the channel from a given position without moving the channel's position.
+     */
+    static final class PositionalInputStream extends InputStream {
+
+        final FileChannel channel;
+
+        long position;
+
+        PositionalInputStream(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int n = read(b, 0, 1);
+            return n < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = channel.read(ByteBuffer.wrap(b, off, len), position);
+            if (n > 0) {
+                position += n;
+            }
+            return n;
+        }
+    }
+
+    static final class ReplayIterator<T> extends IxBaseIterator<T> {
+
+        final IxReplaySpill<T> parent;
+
+        long index;
+
+        DataInputStream input;
+
+        ReplayIterator(IxReplaySpill<T> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        protected boolean moveNext() {
+            IxReplaySpill<T> p = parent;
+            p.checkClosed();
+            long i = index;
+            if (i == p.size()) {
+                if (!p.moveNext()) {
+                    input = null;
+                    done = true;
+                    return false;
+                }
+            }
+            index = i + 1;
+            if (i < p.memoryLimit) {
+                value = p.list.get((int)i);
+            } else {
+                long s = i - p.memoryLimit;
+                if (s >= p.flushed) {
+                    p.flush();
+                }
+                DataInputStream in = input;
+                if (in == null) {
+                    in = new DataInputStream(new BufferedInputStream(new PositionalInputStream(p.channel), BUFFER_SIZE));
+                    input = in;
+                }
+                try {
+                    value = p.codec.decode(in);
+                } catch (IOException ex) {
+                    throw IxLines.wrap(ex);
+                }
+            }
+            hasValue = true;
+            return true;
+        }
+    }
+}
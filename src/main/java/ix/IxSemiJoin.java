@@ -0,0 +1,178 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+
+/**
+ * Emits elements of the source whose key is (or is not) present among the keys
+ * of the other sequence; only the keys of the other sequence are kept in memory,
+ * optionally fronted by a Bloom filter.
+ *
+ * @param <T> the source value type
+ * @param <U> the other value type
+ * @param <K> the key type
+ */
+final class IxSemiJoin<T, U, K> extends IxSource<T, T> {
+
+    final Iterable<? extends U> other;
+
+    final IxFunction<? super T, ? extends K> leftKey;
+
+    final IxFunction<? super U, ? extends K> rightKey;
+
+    final boolean anti;
+
+    final boolean bloomFilter;
+
+    IxSemiJoin(Iterable<T> source, Iterable<? extends U> other,
+            IxFunction<? super T, ? extends K> leftKey, IxFunction<? super U, ? extends K> rightKey,
+            boolean anti, boolean bloomFilter) {
+        super(source);
+        this.other = other;
+        this.leftKey = leftKey;
+        this.rightKey = rightKey;
+        this.anti = anti;
+        this.bloomFilter = bloomFilter;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new SemiJoinIterator<T, U, K>(source.iterator(), other, leftKey, rightKey, anti, bloomFilter);
+    }
+
+    static final class SemiJoinIterator<T, U, K> extends IxSourceIterator<T, T> {
+
+        final Iterable<? extends U> other;
+
+        final IxFunction<? super T, ? extends K> leftKey;
+
+        final IxFunction<? super U, ? extends K> rightKey;
+
+        final boolean anti;
+
+        final boolean bloomFilter;
+
+        Set<K> keys;
+
+        BloomFilter filter;
+
+        SemiJoinIterator(Iterator<T> it, Iterable<? extends U> other,
+                IxFunction<? super T, ? extends K> leftKey, IxFunction<? super U, ? extends K> rightKey,
+                boolean anti, boolean bloomFilter) {
+            super(it);
+            this.other = other;
+            this.leftKey = leftKey;
+            this.rightKey = rightKey;
+            this.anti = anti;
+            this.bloomFilter = bloomFilter;
+        }
+
+        @Override
+        protected boolean moveNext() {
+            Set<K> set = keys;
+            if (set == null) {
+                set = new HashSet<K>(SizeHelper.hashCapacity(SizeHelper.knownSize(other)));
+                IxFunction<? super U, ? extends K> keySelector = rightKey;
+                for (U u : other) {
+                    set.add(keySelector.apply(u));
+                }
+                keys = set;
+                if (bloomFilter) {
+                    filter = new BloomFilter(set);
+                }
+            }
+
+            BloomFilter f = filter;
+            boolean a = anti;
+            Iterator<T> it = this.it;
+            while (it.hasNext()) {
+                T v = it.next();
+                K k = leftKey.apply(v);
+
+                boolean found = (f == null || f.mightContain(k)) && set.contains(k);
+                if (found != a) {
+                    value = v;
+                    hasValue = true;
+                    return true;
+                }
+            }
+
+            keys = Collections.emptySet();
+            filter = null;
+            done = true;
+            return false;
+        }
+    }
+
+    /**
+     * A fixed-size Bloom filter over the hash codes of a set of keys
+     * with roughly 1% false positive rate.
+     */
+    static final class BloomFilter {
+
+        static final int HASHES = 7;
+
+        final long[] bits;
+
+        final int mask;
+
+        BloomFilter(Collection<?> keys) {
+            long n = Math.max(64L, keys.size() * 10L);
+            int size = 64;
+            while (size < n && size < (1 << 30)) {
+                size <<= 1;
+            }
+            bits = new long[size >>> 6];
+            mask = size - 1;
+            for (Object k : keys) {
+                add(k);
+            }
+        }
+
+        static int hash(Object key) {
+            int h = key != null ? key.hashCode() : 0;
+            h *= 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        void add(Object key) {
+            int h1 = hash(key);
+            int h2 = (h1 >>> 15 | h1 << 17) | 1;
+            long[] b = bits;
+            int m = mask;
+            for (int i = 0; i < HASHES; i++) {
+                int index = (h1 + i * h2) & m;
+                b[index >>> 6] |= 1L << index;
+            }
+        }
+
+        boolean mightContain(Object key) {
+            int h1 = hash(key);
+            int h2 = (h1 >>> 15 | h1 << 17) | 1;
+            long[] b = bits;
+            int m = mask;
+            for (int i = 0; i < HASHES; i++) {
+                int index = (h1 + i * h2) & m;
+                if ((b[index >>> 6] & (1L << index)) == 0L) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.Iterator;
+
+/**
+ * Shares one source Iterator among any number of iterator() instances, possibly
+ * used from different threads, handing out the elements in batches.
+ *
+ * @param <T> the value type
+ */
+final class IxShared<T> extends IxSource<T, T> {
+
+    final int batchSize;
+
+    /** Guarded by this. */
+    Iterator<T> current;
+
+    /** Guarded by this. */
+    boolean done;
+
+    /** Guarded by this. */
+    Throwable error;
+
+    IxShared(Iterable<T> source, int batchSize) {
+        super(source);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new SharedIterator<T>(this);
+    }
+
+    /**
+     * Fills the given array with the next elements of the shared Iterator.
+     * @param batch the array to fill
+     * @return the number of elements placed into the array, zero if the source terminated
+     */
+    synchronized int fill(Object[] batch) {
+        if (done) {
+            return 0;
+        }
+        int n = 0;
+        try {
+            Iterator<T> it = current;
+            if (it == null) {
+                it = source.iterator();
+                current = it;
+            }
+            int m = batch.length;
+            while (n < m && it.hasNext()) {
+                batch[n++] = it.next();
+            }
+            if (n < m) {
+                done = true;
+            }
+        } catch (Throwable ex) {
+            error = ex;
+            done = true;
+        }
+        return n;
+    }
+
+    synchronized Throwable error() {
+        return error;
+    }
+
+    static final class SharedIterator<T> extends IxBaseIterator<T> {
+
+        final IxShared<T> parent;
+
+        final Object[] batch;
+
+        int index;
+
+        int count;
+
+        SharedIterator(IxShared<T> parent) {
+            this.parent = parent;
+            this.batch = new Object[parent.batchSize];
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        protected boolean moveNext() {
+            Object[] b = batch;
+            int i = index;
+            if (i == count) {
+                int n = parent.fill(b);
+                if (n == 0) {
+                    done = true;
+                    Throwable ex = parent.error();
+                    if (ex != null) {
+                        if (ex instanceof RuntimeException) {
+                            throw (RuntimeException)ex;
+                        }
+                        if (ex instanceof Error) {
+                            throw (Error)ex;
+                        }
+                        throw new RuntimeException(ex);
+                    }
+                    return false;
+                }
+                count = n;
+                i = 0;
+            }
+            value = (T)b[i];
+            b[i] = null;
+            index = i + 1;
+            hasValue = true;
+            return true;
+        }
+    }
+}
@@ -29,6 +29,11 @@ final class IxSkip<T> extends IxSource<T, T> {
 
     @Override
     public Iterator<T> iterator() {
+        IxIndexed<T> indexed = IndexedHelper.direct(source);
+        if (indexed != null) {
+            int size = indexed.size();
+            return indexed.iterator(Math.min(n, size), size);
+        }
         return new SkipIterator<T>(source.iterator(), n);
     }
 
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+
+/**
+ * Computes the union, intersection or symmetric difference of two
+ * sequences sorted by the same Comparator via a linear merge.
+ *
+ * @param <T> the value type
+ */
+final class IxSortedSetOperation<T> extends IxSource<T, T> {
+
+    static final int UNION = 0;
+
+    static final int INTERSECT = 1;
+
+    static final int EXCEPT = 2;
+
+    final Iterable<? extends T> other;
+
+    final Comparator<? super T> comparator;
+
+    final int mode;
+
+    IxSortedSetOperation(Iterable<T> source, Iterable<? extends T> other, Comparator<? super T> comparator, int mode) {
+        super(source);
+        this.other = other;
+        this.comparator = comparator;
+        this.mode = mode;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new SortedSetOperationIterator<T>(source.iterator(), other.iterator(), comparator, mode);
+    }
+
+    static final class SortedSetOperationIterator<T> extends IxSourceIterator<T, T> {
+
+        final Iterator<? extends T> other;
+
+        final Comparator<? super T> comparator;
+
+        final int mode;
+
+        T first;
+
+        boolean hasFirst;
+
+        T second;
+
+        boolean hasSecond;
+
+        T last;
+
+        boolean hasLast;
+
+        SortedSetOperationIterator(Iterator<T> it, Iterator<? extends T> other, Comparator<? super T> comparator, int mode) {
+            super(it);
+            this.other = other;
+            this.comparator = comparator;
+            this.mode = mode;
+        }
+
+        @Override
+        protected boolean moveNext() {
+            Comparator<? super T> cmp = comparator;
+            for (;;) {
+                if (!hasFirst) {
+                    Iterator<T> a = it;
+                    while (a.hasNext()) {
+                        T v = a.next();
+                        if (!hasLast || cmp.compare(last, v) != 0) {
+                            first = v;
+                            hasFirst = true;
+                            break;
+                        }
+                    }
+                }
+                if (!hasSecond) {
+                    Iterator<? extends T> b = other;
+                    while (b.hasNext()) {
+                        T v = b.next();
+                        if (!hasLast || cmp.compare(last, v) != 0) {
+                            second = v;
+                            hasSecond = true;
+                            break;
+                        }
+                    }
+                }
+
+                int m = mode;
+                boolean hf = hasFirst;
+                boolean hs = hasSecond;
+                if (m == INTERSECT ? !hf || !hs : !hf && !hs) {
+                    first = null;
+                    second = null;
+                    last = null;
+                    done = true;
+                    return false;
+                }
+
+                int c;
+                if (!hf) {
+                    c = 1;
+                } else if (!hs) {
+                    c = -1;
+                } else {
+                    c = cmp.compare(first, second);
+                }
+
+                T v;
+                if (c <= 0) {
+                    v = first;
+                    first = null;
+                    hasFirst = false;
+                    if (c == 0) {
+                        second = null;
+                        hasSecond = false;
+                    }
+                } else {
+                    v = second;
+                    second = null;
+                    hasSecond = false;
+                }
+                last = v;
+                hasLast = true;
+
+                if (m == UNION || (m == INTERSECT) == (c == 0)) {
+                    value = v;
+                    hasValue = true;
+                    return true;
+                }
+            }
+        }
+    }
+}
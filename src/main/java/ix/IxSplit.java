@@ -49,7 +49,8 @@ final class IxSplit extends Ix<String> {
         @Override
         protected boolean moveNext() {
             int i = index;
-            int j = string.indexOf(by, i);
+            String by = this.by;
+            int j = by.length() == 1 ? string.indexOf(by.charAt(0), i) : string.indexOf(by, i);
 
             if (j < 0) {
                 value = string.substring(i);
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.Iterator;
+
+/**
+ * Splits a CharSequence along a separator and emits the tokens as views of
+ * the original characters.
+ */
+final class IxSplitView extends Ix<CharSequence> {
+
+    final CharSequence cs;
+
+    final CharSequence by;
+
+    IxSplitView(CharSequence cs, CharSequence by) {
+        this.cs = cs;
+        this.by = by;
+    }
+
+    @Override
+    public Iterator<CharSequence> iterator() {
+        return new SplitViewIterator(new SplitCursor(cs, by));
+    }
+
+    /**
+     * Checks that the separator is not empty.
+     * @param by the separator to check
+     * @return by
+     * @throws IllegalArgumentException if by is empty
+     */
+    static CharSequence nonEmpty(CharSequence by) {
+        if (by.length() == 0) {
+            throw new IllegalArgumentException("by is empty");
+        }
+        return by;
+    }
+
+    /**
+     * Returns the index of the separator in cs at or after the given index, -1 if not found.
+     * @param cs the sequence to search
+     * @param by the separator, not empty
+     * @param from the start index of the search
+     * @return the index or -1
+     */
+    static int indexOf(CharSequence cs, CharSequence by, int from) {
+        if (cs instanceof String && by instanceof String) {
+            return ((String)cs).indexOf((String)by, from);
+        }
+        int m = by.length();
+        if (m == 1) {
+            return indexOf(cs, by.charAt(0), from);
+        }
+        char first = by.charAt(0);
+        int n = cs.length() - m;
+        outer:
+        for (int i = from; i <= n; i++) {
+            if (cs.charAt(i) == first) {
+                for (int k = 1; k < m; k++) {
+                    if (cs.charAt(i + k) != by.charAt(k)) {
+                        continue outer;
+                    }
+                }
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static int indexOf(CharSequence cs, char by, int from) {
+        if (cs instanceof String) {
+            return ((String)cs).indexOf(by, from);
+        }
+        int n = cs.length();
+        for (int i = from; i < n; i++) {
+            if (cs.charAt(i) == by) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static final class SplitViewIterator extends IxBaseIterator<CharSequence> {
+
+        final SplitCursor cursor;
+
+        SplitViewIterator(SplitCursor cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        protected boolean moveNext() {
+            SplitCursor c = cursor;
+            if (c.next()) {
+                value = new CharSlice(c.source(), c.start(), c.end());
+                hasValue = true;
+                return true;
+            }
+            done = true;
+            return false;
+        }
+    }
+
+    /**
+     * A range of characters of another CharSequence, equal to other ranges
+     * with the same characters.
+     */
+    static final class CharSlice implements CharSequence {
+
+        final CharSequence source;
+
+        final int start;
+
+        final int end;
+
+        CharSlice(CharSequence source, int start, int end) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException("index: " + index + ", length: " + (end - start));
+            }
+            return source.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            if (from < 0 || to > end - start || from > to) {
+                throw new IndexOutOfBoundsException("start: " + from + ", end: " + to + ", length: " + (end - start));
+            }
+            return new CharSlice(source, start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            return source.subSequence(start, end).toString();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CharSlice)) {
+                return false;
+            }
+            CharSlice other = (CharSlice)obj;
+            int n = end - start;
+            if (n != other.end - other.start) {
+                return false;
+            }
+            CharSequence s = source;
+            CharSequence os = other.source;
+            int o = start;
+            int oo = other.start;
+            for (int i = 0; i < n; i++) {
+                if (s.charAt(o + i) != os.charAt(oo + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            CharSequence s = source;
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + s.charAt(i);
+            }
+            return h;
+        }
+    }
+}
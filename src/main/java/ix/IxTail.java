@@ -0,0 +1,206 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * Emits the complete lines of a growing file, reading only the bytes appended since
+ * the previous read and waiting according to a poll strategy at the end of the file.
+ */
+final class IxTail extends Ix<CharSequence> {
+
+    /** The initial size of the read buffer; grows if a line doesn't fit. */
+    static final int BUFFER_SIZE = 256 * 1024;
+
+    final File file;
+
+    final Charset charset;
+
+    final IxFunction<? super Integer, ? extends Number> pollStrategy;
+
+    IxTail(File file, Charset charset, IxFunction<? super Integer, ? extends Number> pollStrategy) {
+        this.file = file;
+        this.charset = charset;
+        this.pollStrategy = pollStrategy;
+    }
+
+    @Override
+    public Iterator<CharSequence> iterator() {
+        return new TailIterator(file, charset, pollStrategy);
+    }
+
+    /**
+     * Checks if the charset encodes '\n' as the single byte 0x0A so the line breaks
+     * can be found in the undecoded bytes.
+     * @param charset the charset to check
+     * @return the charset
+     */
+    static Charset checkCharset(Charset charset) {
+        if (!Arrays.equals(new byte[] { '\n' }, "\n".getBytes(charset))) {
+            throw new IllegalArgumentException("The charset " + charset + " doesn't encode line breaks as single bytes");
+        }
+        return charset;
+    }
+
+    /**
+     * Waits 1, 2, 4, ... milliseconds up to 1 second between consecutive unsuccessful polls.
+     */
+    enum Backoff implements IxFunction<Integer, Long> {
+        INSTANCE;
+
+        @Override
+        public Long apply(Integer t) {
+            return Math.min(1000L, 1L << Math.min(t, 10));
+        }
+    }
+
+    static final class TailIterator extends IxBaseIterator<CharSequence> implements Closeable {
+
+        final File file;
+
+        final Charset charset;
+
+        final IxFunction<? super Integer, ? extends Number> pollStrategy;
+
+        RandomAccessFile raf;
+
+        FileChannel channel;
+
+        /** The file position of the next read. */
+        long position;
+
+        /** Holds the bytes read but not yet emitted between lineStart and position, in write mode. */
+        ByteBuffer buffer;
+
+        /** The index in the buffer where the next line starts. */
+        int lineStart;
+
+        /** The index in the buffer where the search for the next line break continues. */
+        int scanned;
+
+        TailIterator(File file, Charset charset, IxFunction<? super Integer, ? extends Number> pollStrategy) {
+            this.file = file;
+            this.charset = charset;
+            this.pollStrategy = pollStrategy;
+        }
+
+        @Override
+        protected boolean moveNext() {
+            try {
+                FileChannel ch = channel;
+                if (ch == null) {
+                    RandomAccessFile f = new RandomAccessFile(file, "r");
+                    raf = f;
+                    ch = f.getChannel();
+                    channel = ch;
+                    buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                }
+                int idle = 0;
+                for (;;) {
+                    ByteBuffer b = buffer;
+                    byte[] array = b.array();
+                    int end = b.position();
+                    int start = lineStart;
+                    for (int i = scanned; i < end; i++) {
+                        if (array[i] == '\n') {
+                            int len = i > start && array[i - 1] == '\r' ? i - 1 - start : i - start;
+                            value = new String(array, start, len, charset);
+                            hasValue = true;
+                            lineStart = i + 1;
+                            scanned = i + 1;
+                            return true;
+                        }
+                    }
+                    scanned = end;
+
+                    if (start != 0) {
+                        // move the partial line to the front before reading more
+                        b.flip();
+                        b.position(start);
+                        b.compact();
+                        scanned -= start;
+                        lineStart = 0;
+                    }
+                    if (!b.hasRemaining()) {
+                        ByteBuffer nb = ByteBuffer.allocate(b.capacity() * 2);
+                        b.flip();
+                        nb.put(b);
+                        buffer = nb;
+                        b = nb;
+                    }
+
+                    int n = ch.read(b, position);
+                    if (n > 0) {
+                        position += n;
+                        idle = 0;
+                        continue;
+                    }
+                    if (ch.size() < position) {
+                        // the file was truncated, start over from its beginning
+                        position = 0L;
+                        b.clear();
+                        lineStart = 0;
+                        scanned = 0;
+                        continue;
+                    }
+                    Number delay = pollStrategy.apply(idle++);
+                    long d = delay != null ? delay.longValue() : -1L;
+                    if (d < 0L) {
+                        close();
+                        return false;
+                    }
+                    if (d > 0L) {
+                        try {
+                            Thread.sleep(d);
+                        } catch (InterruptedException ex) {
+                            close();
+                            Thread.currentThread().interrupt();
+                            throw new RuntimeException(ex);
+                        }
+                    }
+                }
+            } catch (IOException ex) {
+                close();
+                throw IxLines.wrap(ex);
+            }
+        }
+
+        /**
+         * Closes the underlying file.
+         */
+        @Override
+        public void close() {
+            done = true;
+            RandomAccessFile f = raf;
+            if (f != null) {
+                raf = null;
+                channel = null;
+                buffer = null;
+                try {
+                    f.close();
+                } catch (IOException ex) {
+                    // ignored
+                }
+            }
+        }
+    }
+}
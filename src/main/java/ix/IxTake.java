@@ -29,6 +29,10 @@ final class IxTake<T> extends IxSource<T, T> {
 
     @Override
     public Iterator<T> iterator() {
+        IxIndexed<T> indexed = IndexedHelper.direct(source);
+        if (indexed != null) {
+            return indexed.iterator(0, Math.min(n, indexed.size()));
+        }
         return new TakeIterator<T>(source.iterator(), n);
     }
 
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+
+/**
+ * Folds the elements of a sequence on multiple threads; see {@link Ix#parallel(int)}
+ * and {@link Ix#parallel(int, Executor)}.
+ * <p>
+ * Each chunk of the sequence is folded into its own partial result starting from
+ * the identity or initial collection, and the partial results are combined in the
+ * order of the chunks. Therefore the accumulator and combiner functions don't have to be
+ * commutative but have to be associative.
+ *
+ * @param <T> the value type
+ * @since 1.0
+ */
+public final class ParallelIx<T> {
+
+    final Ix<T> source;
+
+    final int parallelism;
+
+    final Executor executor;
+
+    ParallelIx(Ix<T> source, int parallelism, Executor executor) {
+        this.source = source;
+        this.parallelism = parallelism;
+        this.executor = executor;
+    }
+
+    /**
+     * Folds chunks of the sequence, each starting from the identity value, and combines
+     * the partial results in order into a single value to emit.
+     * <p>
+     * The identity value is shared between the chunks and thus should be immutable.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <R> the result type
+     * @param identity the initial value of each chunk's fold and the result if the sequence is empty
+     * @param accumulator the function called with the current partial result and an element
+     * and returns the new partial result, not null
+     * @param combiner the function called with two adjacent partial results and returns
+     * their combination, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if accumulator or combiner is null
+     * @since 1.0
+     */
+    public <R> Ix<R> reduce(R identity, IxFunction2<R, ? super T, R> accumulator, IxFunction2<R, R, R> combiner) {
+        return new IxParallelFold<T, R>(source, parallelism, executor, new IdentitySupplier<R>(identity),
+                Ix.nullCheck(accumulator, "accumulator is null"), Ix.nullCheck(combiner, "combiner is null"));
+    }
+
+    /**
+     * Collects chunks of the sequence into containers created for each chunk and merges
+     * the containers in order into a single container to emit.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <C> the container type
+     * @param initialFactory the function returning a new container for each chunk, not null
+     * @param collector the action called with a chunk's container and an element, not null
+     * @param combiner the action called with two adjacent containers that should merge the
+     * contents of the second container into the first one, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if initialFactory, collector or combiner is null
+     * @since 1.0
+     */
+    public <C> Ix<C> collect(IxSupplier<C> initialFactory, IxConsumer2<C, ? super T> collector, IxConsumer2<C, C> combiner) {
+        return new IxParallelFold<T, C>(source, parallelism, executor, Ix.nullCheck(initialFactory, "initialFactory is null"),
+                new CollectAccumulator<C, T>(Ix.nullCheck(collector, "collector is null")),
+                new CollectAccumulator<C, C>(Ix.nullCheck(combiner, "combiner is null")));
+    }
+
+    /**
+     * Groups the elements by key into a multi-Map where each key is aggregated by one of
+     * {@code parallelism} workers.
+     * <p>
+     * The sequence is read once on the thread that iterates the result; the keys are
+     * computed there as well and the elements are routed by the key's hash code to the
+     * workers through bounded queues, so the reading blocks if a worker falls behind.
+     * Each worker collects a disjoint set of keys and the partial maps are concatenated
+     * at the end. The elements of each key retain their order in the sequence.
+     * <p>
+     * When running on an Executor, it must be able to run {@code parallelism} tasks at once.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <K> the key type
+     * @param keySelector the function that receives an element and returns its key, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if keySelector is null
+     * @since 1.0
+     */
+    public <K> Ix<Map<K, Collection<T>>> collectToMultimap(IxFunction<? super T, ? extends K> keySelector) {
+        return collectToMultimap(keySelector, IdentityHelper.<T>instance());
+    }
+
+    /**
+     * Groups the values selected from the elements by key into a multi-Map where each key is
+     * aggregated by one of {@code parallelism} workers.
+     * <p>
+     * The sequence is read once on the thread that iterates the result; the keys are
+     * computed there as well and the elements are routed by the key's hash code to the
+     * workers through bounded queues, so the reading blocks if a worker falls behind.
+     * The valueSelector runs on the workers. Each worker collects a disjoint set of keys
+     * and the partial maps are concatenated at the end. The values of each key retain their
+     * order in the sequence.
+     * <p>
+     * When running on an Executor, it must be able to run {@code parallelism} tasks at once.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <K> the key type
+     * @param <V> the value type
+     * @param keySelector the function that receives an element and returns its key, not null
+     * @param valueSelector the function that receives an element and returns the value to
+     * collect for its key, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if keySelector or valueSelector is null
+     * @since 1.0
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public <K, V> Ix<Map<K, Collection<V>>> collectToMultimap(IxFunction<? super T, ? extends K> keySelector,
+            IxFunction<? super T, ? extends V> valueSelector) {
+        return new IxParallelGroupBy<T, K, V, Collection<V>>(source, parallelism, executor,
+                Ix.nullCheck(keySelector, "keySelector is null"), Ix.nullCheck(valueSelector, "valueSelector is null"),
+                (IxSupplier)ListSupplier.INSTANCE, (IxFunction2)AddToCollection.INSTANCE);
+    }
+
+    /**
+     * Aggregates the elements per key into a Map where each key is aggregated by one of
+     * {@code parallelism} workers.
+     * <p>
+     * The sequence is read once on the thread that iterates the result; the keys are
+     * computed there as well and the elements are routed by the key's hash code to the
+     * workers through bounded queues, so the reading blocks if a worker falls behind.
+     * The accumulator runs on the workers. Each worker aggregates a disjoint set of keys
+     * and the partial maps are concatenated at the end. The elements of each key are
+     * accumulated in their order in the sequence.
+     * <p>
+     * When running on an Executor, it must be able to run {@code parallelism} tasks at once.
+     * <p>
+     * The result's iterator() doesn't support remove().
+     * @param <K> the key type
+     * @param <A> the aggregate type
+     * @param keySelector the function that receives an element and returns its key, not null
+     * @param initialFactory the function returning the initial aggregate for each key, not null
+     * @param accumulator the function called with the current aggregate of a key and an element
+     * with that key and returns the new aggregate, not null
+     * @return the new Ix instance
+     * @throws NullPointerException if keySelector, initialFactory or accumulator is null
+     * @since 1.0
+     */
+    public <K, A> Ix<Map<K, A>> aggregateByKey(IxFunction<? super T, ? extends K> keySelector,
+            IxSupplier<A> initialFactory, IxFunction2<A, ? super T, A> accumulator) {
+        return new IxParallelGroupBy<T, K, T, A>(source, parallelism, executor,
+                Ix.nullCheck(keySelector, "keySelector is null"), IdentityHelper.<T>instance(),
+                Ix.nullCheck(initialFactory, "initialFactory is null"), Ix.nullCheck(accumulator, "accumulator is null"));
+    }
+
+    static final class IdentitySupplier<R> implements IxSupplier<R> {
+        final R identity;
+
+        IdentitySupplier(R identity) {
+            this.identity = identity;
+        }
+
+        @Override
+        public R get() {
+            return identity;
+        }
+    }
+
+    static final class CollectAccumulator<C, T> implements IxFunction2<C, T, C> {
+        final IxConsumer2<C, ? super T> collector;
+
+        CollectAccumulator(IxConsumer2<C, ? super T> collector) {
+            this.collector = collector;
+        }
+
+        @Override
+        public C apply(C c, T t) {
+            collector.accept(c, t);
+            return c;
+        }
+    }
+
+    enum ListSupplier implements IxSupplier<Collection<Object>> {
+        INSTANCE;
+
+        @Override
+        public Collection<Object> get() {
+            return new ArrayList<Object>();
+        }
+    }
+
+    enum AddToCollection implements IxFunction2<Collection<Object>, Object, Collection<Object>> {
+        INSTANCE;
+
+        @Override
+        public Collection<Object> apply(Collection<Object> c, Object t) {
+            c.add(t);
+            return c;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Base class of flyweight views over fixed-width binary records of a memory-mapped
+ * file; see {@link Ix#mappedRecords(java.io.File, int, IxSupplier)}.
+ * <p>
+ * Subclasses expose the fields of a record through accessors reading at fixed
+ * offsets within the record, for example:
+ * <pre>
+ * final class Event extends RecordView {
+ *     long timestamp() { return getLong(0); }
+ *     int type() { return getInt(8); }
+ * }
+ * </pre>
+ * The iterator() of a mapped records sequence emits the same view instance for every
+ * record, repositioned to the record's offset, so the view is valid only until the
+ * next call to hasNext() or next().
+ * @since 1.0
+ */
+public abstract class RecordView {
+
+    ByteBuffer buffer;
+
+    int offset;
+
+    long index;
+
+    /** A duplicate of bulkSource for the relative bulk reads of getBytes. */
+    ByteBuffer bulk;
+
+    /** The buffer bulk was duplicated from. */
+    ByteBuffer bulkSource;
+
+    void position(ByteBuffer buffer, int offset, long index) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.index = index;
+    }
+
+    /**
+     * Returns the index of the current record within the file.
+     * @return the record index
+     */
+    public final long index() {
+        return index;
+    }
+
+    /**
+     * Returns the buffer holding the current record.
+     * @return the buffer
+     */
+    protected final ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns the offset of the current record within the buffer.
+     * @return the offset
+     */
+    protected final int offset() {
+        return offset;
+    }
+
+    /**
+     * Returns the byte at the given offset of the current record.
+     * @param fieldOffset the offset within the record
+     * @return the value
+     */
+    protected final byte getByte(int fieldOffset) {
+        return buffer.get(offset + fieldOffset);
+    }
+
+    /**
+     * Returns the short at the given offset of the current record.
+     * @param fieldOffset the offset within the record
+     * @return the value
+     */
+    protected final short getShort(int fieldOffset) {
+        return buffer.getShort(offset + fieldOffset);
+    }
+
+    /**
+     * Returns the int at the given offset of the current record.
+     * @param fieldOffset the offset within the record
+     * @return the value
+     */
+    protected final int getInt(int fieldOffset) {
+        return buffer.getInt(offset + fieldOffset);
+    }
+
+    /**
+     * Returns the long at the given offset of the current record.
+     * @param fieldOffset the offset within the record
+     * @return the value
+     */
+    protected final long getLong(int fieldOffset) {
+        return buffer.getLong(offset + fieldOffset);
+    }
+
+    /**
+     * Returns the float at the given offset of the current record.
+     * @param fieldOffset the offset within the record
+     * @return the value
+     */
+    protected final float getFloat(int fieldOffset) {
+        return buffer.getFloat(offset + fieldOffset);
+    }
+
+    /**
+     * Returns the double at the given offset of the current record.
+     * @param fieldOffset the offset within the record
+     * @return the value
+     */
+    protected final double getDouble(int fieldOffset) {
+        return buffer.getDouble(offset + fieldOffset);
+    }
+
+    /**
+     * Copies bytes of the current record into the given array.
+     * @param fieldOffset the offset within the record
+     * @param dest the destination array
+     * @param destOffset the offset within the destination array
+     * @param length the number of bytes to copy
+     */
+    protected final void getBytes(int fieldOffset, byte[] dest, int destOffset, int length) {
+        ByteBuffer b = bulk;
+        if (bulkSource != buffer) {
+            // the view moved to another window
+            b = buffer.duplicate();
+            bulk = b;
+            bulkSource = buffer;
+        }
+        b.position(offset + fieldOffset);
+        b.get(dest, destOffset, length);
+    }
+}
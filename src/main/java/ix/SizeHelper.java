@@ -0,0 +1,94 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.Collection;
+
+/**
+ * Utility methods to find out the number of elements of an Iterable
+ * without iterating it.
+ */
+enum SizeHelper {
+    ;
+
+    /**
+     * Returns the number of elements the given Iterable will produce if
+     * it can be determined without iterating it, -1 otherwise.
+     * @param source the source Iterable
+     * @return the number of elements or -1 if not known
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    static int knownSize(Iterable<?> source) {
+        IxIndexed<?> indexed = IndexedHelper.indexed((Iterable)source);
+        if (indexed != null) {
+            return indexed.size();
+        }
+        if (source instanceof IxWrapper) {
+            source = ((IxWrapper<?>)source).source;
+        }
+        if (source instanceof Collection) {
+            return ((Collection<?>)source).size();
+        }
+        if (source instanceof IxJust) {
+            return 1;
+        }
+        if (source instanceof IxEmpty) {
+            return 0;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of elements the given Iterable will produce if it is
+     * an IxIndexed source, possibly behind skip and take, -1 otherwise.
+     * <p>
+     * Unlike knownSize, this doesn't look through operators that run user code
+     * per element, so the count can replace iterating the sequence.
+     * @param source the source Iterable
+     * @return the number of elements or -1 if not known
+     */
+    static int exactSize(Iterable<?> source) {
+        IxIndexed<?> indexed = IndexedHelper.direct(source);
+        if (indexed != null) {
+            return indexed.size();
+        }
+        if (source instanceof IxTake) {
+            IxTake<?> t = (IxTake<?>)source;
+            int n = exactSize(t.source);
+            return n < 0 ? -1 : Math.min(n, t.n);
+        }
+        if (source instanceof IxSkip) {
+            IxSkip<?> t = (IxSkip<?>)source;
+            int n = exactSize(t.source);
+            return n < 0 ? -1 : Math.max(0, n - t.n);
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the initial capacity of a HashMap or HashSet that can hold
+     * the given number of elements without rehashing.
+     * @param size the expected number of elements, -1 if not known
+     * @return the initial capacity
+     */
+    static int hashCapacity(int size) {
+        if (size < 12) {
+            return 16;
+        }
+        return (int)Math.min(1 << 30, size * 4L / 3 + 1);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+/**
+ * Walks the tokens of a CharSequence split along a separator and exposes the
+ * start and end index of the current token, without allocating anything per token;
+ * see {@link Ix#splitCursor(CharSequence, char)}.
+ * <p>
+ * The tokens are the same as the ones {@link Ix#split(String, String)} returns:
+ * adjacent separators produce empty tokens and an empty sequence has one empty token.
+ * <p>
+ * Usage:
+ * <pre>
+ * SplitCursor c = Ix.splitCursor(line, ',');
+ * while (c.next()) {
+ *     process(line, c.start(), c.end());
+ * }
+ * </pre>
+ * @since 1.0
+ */
+public final class SplitCursor {
+
+    final CharSequence cs;
+
+    final CharSequence by;
+
+    final char byChar;
+
+    int start;
+
+    int end;
+
+    /** The index where the next token starts, -1 after the last token. */
+    int index;
+
+    SplitCursor(CharSequence cs, CharSequence by) {
+        this.cs = cs;
+        this.by = by;
+        this.byChar = by.length() == 1 ? by.charAt(0) : 0;
+        this.start = -1;
+        this.end = -1;
+    }
+
+    /**
+     * Moves to the next token.
+     * @return true if there is a next token, false if all tokens have been visited
+     */
+    public boolean next() {
+        int i = index;
+        if (i < 0) {
+            return false;
+        }
+        CharSequence by = this.by;
+        int m = by.length();
+        int j = m == 1 ? IxSplitView.indexOf(cs, byChar, i) : IxSplitView.indexOf(cs, by, i);
+        start = i;
+        if (j < 0) {
+            end = cs.length();
+            index = -1;
+        } else {
+            end = j;
+            index = j + m;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of the first character of the current token.
+     * @return the start index, inclusive
+     */
+    public int start() {
+        return start;
+    }
+
+    /**
+     * Returns the index after the last character of the current token.
+     * @return the end index, exclusive
+     */
+    public int end() {
+        return end;
+    }
+
+    /**
+     * Returns the CharSequence being split.
+     * @return the CharSequence being split
+     */
+    public CharSequence source() {
+        return cs;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+import org.junit.*;
+
+public class BinaryCursorTest {
+
+    static void varLong(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0L) {
+            out.write((int)((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int)v);
+    }
+
+    static ReadableByteChannel channel(byte[] bytes) {
+        return Channels.newChannel(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    public void fixedWidthBigEndian() {
+        ByteBuffer b = ByteBuffer.allocate(21);
+        b.put((byte)7).putInt(1).putLong(-2L).putDouble(3.5).flip();
+
+        BinaryCursor c = Ix.binaryCursor(b);
+
+        Assert.assertSame(ByteOrder.BIG_ENDIAN, c.order());
+        Assert.assertEquals(7, c.nextByte());
+        Assert.assertEquals(1, c.nextInt());
+        Assert.assertEquals(-2L, c.nextLong());
+        Assert.assertEquals(3.5, c.nextDouble(), 0.0);
+        Assert.assertFalse(c.hasRemaining());
+        Assert.assertEquals(0, b.position());
+    }
+
+    @Test
+    public void fixedWidthLittleEndian() {
+        ByteBuffer b = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        b.putInt(0x01020304).putInt(5).flip();
+
+        BinaryCursor c = Ix.binaryCursor(b);
+
+        Assert.assertEquals(0x01020304, c.nextInt());
+        Assert.assertEquals(5, c.nextInt());
+        Assert.assertFalse(c.hasRemaining());
+    }
+
+    @Test
+    public void channelSmallBlocks() {
+        ByteBuffer b = ByteBuffer.allocate(8000).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < 1000; i++) {
+            b.putLong(i * 1000000007L);
+        }
+
+        BinaryCursor c = Ix.binaryCursor(channel(b.array()), ByteOrder.LITTLE_ENDIAN, 13);
+
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(c.hasRemaining());
+            Assert.assertEquals(i * 1000000007L, c.nextLong());
+        }
+        Assert.assertFalse(c.hasRemaining());
+    }
+
+    @Test
+    public void varints() {
+        long[] values = { 0L, 1L, 127L, 128L, 300L, Integer.MAX_VALUE, 0xFFFFFFFFL, Long.MAX_VALUE, -1L, Long.MIN_VALUE };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (long v : values) {
+            varLong(out, v);
+        }
+        byte[] bytes = out.toByteArray();
+
+        BinaryCursor c = Ix.binaryCursor(ByteBuffer.wrap(bytes));
+        for (long v : values) {
+            Assert.assertEquals(v, c.nextVarLong());
+        }
+        Assert.assertFalse(c.hasRemaining());
+
+        // every block size makes some varints span two blocks
+        for (int blockSize = 1; blockSize < 16; blockSize++) {
+            c = Ix.binaryCursor(channel(bytes), ByteOrder.BIG_ENDIAN, blockSize);
+            for (long v : values) {
+                Assert.assertEquals(v, c.nextVarLong());
+            }
+            Assert.assertFalse(c.hasRemaining());
+        }
+    }
+
+    @Test
+    public void varInt() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        varLong(out, 300L);
+        varLong(out, 0xFFFFFFFFL);
+        varLong(out, 1L << 32);
+
+        BinaryCursor c = Ix.binaryCursor(ByteBuffer.wrap(out.toByteArray()));
+
+        Assert.assertEquals(300, c.nextVarInt());
+        Assert.assertEquals(-1, c.nextVarInt());
+        try {
+            c.nextVarInt();
+            Assert.fail("Should have thrown");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void zigZagDeltas() {
+        long[] values = { 100L, 98L, 1000L, -5L, -5L, 7L };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long prev = 0L;
+        for (long v : values) {
+            long d = v - prev;
+            varLong(out, (d << 1) ^ (d >> 63));
+            prev = v;
+        }
+
+        BinaryCursor c = Ix.binaryCursor(channel(out.toByteArray()), ByteOrder.BIG_ENDIAN);
+
+        long value = 0L;
+        for (long v : values) {
+            value += c.nextVarLongZigZag();
+            Assert.assertEquals(v, value);
+        }
+        Assert.assertFalse(c.hasRemaining());
+    }
+
+    @Test(expected = BufferUnderflowException.class)
+    public void truncatedInt() {
+        Ix.binaryCursor(channel(new byte[] { 1, 2, 3 }), ByteOrder.BIG_ENDIAN).nextInt();
+    }
+
+    @Test(expected = BufferUnderflowException.class)
+    public void truncatedVarint() {
+        Ix.binaryCursor(ByteBuffer.wrap(new byte[] { (byte)0x80, (byte)0x80 })).nextVarLong();
+    }
+
+    @Test(expected = BufferUnderflowException.class)
+    public void empty() {
+        Ix.binaryCursor(ByteBuffer.allocate(0)).nextVarLong();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void malformedVarint() {
+        byte[] bytes = new byte[11];
+        java.util.Arrays.fill(bytes, (byte)0x80);
+        Ix.binaryCursor(ByteBuffer.wrap(bytes)).nextVarLong();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void blockSizeNonPositive() {
+        Ix.binaryCursor(channel(new byte[0]), ByteOrder.BIG_ENDIAN, 0);
+    }
+}
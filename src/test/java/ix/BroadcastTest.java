@@ -0,0 +1,171 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.*;
+import java.util.Iterator;
+
+import org.junit.*;
+
+public class BroadcastTest {
+
+    @Test
+    public void normal() {
+        Ix<Integer> source = Ix.range(1, 5).broadcast(2);
+
+        IxTestHelper.assertValues(source, 1, 2, 3, 4, 5);
+
+        IxTestHelper.assertNoRemove(Ix.range(1, 5).broadcast(2));
+    }
+
+    @Test
+    public void interleaved() {
+        final int[] counter = { 0 };
+        Ix<Integer> source = Ix.range(1, 5)
+                .doOnNext(new IxConsumer<Integer>() {
+                    @Override
+                    public void accept(Integer v) {
+                        counter[0]++;
+                    }
+                })
+                .broadcast(2);
+
+        Iterator<Integer> it1 = source.iterator();
+        Iterator<Integer> it2 = source.iterator();
+
+        Assert.assertEquals(1, it1.next().intValue());
+        Assert.assertEquals(2, it1.next().intValue());
+        Assert.assertEquals(1, it2.next().intValue());
+        Assert.assertEquals(3, it1.next().intValue());
+        Assert.assertEquals(2, it2.next().intValue());
+        Assert.assertEquals(3, it2.next().intValue());
+        Assert.assertEquals(4, it2.next().intValue());
+        Assert.assertEquals(5, it2.next().intValue());
+        Assert.assertFalse(it2.hasNext());
+        Assert.assertEquals(4, it1.next().intValue());
+        Assert.assertEquals(5, it1.next().intValue());
+        Assert.assertFalse(it1.hasNext());
+
+        Assert.assertEquals(5, counter[0]);
+    }
+
+    @Test
+    public void lagExceeded() {
+        Ix<Integer> source = Ix.range(1, 5).broadcast(2);
+
+        Iterator<Integer> it1 = source.iterator();
+        Iterator<Integer> it2 = source.iterator();
+
+        it1.next();
+        it1.next();
+        try {
+            it1.next();
+            Assert.fail("Should have thrown");
+        } catch (IllegalStateException expected) {
+            // the slow consumer is still active
+        }
+
+        Assert.assertEquals(1, it2.next().intValue());
+    }
+
+    @Test
+    public void closedConsumerDoesntHoldBack() throws IOException {
+        Ix<Integer> source = Ix.range(1, 5).broadcast(2);
+
+        Iterator<Integer> it1 = source.iterator();
+        Iterator<Integer> it2 = source.iterator();
+
+        Assert.assertEquals(1, it2.next().intValue());
+
+        ((Closeable)it2).close();
+
+        Assert.assertFalse(it2.hasNext());
+
+        for (int i = 1; i <= 5; i++) {
+            Assert.assertEquals(i, it1.next().intValue());
+        }
+        Assert.assertFalse(it1.hasNext());
+    }
+
+    @Test
+    public void firstThenIterate() throws InterruptedException {
+        Ix<Integer> source = Ix.range(1, 100).broadcast(4);
+
+        Assert.assertEquals(1, source.first().intValue());
+
+        IxBroadcast<Integer> parent = (IxBroadcast<Integer>)source;
+        // the iterator() behind first() is only released by the garbage collector
+        for (int i = 0; i < 100; i++) {
+            System.gc();
+            parent.slowest();
+            if (parent.consumers.isEmpty()) {
+                break;
+            }
+            Thread.sleep(10);
+        }
+
+        Assert.assertEquals(99, source.count().first().intValue());
+    }
+
+    @Test
+    public void lateConsumerStartsAtSlowest() {
+        Ix<Integer> source = Ix.range(1, 5).broadcast(3);
+
+        Iterator<Integer> it1 = source.iterator();
+        Iterator<Integer> it2 = source.iterator();
+
+        it1.next();
+        it1.next();
+        it1.next();
+        it2.next();
+
+        Iterator<Integer> it3 = source.iterator();
+
+        Assert.assertEquals(2, it3.next().intValue());
+        Assert.assertEquals(3, it3.next().intValue());
+    }
+
+    @Test
+    public void lateConsumerAfterFinish() {
+        Ix<Integer> source = Ix.range(1, 5).broadcast(2);
+
+        IxTestHelper.assertValues(source, 1, 2, 3, 4, 5);
+
+        Assert.assertFalse(source.iterator().hasNext());
+    }
+
+    @Test
+    public void endReachedWhileOthersLag() {
+        Ix<Integer> source = Ix.range(1, 2).broadcast(2);
+
+        Iterator<Integer> it1 = source.iterator();
+        Iterator<Integer> it2 = source.iterator();
+
+        Assert.assertEquals(1, it1.next().intValue());
+        Assert.assertEquals(2, it1.next().intValue());
+        Assert.assertFalse(it1.hasNext());
+
+        Assert.assertEquals(1, it2.next().intValue());
+        Assert.assertEquals(2, it2.next().intValue());
+        Assert.assertFalse(it2.hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveBufferSize() {
+        Ix.range(1, 5).broadcast(0);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.*;
+
+public class ConcatMapEagerTest {
+
+    static final IxFunction<Integer, Iterable<Integer>> RANGE = new IxFunction<Integer, Iterable<Integer>>() {
+        @Override
+        public Iterable<Integer> apply(Integer v) {
+            return Ix.range(v * 10, 3);
+        }
+    };
+
+    @Test
+    public void normal() {
+        Ix<Integer> source = Ix.range(1, 3).concatMapEager(RANGE, 2);
+
+        IxTestHelper.assertValues(source, 10, 11, 12, 20, 21, 22, 30, 31, 32);
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void noPrefetch() {
+        IxTestHelper.assertValues(Ix.range(1, 3).concatMapEager(RANGE, 0), 10, 11, 12, 20, 21, 22, 30, 31, 32);
+    }
+
+    @Test
+    public void empty() {
+        IxTestHelper.assertValues(Ix.<Integer>empty().concatMapEager(RANGE, 2));
+    }
+
+    @Test
+    public void emptyInners() {
+        IxTestHelper.assertValues(Ix.range(1, 5).concatMapEager(new IxFunction<Integer, Iterable<Integer>>() {
+            @Override
+            public Iterable<Integer> apply(Integer v) {
+                return v % 2 == 0 ? Ix.just(v) : Ix.<Integer>empty();
+            }
+        }, 2), 2, 4);
+    }
+
+    @Test
+    public void long1() {
+        List<Integer> list = Ix.range(0, 100).concatMapEager(new IxFunction<Integer, Iterable<Integer>>() {
+            @Override
+            public Iterable<Integer> apply(Integer v) {
+                return Ix.range(v * 1000, 1000);
+            }
+        }, 4).toList();
+
+        Assert.assertEquals(IxTestHelper.range(0, 100000), list);
+    }
+
+    @Test(timeout = 5000)
+    public void opensAhead() throws Exception {
+        final CountDownLatch opened = new CountDownLatch(3);
+        Iterator<Integer> it = Ix.range(1, 3).concatMapEager(new IxFunction<Integer, Iterable<Integer>>() {
+            @Override
+            public Iterable<Integer> apply(final Integer v) {
+                return new Iterable<Integer>() {
+                    @Override
+                    public Iterator<Integer> iterator() {
+                        opened.countDown();
+                        return Ix.just(v).iterator();
+                    }
+                };
+            }
+        }, 2).iterator();
+
+        Assert.assertEquals(1, it.next().intValue());
+
+        opened.await();
+    }
+
+    @Test
+    public void executor() {
+        ExecutorService exec = Executors.newFixedThreadPool(3);
+        try {
+            IxTestHelper.assertValues(Ix.range(1, 3).concatMapEager(RANGE, 2, exec), 10, 11, 12, 20, 21, 22, 30, 31, 32);
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void innerError() {
+        Iterator<Integer> it = Ix.range(1, 3).concatMapEager(new IxFunction<Integer, Iterable<Integer>>() {
+            @Override
+            public Iterable<Integer> apply(Integer v) {
+                if (v == 2) {
+                    return new Iterable<Integer>() {
+                        @Override
+                        public Iterator<Integer> iterator() {
+                            throw new IllegalStateException("Forced failure");
+                        }
+                    };
+                }
+                return Ix.just(v);
+            }
+        }, 2).iterator();
+
+        Assert.assertEquals(1, it.next().intValue());
+        try {
+            it.hasNext();
+            Assert.fail("Should have thrown");
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals("Forced failure", ex.getMessage());
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void close() throws Exception {
+        final AtomicInteger produced = new AtomicInteger();
+        Iterator<Integer> it = Ix.range(1, 3).concatMapEager(new IxFunction<Integer, Iterable<Integer>>() {
+            @Override
+            public Iterable<Integer> apply(Integer v) {
+                return Ix.range(1, Integer.MAX_VALUE - 1).doOnNext(new IxConsumer<Integer>() {
+                    @Override
+                    public void accept(Integer v) {
+                        produced.incrementAndGet();
+                    }
+                });
+            }
+        }, 2).iterator();
+
+        Assert.assertEquals(1, it.next().intValue());
+
+        ((Closeable)it).close();
+
+        Assert.assertFalse(it.hasNext());
+
+        Thread.sleep(300);
+        int p = produced.get();
+        Thread.sleep(300);
+
+        Assert.assertEquals(p, produced.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void prefetchSourcesNegative() {
+        Ix.range(1, 5).concatMapEager(RANGE, -1);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+
+import org.junit.*;
+
+public class DelimitedRecordsTest {
+
+    static List<List<String>> fields(Ix<DelimitedRecord> source) {
+        List<List<String>> list = new ArrayList<List<String>>();
+        for (DelimitedRecord r : source) {
+            list.add(Arrays.asList(r.toArray()));
+        }
+        return list;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void normal() {
+        Ix<DelimitedRecord> source = Ix.delimitedRecords(Arrays.asList("a,b,c", "d,,f", ""), ',', '"');
+
+        Assert.assertEquals(Arrays.asList(
+                Arrays.asList("a", "b", "c"),
+                Arrays.asList("d", "", "f"),
+                Arrays.asList("")
+        ), fields(source));
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void reusesRecord() {
+        List<DelimitedRecord> list = Ix.delimitedRecords(Arrays.asList("a", "b"), ',').toList();
+
+        Assert.assertSame(list.get(0), list.get(1));
+    }
+
+    @Test
+    public void quoted() {
+        DelimitedRecord r = Ix.delimitedRecords(Arrays.asList("\"a,b\",\"say \"\"hi\"\"\",c,\"\""), ',', '"').first();
+
+        Assert.assertEquals(4, r.size());
+        Assert.assertEquals("a,b", r.get(0).toString());
+        Assert.assertEquals("say \"hi\"", r.get(1).toString());
+        Assert.assertEquals("c", r.getString(2));
+        Assert.assertEquals("", r.getString(3));
+    }
+
+    @Test
+    public void noQuoting() {
+        DelimitedRecord r = Ix.delimitedRecords(Arrays.asList("\"a\tb\"\tc"), '\t').first();
+
+        Assert.assertEquals(Arrays.asList("\"a", "b\"", "c"), Arrays.asList(r.toArray()));
+    }
+
+    @Test
+    public void views() {
+        DelimitedRecord r = Ix.delimitedRecords(Arrays.asList("abc,defg"), ',', '"').first();
+
+        CharSequence cs = r.get(1);
+        Assert.assertFalse(cs instanceof String);
+        Assert.assertEquals("defg", cs.toString());
+        Assert.assertEquals("abc,defg", r.line().toString());
+    }
+
+    @Test
+    public void numbers() {
+        DelimitedRecord r = Ix.delimitedRecords(Arrays.asList("42,-7,9223372036854775807,-9223372036854775808,3.25,-0.1,1e3,+5"), ',').first();
+
+        Assert.assertEquals(42, r.getInt(0));
+        Assert.assertEquals(-7, r.getInt(1));
+        Assert.assertEquals(Long.MAX_VALUE, r.getLong(2));
+        Assert.assertEquals(Long.MIN_VALUE, r.getLong(3));
+        Assert.assertEquals(3.25, r.getDouble(4), 0.0);
+        Assert.assertEquals(-0.1, r.getDouble(5), 0.0);
+        Assert.assertEquals(1000.0, r.getDouble(6), 0.0);
+        Assert.assertEquals(5, r.getInt(7));
+        Assert.assertEquals(5.0, r.getDouble(7), 0.0);
+    }
+
+    @Test
+    public void doublesMatchParseDouble() {
+        String[] values = { "0.1", "0.3", "123.456", "1.7976931348623157", "0.000001", "99999999999999.9", "12345678901234567890.5", ".5", "5." };
+        StringBuilder sb = new StringBuilder();
+        for (String v : values) {
+            if (sb.length() != 0) {
+                sb.append(',');
+            }
+            sb.append(v);
+        }
+        DelimitedRecord r = Ix.delimitedRecords(Arrays.asList(sb.toString()), ',').first();
+        for (int i = 0; i < values.length; i++) {
+            Assert.assertEquals(values[i], Double.parseDouble(values[i]), r.getDouble(i), 0.0);
+        }
+    }
+
+    @Test
+    public void invalidNumbers() {
+        DelimitedRecord r = Ix.delimitedRecords(Arrays.asList("x,,9223372036854775808,-,3000000000"), ',').first();
+
+        for (int i = 0; i < 4; i++) {
+            try {
+                r.getLong(i);
+                Assert.fail("Should have thrown for column " + i);
+            } catch (NumberFormatException ex) {
+                // expected
+            }
+        }
+        try {
+            r.getInt(4);
+            Assert.fail("Should have thrown");
+        } catch (NumberFormatException ex) {
+            // expected
+        }
+        try {
+            r.getDouble(3);
+            Assert.fail("Should have thrown");
+        } catch (NumberFormatException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void projection() {
+        Ix<DelimitedRecord> source = Ix.delimitedRecords(Arrays.asList("a,b,c,d,e", "f,g"), ',', '"', 3, 1);
+
+        Iterator<DelimitedRecord> it = source.iterator();
+        DelimitedRecord r = it.next();
+
+        Assert.assertEquals(2, r.size());
+        Assert.assertEquals("d", r.getString(0));
+        Assert.assertEquals("b", r.getString(1));
+
+        r = it.next();
+        Assert.assertFalse(r.has(0));
+        Assert.assertTrue(r.has(1));
+        Assert.assertEquals(Arrays.asList(null, "g"), Arrays.asList(r.toArray()));
+    }
+
+    @Test
+    public void projectionStopsEarly() {
+        DelimitedRecord r = Ix.delimitedRecords(Arrays.asList("a,b,c,d,e"), ',', '"', 1).first();
+
+        Assert.assertEquals(2, r.count);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void missingColumn() {
+        Ix.delimitedRecords(Arrays.asList("a,b"), ',').first().get(2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyProjection() {
+        Ix.delimitedRecords(Arrays.asList("a,b"), ',', '"', new int[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeProjection() {
+        Ix.delimitedRecords(Arrays.asList("a,b"), ',', '"', -1);
+    }
+
+    @Test
+    public void manyColumns() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            if (i != 0) {
+                sb.append(';');
+            }
+            sb.append(i);
+        }
+        DelimitedRecord r = Ix.delimitedRecords(Arrays.asList(sb.toString()), ';').first();
+
+        Assert.assertEquals(40, r.size());
+        Assert.assertEquals(39, r.getInt(39));
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+public class GzipTest {
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    File file;
+
+    @Before
+    public void before() throws IOException {
+        file = folder.newFile("ixgzip.gz");
+    }
+
+    void write(byte[] content) throws IOException {
+        OutputStream out = new GZIPOutputStream(new FileOutputStream(file));
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+    }
+
+    static List<String> strings(Ix<CharSequence> source) {
+        List<String> list = new ArrayList<String>();
+        for (CharSequence cs : source) {
+            list.add(cs.toString());
+        }
+        return list;
+    }
+
+    static byte[] concat(Ix<byte[]> source) {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        for (byte[] b : source) {
+            bout.write(b, 0, b.length);
+        }
+        return bout.toByteArray();
+    }
+
+    @Test
+    public void lines() throws IOException {
+        write("abc\ndef\r\n\nghi árvíz".getBytes("UTF-8"));
+
+        Ix<CharSequence> source = Ix.linesGzip(file);
+
+        Assert.assertEquals(Arrays.asList("abc", "def", "", "ghi árvíz"), strings(source));
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void linesCharset() throws IOException {
+        write("abc\ndef".getBytes("UTF-16"));
+
+        Assert.assertEquals(Arrays.asList("abc", "def"), strings(Ix.linesGzip(file, Charset.forName("UTF-16"))));
+    }
+
+    @Test
+    public void linesMany() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 200000; i++) {
+            String s = "line " + i;
+            expected.add(s);
+            sb.append(s).append('\n');
+        }
+        write(sb.toString().getBytes("UTF-8"));
+
+        Assert.assertEquals(expected, strings(Ix.linesGzip(file)));
+    }
+
+    @Test
+    public void linesEmpty() throws IOException {
+        write(new byte[0]);
+
+        Assert.assertEquals(Collections.emptyList(), strings(Ix.linesGzip(file)));
+    }
+
+    @Test
+    public void bytes() throws IOException {
+        byte[] content = new byte[100000];
+        new Random(1).nextBytes(content);
+        write(content);
+
+        List<byte[]> blocks = Ix.bytesInflated(file, 30000, 2).toList();
+
+        Assert.assertEquals(4, blocks.size());
+        Assert.assertEquals(30000, blocks.get(0).length);
+        Assert.assertEquals(10000, blocks.get(3).length);
+        Assert.assertArrayEquals(content, concat(Ix.from(blocks)));
+
+        Assert.assertArrayEquals(content, concat(Ix.bytesInflated(file)));
+    }
+
+    @Test
+    public void bytesEmpty() throws IOException {
+        write(new byte[0]);
+
+        Assert.assertEquals(0, Ix.bytesInflated(file).count().first().intValue());
+    }
+
+    @Test
+    public void notGzip() throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write("plain text".getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+
+        try {
+            Ix.bytesInflated(file).toList();
+            Assert.fail("Should have thrown");
+        } catch (RuntimeException ex) {
+            Assert.assertTrue(ex.toString(), ex.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void missingFile() {
+        file.delete();
+
+        try {
+            Ix.linesGzip(file).first();
+            Assert.fail("Should have thrown");
+        } catch (RuntimeException ex) {
+            Assert.assertTrue(ex.toString(), ex.getCause() instanceof FileNotFoundException);
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void close() throws Exception {
+        byte[] content = new byte[1 << 20];
+        write(content);
+
+        Iterator<byte[]> it = Ix.bytesInflated(file, 1024, 2).iterator();
+
+        Assert.assertEquals(1024, it.next().length);
+
+        ((Closeable)it).close();
+
+        Assert.assertFalse(it.hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void blockSizeNonPositive() {
+        Ix.bytesInflated(file, 0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void prefetchNonPositive() {
+        Ix.bytesInflated(file, 1, 0);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+
+import org.junit.Test;
+
+public class HashJoinTest {
+
+    static final IxFunction<Integer, Integer> MOD3 = new IxFunction<Integer, Integer>() {
+        @Override
+        public Integer apply(Integer v) {
+            return v % 3;
+        }
+    };
+
+    static final IxFunction<String, Integer> LENGTH = new IxFunction<String, Integer>() {
+        @Override
+        public Integer apply(String v) {
+            return v.length();
+        }
+    };
+
+    static final IxFunction2<Integer, String, String> PAIR = new IxFunction2<Integer, String, String>() {
+        @Override
+        public String apply(Integer t, String u) {
+            return t + ":" + u;
+        }
+    };
+
+    static Ix<String> words() {
+        return Ix.fromArray("a", "bb", "c", "dddd");
+    }
+
+    @Test
+    public void inner() {
+        Ix<String> source = Ix.range(1, 5).join(words(), MOD3, LENGTH, PAIR);
+
+        IxTestHelper.assertValues(source, "1:a", "1:c", "2:bb", "4:a", "4:c", "5:bb");
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void innerHashThis() {
+        Ix<String> source = Ix.range(1, 5).join(words(), MOD3, LENGTH, PAIR, true);
+
+        IxTestHelper.assertValues(source, "1:a", "4:a", "2:bb", "5:bb", "1:c", "4:c");
+    }
+
+    @Test
+    public void innerAutoHashesSmallerThis() {
+        Ix<String> source = Ix.range(1, 2).join(Arrays.asList("a", "bb", "c", "dddd", "e"), MOD3, LENGTH, PAIR);
+
+        IxTestHelper.assertValues(source, "1:a", "2:bb", "1:c", "1:e");
+    }
+
+    @Test
+    public void left() {
+        Ix<String> source = Ix.range(1, 5).leftJoin(words(), MOD3, LENGTH, PAIR);
+
+        IxTestHelper.assertValues(source, "1:a", "1:c", "2:bb", "3:null", "4:a", "4:c", "5:bb");
+    }
+
+    @Test
+    public void leftHashThis() {
+        Ix<String> source = Ix.range(1, 5).leftJoin(words(), MOD3, LENGTH, PAIR, true);
+
+        IxTestHelper.assertValues(source, "1:a", "4:a", "2:bb", "5:bb", "1:c", "4:c", "3:null");
+    }
+
+    @Test
+    public void outer() {
+        Ix<String> source = Ix.range(1, 5).outerJoin(words(), MOD3, LENGTH, PAIR);
+
+        IxTestHelper.assertValues(source, "1:a", "1:c", "2:bb", "3:null", "4:a", "4:c", "5:bb", "null:dddd");
+    }
+
+    @Test
+    public void outerHashThis() {
+        Ix<String> source = Ix.range(1, 5).outerJoin(words(), MOD3, LENGTH, PAIR, true);
+
+        IxTestHelper.assertValues(source, "1:a", "4:a", "2:bb", "5:bb", "1:c", "4:c", "null:dddd", "3:null");
+    }
+
+    @Test
+    public void emptyOther() {
+        IxTestHelper.assertValues(Ix.range(1, 5).join(Ix.<String>empty(), MOD3, LENGTH, PAIR));
+
+        IxTestHelper.assertValues(Ix.range(1, 2).leftJoin(Ix.<String>empty(), MOD3, LENGTH, PAIR), "1:null", "2:null");
+    }
+
+    @Test
+    public void emptyThis() {
+        IxTestHelper.assertValues(Ix.<Integer>empty().join(words(), MOD3, LENGTH, PAIR));
+
+        IxTestHelper.assertValues(Ix.<Integer>empty().outerJoin(Ix.fromArray("a", "bb"), MOD3, LENGTH, PAIR),
+                "null:a", "null:bb");
+    }
+
+    @Test
+    public void nullElements() {
+        IxFunction<String, Integer> key = new IxFunction<String, Integer>() {
+            @Override
+            public Integer apply(String v) {
+                return v == null ? 0 : v.length();
+            }
+        };
+
+        Ix<String> source = Ix.range(0, 2).join(Ix.fromArray(null, "a", null), MOD3, key, PAIR, false);
+
+        IxTestHelper.assertValues(source, "0:null", "0:null", "1:a");
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void otherNull() {
+        Ix.range(1, 5).join(null, MOD3, LENGTH, PAIR);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void combinerNull() {
+        Ix.range(1, 5).join(words(), MOD3, LENGTH, null);
+    }
+}
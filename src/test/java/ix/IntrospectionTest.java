@@ -0,0 +1,73 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+
+import org.junit.*;
+
+public class IntrospectionTest {
+
+    @Test
+    public void indexedView() {
+        List<Integer> list = IxIntrospection.indexedView(Ix.range(1, 10).skip(2).take(5));
+
+        Assert.assertTrue(list instanceof RandomAccess);
+        Assert.assertEquals(Arrays.asList(3, 4, 5, 6, 7), list);
+        Assert.assertEquals(5, list.get(2).intValue());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void indexedViewOutOfBounds() {
+        IxIntrospection.indexedView(Ix.range(1, 10).take(5)).get(5);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void indexedViewReadOnly() {
+        IxIntrospection.indexedView(Ix.range(1, 10)).set(0, 5);
+    }
+
+    @Test
+    public void notIndexed() {
+        Assert.assertNull(IxIntrospection.indexedView(Ix.range(1, 10).filter(new IxPredicate<Integer>() {
+            @Override
+            public boolean test(Integer v) {
+                return v % 2 == 0;
+            }
+        })));
+    }
+
+    @Test
+    public void collection() {
+        Set<Integer> set = new HashSet<Integer>(Arrays.asList(1, 2, 3));
+
+        Assert.assertSame(set, IxIntrospection.collection(Ix.from(set)));
+        Assert.assertSame(set, IxIntrospection.collection(set));
+        Assert.assertNull(IxIntrospection.collection(Ix.range(1, 5)));
+    }
+
+    @Test
+    public void knownSize() {
+        Assert.assertEquals(3, IxIntrospection.knownSize(Ix.fromArray(1, 2, 3)));
+        Assert.assertEquals(-1, IxIntrospection.knownSize(Ix.range(1, 5).concatWith(Ix.just(6))));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void nullSource() {
+        IxIntrospection.indexedView(null);
+    }
+}
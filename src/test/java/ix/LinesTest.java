@@ -0,0 +1,192 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.*;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+public class LinesTest {
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    File file;
+
+    @Before
+    public void before() throws IOException {
+        file = folder.newFile("ixlines.txt");
+    }
+
+    void write(String content, Charset charset) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes(charset.name()));
+        } finally {
+            out.close();
+        }
+    }
+
+    static List<String> strings(Ix<CharSequence> source) {
+        List<String> list = new ArrayList<String>();
+        for (CharSequence cs : source) {
+            list.add(cs.toString());
+        }
+        return list;
+    }
+
+    @Test
+    public void normal() throws IOException {
+        write("abc\ndef\r\n\nghi", UTF_8);
+
+        Ix<CharSequence> source = Ix.lines(file, UTF_8);
+
+        Assert.assertEquals(Arrays.asList("abc", "def", "", "ghi"), strings(source));
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void trailingLineBreak() throws IOException {
+        write("abc\ndef\n", UTF_8);
+
+        Assert.assertEquals(Arrays.asList("abc", "def"), strings(Ix.lines(file, UTF_8)));
+    }
+
+    @Test
+    public void empty() throws IOException {
+        write("", UTF_8);
+
+        Assert.assertEquals(Collections.emptyList(), strings(Ix.lines(file, UTF_8)));
+    }
+
+    @Test
+    public void views() throws IOException {
+        write("hello world\n", UTF_8);
+
+        CharSequence cs = Ix.lines(file, UTF_8).first();
+
+        Assert.assertEquals(11, cs.length());
+        Assert.assertEquals('w', cs.charAt(6));
+        Assert.assertEquals("world", cs.subSequence(6, 11).toString());
+        Assert.assertFalse(cs instanceof String);
+    }
+
+    @Test
+    public void utf8NonAscii() throws IOException {
+        write("árvíztűrő\nplain", UTF_8);
+
+        List<CharSequence> list = Ix.lines(file, UTF_8).toList();
+
+        Assert.assertEquals(9, list.get(0).length());
+        Assert.assertEquals('ű', list.get(0).charAt(6));
+        Assert.assertEquals("árvíztűrő", list.get(0).toString());
+        Assert.assertEquals("plain", list.get(1).toString());
+    }
+
+    @Test
+    public void equalLines() throws IOException {
+        write("a\nb\na\nárvíz\nárvíz\n", UTF_8);
+
+        List<CharSequence> list = Ix.lines(file, UTF_8).toList();
+
+        Assert.assertEquals(list.get(0), list.get(2));
+        Assert.assertEquals(list.get(3), list.get(4));
+        Assert.assertFalse(list.get(0).equals(list.get(1)));
+        Assert.assertEquals("a".hashCode(), list.get(0).hashCode());
+        Assert.assertEquals("árvíz".hashCode(), list.get(3).hashCode());
+
+        Assert.assertEquals(3, Ix.lines(file, UTF_8).distinct().count().first().intValue());
+
+        write("a\nb\na\n", Charset.forName("ISO-8859-2"));
+
+        Assert.assertEquals(2, Ix.lines(file, Charset.forName("ISO-8859-2")).distinct().count().first().intValue());
+    }
+
+    @Test
+    public void latin1() throws IOException {
+        Charset latin1 = Charset.forName("ISO-8859-1");
+        write("áb\nc", latin1);
+
+        Assert.assertEquals(Arrays.asList("áb", "c"), strings(Ix.lines(file, latin1)));
+    }
+
+    @Test
+    public void utf16() throws IOException {
+        Charset utf16 = Charset.forName("UTF-16");
+        write("ab\ncd", utf16);
+
+        Assert.assertEquals(Arrays.asList("ab", "cd"), strings(Ix.lines(file, utf16)));
+    }
+
+    @Test
+    public void many() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            sb.append(i).append('\n');
+        }
+        write(sb.toString(), UTF_8);
+
+        List<String> list = strings(Ix.lines(file, UTF_8));
+
+        Assert.assertEquals(10000, list.size());
+        Assert.assertEquals("9999", list.get(9999));
+    }
+
+    @Test
+    public void lineAcrossWindows() throws IOException {
+        write("abc\ndefgh\nij", UTF_8);
+
+        IxLines.MappedLinesIterator it = new IxLines.MappedLinesIterator(file, true);
+        it.fileSize = file.length();
+        it.remap(0L, 6);
+
+        List<String> list = new ArrayList<String>();
+        while (it.hasNext()) {
+            list.add(it.next().toString());
+        }
+
+        Assert.assertEquals(Arrays.asList("abc", "defgh", "ij"), list);
+    }
+
+    @Test
+    public void lineLongerThanWindow() throws IOException {
+        write("abcdefghij\nk", UTF_8);
+
+        IxLines.MappedLinesIterator it = new IxLines.MappedLinesIterator(file, true);
+        it.fileSize = file.length();
+        it.remap(0L, 2);
+
+        List<String> list = new ArrayList<String>();
+        while (it.hasNext()) {
+            list.add(it.next().toString());
+        }
+
+        Assert.assertEquals(Arrays.asList("abcdefghij", "k"), list);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void missingFile() {
+        file.delete();
+        Ix.lines(file, UTF_8).first();
+    }
+}
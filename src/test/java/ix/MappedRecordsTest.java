@@ -0,0 +1,237 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedRecordsTest {
+
+    static final class Event extends RecordView {
+        long timestamp() {
+            return getLong(0);
+        }
+
+        int type() {
+            return getInt(8);
+        }
+
+        void typeBytes(byte[] dest) {
+            getBytes(8, dest, 0, 4);
+        }
+    }
+
+    static final IxSupplier<Event> EVENT = new IxSupplier<Event>() {
+        @Override
+        public Event get() {
+            return new Event();
+        }
+    };
+
+    static final IxFunction<Event, Long> TIMESTAMP = new IxFunction<Event, Long>() {
+        @Override
+        public Long apply(Event v) {
+            return v.timestamp();
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    File file;
+
+    @Before
+    public void before() throws IOException {
+        file = folder.newFile("ixrecords.bin");
+    }
+
+    void write(int count, ByteOrder order, int extraBytes) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(count * 12 + extraBytes).order(order);
+        for (int i = 0; i < count; i++) {
+            b.putLong(i * 1000L);
+            b.putInt(i % 3);
+        }
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(b.array());
+        } finally {
+            out.close();
+        }
+    }
+
+    @Test
+    public void normal() throws IOException {
+        write(5, ByteOrder.BIG_ENDIAN, 0);
+
+        Ix<Event> source = Ix.mappedRecords(file, 12, EVENT);
+
+        IxTestHelper.assertValues(source.map(TIMESTAMP), 0L, 1000L, 2000L, 3000L, 4000L);
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void flyweight() throws IOException {
+        write(3, ByteOrder.BIG_ENDIAN, 0);
+
+        Iterator<Event> it = Ix.mappedRecords(file, 12, EVENT).iterator();
+
+        Event e = it.next();
+        Assert.assertEquals(0L, e.index());
+        Assert.assertSame(e, it.next());
+        Assert.assertEquals(1L, e.index());
+        Assert.assertEquals(1000L, e.timestamp());
+        Assert.assertEquals(1, e.type());
+    }
+
+    @Test
+    public void littleEndian() throws IOException {
+        write(2, ByteOrder.LITTLE_ENDIAN, 0);
+
+        Assert.assertEquals(Arrays.asList(0L, 1000L),
+                Ix.mappedRecords(file, 12, ByteOrder.LITTLE_ENDIAN, EVENT).map(TIMESTAMP).toList());
+    }
+
+    @Test
+    public void partialRecordIgnored() throws IOException {
+        write(3, ByteOrder.BIG_ENDIAN, 5);
+
+        Assert.assertEquals(3, Ix.mappedRecords(file, 12, EVENT).count().first().intValue());
+    }
+
+    @Test
+    public void empty() throws IOException {
+        write(0, ByteOrder.BIG_ENDIAN, 0);
+
+        IxTestHelper.assertValues(Ix.mappedRecords(file, 12, EVENT).map(TIMESTAMP));
+    }
+
+    @Test
+    public void countSkipTake() throws IOException {
+        write(100, ByteOrder.BIG_ENDIAN, 0);
+
+        Ix<Event> source = Ix.mappedRecords(file, 12, EVENT);
+
+        Assert.assertEquals(100, source.count().first().intValue());
+        Assert.assertEquals(100L, source.countLong().first().longValue());
+        Assert.assertEquals(40, source.skip(50).take(40).count().first().intValue());
+        Assert.assertEquals(0, source.skip(200).count().first().intValue());
+
+        Assert.assertTrue(source.skip(10).iterator() instanceof IxMappedRecords.MappedRecordsIterator);
+        Assert.assertTrue(source.take(10).iterator() instanceof IxMappedRecords.MappedRecordsIterator);
+
+        IxTestHelper.assertValues(source.skip(97).map(TIMESTAMP), 97000L, 98000L, 99000L);
+        IxTestHelper.assertValues(source.take(2).map(TIMESTAMP), 0L, 1000L);
+    }
+
+    @Test
+    public void indexed() throws IOException {
+        write(10, ByteOrder.BIG_ENDIAN, 0);
+
+        IxIndexed<Event> source = ((IxMappedRecords<Event>)Ix.mappedRecords(file, 12, EVENT)).indexed();
+
+        Assert.assertEquals(10, source.size());
+        Event e5 = source.get(5);
+        Event e7 = source.get(7);
+        Assert.assertNotSame(e5, e7);
+        Assert.assertEquals(5000L, e5.timestamp());
+        Assert.assertEquals(7000L, e7.timestamp());
+    }
+
+    @Test
+    public void moreRecordsThanInt() throws IOException {
+        // a sparse file with single-byte records
+        long n = Integer.MAX_VALUE + 10L;
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(n);
+        } finally {
+            raf.close();
+        }
+
+        Ix<Byte> source = Ix.mappedRecords(file, 1, new IxSupplier<ByteView>() {
+            @Override
+            public ByteView get() {
+                return new ByteView();
+            }
+        }).map(new IxFunction<ByteView, Byte>() {
+            @Override
+            public Byte apply(ByteView v) {
+                return v.value();
+            }
+        });
+
+        Assert.assertNull(((IxMappedRecords<?>)Ix.mappedRecords(file, 1, EVENT)).indexed());
+        Assert.assertEquals(-1, SizeHelper.exactSize(Ix.mappedRecords(file, 1, EVENT)));
+
+        IxTestHelper.assertValues(source.take(2), (byte)0, (byte)0);
+    }
+
+    @Test
+    public void getBytesAcrossWindows() throws IOException {
+        write(10, ByteOrder.BIG_ENDIAN, 0);
+
+        final byte[] bytes = new byte[4];
+        Ix<Integer> source = new IxMappedRecords<Event>(file, 12, ByteOrder.BIG_ENDIAN, EVENT, 40)
+                .map(new IxFunction<Event, Integer>() {
+            @Override
+            public Integer apply(Event v) {
+                v.typeBytes(bytes);
+                return (int)bytes[3];
+            }
+        });
+
+        IxTestHelper.assertValues(source, 0, 1, 2, 0, 1, 2, 0, 1, 2, 0);
+    }
+
+    static final class ByteView extends RecordView {
+        byte value() {
+            return getByte(0);
+        }
+    }
+
+    @Test
+    public void multipleWindows() throws IOException {
+        write(10, ByteOrder.BIG_ENDIAN, 0);
+
+        // 3 records per window
+        Ix<Event> source = new IxMappedRecords<Event>(file, 12, ByteOrder.BIG_ENDIAN, EVENT, 40);
+
+        Assert.assertEquals(IxTestHelper.range(0, 10), source.map(new IxFunction<Event, Integer>() {
+            @Override
+            public Integer apply(Event v) {
+                return (int)(v.timestamp() / 1000);
+            }
+        }).toList());
+        IxTestHelper.assertValues(source.skip(8).map(TIMESTAMP), 8000L, 9000L);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void missingFile() {
+        file.delete();
+        Ix.mappedRecords(file, 12, EVENT).first();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void recordSizeNonPositive() {
+        Ix.mappedRecords(file, 0, EVENT);
+    }
+}
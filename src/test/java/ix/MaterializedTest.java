@@ -0,0 +1,226 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+public class MaterializedTest {
+
+    static final class StringCodec implements IxCodec<String> {
+
+        final AtomicInteger decoded = new AtomicInteger();
+
+        @Override
+        public void encode(String value, DataOutput output) throws IOException {
+            output.writeUTF(value);
+        }
+
+        @Override
+        public String decode(DataInput input) throws IOException {
+            decoded.incrementAndGet();
+            return input.readUTF();
+        }
+    }
+
+    static final IxCodec<Integer> INT_CODEC = new IxCodec<Integer>() {
+        @Override
+        public void encode(Integer value, DataOutput output) throws IOException {
+            output.writeInt(value);
+        }
+
+        @Override
+        public Integer decode(DataInput input) throws IOException {
+            return input.readInt();
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    File file;
+
+    @Before
+    public void before() throws IOException {
+        file = folder.newFile("ixmaterialized.bin");
+    }
+
+    @Test
+    public void normal() {
+        Ix.fromArray("abc", "", "árvíz", "def").materializeTo(file, new StringCodec());
+
+        Ix<String> source = Ix.fromMaterialized(file, new StringCodec());
+
+        IxTestHelper.assertValues(source, "abc", "", "árvíz", "def");
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void empty() {
+        Ix.<Integer>empty().materializeTo(file, INT_CODEC);
+
+        IxTestHelper.assertValues(Ix.fromMaterialized(file, INT_CODEC));
+    }
+
+    @Test
+    public void many() {
+        Ix.range(0, 100000).materializeTo(file, INT_CODEC);
+
+        Assert.assertEquals(IxTestHelper.range(0, 100000), Ix.fromMaterialized(file, INT_CODEC).toList());
+    }
+
+    @Test
+    public void countSkipTakeWithoutDecoding() {
+        Ix.range(0, 1000).map(new IxFunction<Integer, String>() {
+            @Override
+            public String apply(Integer t) {
+                return "item " + t;
+            }
+        }).materializeTo(file, new StringCodec());
+
+        StringCodec codec = new StringCodec();
+        Ix<String> source = Ix.fromMaterialized(file, codec);
+
+        Assert.assertEquals(1000, source.count().first().intValue());
+        Assert.assertEquals(0, codec.decoded.get());
+
+        IxTestHelper.assertValues(source.skip(500).take(2), "item 500", "item 501");
+        Assert.assertEquals(2, codec.decoded.get());
+    }
+
+    @Test
+    public void windows() {
+        final String big;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            sb.append('x');
+        }
+        big = sb.toString();
+
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(i % 10 == 0 ? big + i : "item " + i);
+        }
+        Ix.from(expected).materializeTo(file, new StringCodec());
+
+        // windows start every 64 bytes, the big elements need their own mapping
+        IxMaterialized<String> source = new IxMaterialized<String>(file, new StringCodec(), 64);
+
+        Assert.assertEquals(expected, source.toList());
+        Assert.assertEquals(expected.get(50), source.get(50));
+        Assert.assertEquals(expected.get(99), source.get(99));
+    }
+
+    @Test
+    public void replacesExisting() {
+        Ix.range(1, 5).materializeTo(file, INT_CODEC);
+        Ix.range(10, 2).materializeTo(file, INT_CODEC);
+
+        IxTestHelper.assertValues(Ix.fromMaterialized(file, INT_CODEC), 10, 11);
+    }
+
+    @Test
+    public void failureKeepsPrevious() {
+        Ix.range(1, 3).materializeTo(file, INT_CODEC);
+
+        try {
+            Ix.concat(Ix.range(1, 2), Ix.<Integer>generate(new IxConsumer<IxEmitter<Integer>>() {
+                @Override
+                public void accept(IxEmitter<Integer> t) {
+                    throw new IllegalStateException("Forced failure");
+                }
+            })).materializeTo(file, INT_CODEC);
+            Assert.fail("Should have thrown");
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals("Forced failure", ex.getMessage());
+        }
+
+        IxTestHelper.assertValues(Ix.fromMaterialized(file, INT_CODEC), 1, 2, 3);
+        Assert.assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void notMaterialized() throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[100]);
+        } finally {
+            out.close();
+        }
+
+        try {
+            Ix.fromMaterialized(file, INT_CODEC).first();
+            Assert.fail("Should have thrown");
+        } catch (RuntimeException ex) {
+            Assert.assertTrue(ex.toString(), ex.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void missingFile() {
+        file.delete();
+
+        try {
+            Ix.fromMaterialized(file, INT_CODEC).first();
+            Assert.fail("Should have thrown");
+        } catch (RuntimeException ex) {
+            Assert.assertTrue(ex.toString(), ex.getCause() instanceof FileNotFoundException);
+        }
+    }
+
+    @Test
+    public void dataInput() throws IOException {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bout);
+        out.writeBoolean(true);
+        out.writeByte(-1);
+        out.writeShort(-2);
+        out.writeChar('c');
+        out.writeLong(5L);
+        out.writeFloat(1.5f);
+        out.writeDouble(2.5);
+        out.writeBytes("line\r\nrest");
+
+        byte[] bytes = bout.toByteArray();
+        ByteBufferDataInput in = new ByteBufferDataInput().reset(java.nio.ByteBuffer.wrap(bytes), 0, bytes.length);
+
+        Assert.assertTrue(in.readBoolean());
+        Assert.assertEquals(255, in.readUnsignedByte());
+        Assert.assertEquals(0xFFFE, in.readUnsignedShort());
+        Assert.assertEquals('c', in.readChar());
+        Assert.assertEquals(5L, in.readLong());
+        Assert.assertEquals(1.5f, in.readFloat(), 0f);
+        Assert.assertEquals(2.5, in.readDouble(), 0.0);
+        Assert.assertEquals("line", in.readLine());
+        Assert.assertEquals(2, in.skipBytes(2));
+        byte[] b = new byte[2];
+        in.readFully(b);
+        Assert.assertEquals("st", new String(b, "US-ASCII"));
+        Assert.assertNull(in.readLine());
+        try {
+            in.readByte();
+            Assert.fail("Should have thrown");
+        } catch (EOFException ex) {
+            // expected
+        }
+    }
+}
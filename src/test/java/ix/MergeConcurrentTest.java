@@ -0,0 +1,264 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.*;
+
+public class MergeConcurrentTest {
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void normal() {
+        Ix<Integer> source = Ix.mergeConcurrent(Arrays.asList(Ix.range(1, 3), Ix.range(4, 3)), 2);
+
+        List<Integer> list = source.toList();
+        Collections.sort(list);
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6), list);
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void empty() {
+        IxTestHelper.assertValues(Ix.mergeConcurrent(Collections.<Iterable<Integer>>emptyList(), 2));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void nullElements() {
+        IxTestHelper.assertValues(Ix.mergeConcurrent(Arrays.asList(Ix.fromArray(1, null, 3)), 2), 1, null, 3);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void sourceOrderKept() {
+        List<Integer> list = Ix.mergeConcurrent(Arrays.asList(Ix.range(0, 50000), Ix.range(50000, 50000)), 2).toList();
+
+        Assert.assertEquals(100000, list.size());
+        int a = 0;
+        int b = 50000;
+        for (Integer v : list) {
+            if (v < 50000) {
+                Assert.assertEquals(a++, v.intValue());
+            } else {
+                Assert.assertEquals(b++, v.intValue());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test(timeout = 5000)
+    public void slowSourceDoesNotBlockOthers() {
+        final CountDownLatch fastDone = new CountDownLatch(1);
+        Iterable<Integer> slow = new Iterable<Integer>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                try {
+                    fastDone.await();
+                } catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+                return Ix.just(100).iterator();
+            }
+        };
+        Iterable<Integer> fast = Ix.range(1, 3).doOnCompleted(new Runnable() {
+            @Override
+            public void run() {
+                fastDone.countDown();
+            }
+        });
+
+        List<Integer> list = Ix.mergeConcurrent(Ix.fromArray(slow, fast), 2).toList();
+
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 100), list);
+    }
+
+    @Test
+    public void maxConcurrency() {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        Ix<Iterable<Integer>> sources = Ix.range(0, 10).map(new IxFunction<Integer, Iterable<Integer>>() {
+            @Override
+            public Iterable<Integer> apply(final Integer v) {
+                return new Iterable<Integer>() {
+                    @Override
+                    public Iterator<Integer> iterator() {
+                        int r = running.incrementAndGet();
+                        for (;;) {
+                            int m = maxRunning.get();
+                            if (r <= m || maxRunning.compareAndSet(m, r)) {
+                                break;
+                            }
+                        }
+                        try {
+                            Thread.sleep(10);
+                        } catch (InterruptedException ex) {
+                            throw new RuntimeException(ex);
+                        }
+                        running.decrementAndGet();
+                        return Ix.just(v).iterator();
+                    }
+                };
+            }
+        });
+
+        Assert.assertEquals(10, Ix.mergeConcurrent(sources, 3).count().first().intValue());
+        Assert.assertTrue("" + maxRunning.get(), maxRunning.get() <= 3);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void executor() {
+        ExecutorService exec = Executors.newFixedThreadPool(2);
+        try {
+            List<Integer> list = Ix.mergeConcurrent(Arrays.asList(Ix.range(1, 3), Ix.range(4, 3)), 2, exec).toList();
+            Collections.sort(list);
+            Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6), list);
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void error() {
+        Iterable<Integer> failing = new Iterable<Integer>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                throw new IllegalStateException("Forced failure");
+            }
+        };
+        try {
+            Ix.mergeConcurrent(Arrays.asList(Ix.range(1, 3), failing), 2).toList();
+            Assert.fail("Should have thrown");
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals("Forced failure", ex.getMessage());
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void close() throws Exception {
+        final AtomicInteger produced = new AtomicInteger();
+        Ix<Integer> infinite = Ix.range(1, Integer.MAX_VALUE - 1).doOnNext(new IxConsumer<Integer>() {
+            @Override
+            public void accept(Integer v) {
+                produced.incrementAndGet();
+            }
+        });
+        Iterator<Integer> it = Ix.mergeConcurrent(Ix.just(infinite), 2).iterator();
+
+        Assert.assertEquals(1, it.next().intValue());
+
+        ((Closeable)it).close();
+
+        Assert.assertFalse(it.hasNext());
+
+        Thread.sleep(300);
+        int p = produced.get();
+        Thread.sleep(300);
+
+        Assert.assertEquals(p, produced.get());
+    }
+
+    static final class CloseableSource implements Iterable<Integer> {
+
+        final CountDownLatch started = new CountDownLatch(1);
+
+        final CountDownLatch closed = new CountDownLatch(1);
+
+        final long delay;
+
+        CloseableSource(long delay) {
+            this.delay = delay;
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            return new CloseableIterator();
+        }
+
+        final class CloseableIterator implements Iterator<Integer>, Closeable {
+            @Override
+            public boolean hasNext() {
+                started.countDown();
+                if (delay > 0L) {
+                    try {
+                        Thread.sleep(delay);
+                    } catch (InterruptedException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                return 1;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void closeReleasesSource() throws Exception {
+        CloseableSource source = new CloseableSource(0L);
+
+        Iterator<Integer> it = Ix.mergeConcurrent(Ix.just(source), 2).iterator();
+
+        Assert.assertEquals(1, it.next().intValue());
+
+        ((Closeable)it).close();
+
+        Assert.assertTrue(source.closed.await(4, TimeUnit.SECONDS));
+    }
+
+    @Test(timeout = 5000)
+    public void closeInterruptsWaitingSource() throws Exception {
+        CloseableSource source = new CloseableSource(60000L);
+        List<Iterable<Integer>> sources = new ArrayList<Iterable<Integer>>();
+        sources.add(Ix.just(1));
+        sources.add(source);
+
+        Iterator<Integer> it = Ix.mergeConcurrent(sources, 2).iterator();
+
+        Assert.assertEquals(1, it.next().intValue());
+        Assert.assertTrue(source.started.await(4, TimeUnit.SECONDS));
+
+        ((Closeable)it).close();
+
+        Assert.assertTrue(source.closed.await(4, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxConcurrencyNonPositive() {
+        Ix.mergeConcurrent(Ix.<Iterable<Integer>>empty(), 0);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class MergeJoinTest {
+
+    static final IxFunction<Integer, Integer> DIV10 = new IxFunction<Integer, Integer>() {
+        @Override
+        public Integer apply(Integer v) {
+            return v / 10;
+        }
+    };
+
+    static final IxFunction<String, Integer> LENGTH = new IxFunction<String, Integer>() {
+        @Override
+        public Integer apply(String v) {
+            return v.length();
+        }
+    };
+
+    static final IxFunction2<Integer, String, String> PAIR = new IxFunction2<Integer, String, String>() {
+        @Override
+        public String apply(Integer t, String u) {
+            return t + ":" + u;
+        }
+    };
+
+    @Test
+    public void normal() {
+        Ix<String> source = Ix.fromArray(5, 10, 11, 30, 40, 41)
+                .mergeJoin(Ix.fromArray("a", "b", "cc", "ddd", "eeee"), DIV10, LENGTH, PAIR);
+
+        IxTestHelper.assertValues(source, "10:a", "10:b", "11:a", "11:b", "30:ddd", "40:eeee", "41:eeee");
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void otherExhaustedFirst() {
+        Ix<String> source = Ix.fromArray(10, 20, 30, 40)
+                .mergeJoin(Ix.fromArray("a", "bb"), DIV10, LENGTH, PAIR);
+
+        IxTestHelper.assertValues(source, "10:a", "20:bb");
+    }
+
+    @Test
+    public void unmatchedAfterRun() {
+        Ix<String> source = Ix.fromArray(10, 20, 30)
+                .mergeJoin(Ix.fromArray("a", "ccc"), DIV10, LENGTH, PAIR);
+
+        IxTestHelper.assertValues(source, "10:a", "30:ccc");
+    }
+
+    @Test
+    public void unmatchedAfterLongerRun() {
+        Ix<String> source = Ix.fromArray(10, 11, 20, 30)
+                .mergeJoin(Ix.fromArray("a", "b", "c", "ddd"), DIV10, LENGTH, PAIR);
+
+        IxTestHelper.assertValues(source, "10:a", "10:b", "10:c", "11:a", "11:b", "11:c", "30:ddd");
+    }
+
+    @Test
+    public void noMatch() {
+        Ix<String> source = Ix.fromArray(10, 30, 50)
+                .mergeJoin(Ix.fromArray("aa", "bbbb"), DIV10, LENGTH, PAIR);
+
+        IxTestHelper.assertValues(source);
+    }
+
+    @Test
+    public void empty() {
+        IxTestHelper.assertValues(Ix.<Integer>empty().mergeJoin(Ix.fromArray("a"), DIV10, LENGTH, PAIR));
+
+        IxTestHelper.assertValues(Ix.range(10, 5).mergeJoin(Ix.<String>empty(), DIV10, LENGTH, PAIR));
+    }
+
+    @Test
+    public void comparator() {
+        Ix<String> source = Ix.fromArray(41, 30, 11, 10)
+                .mergeJoin(Ix.fromArray("eeee", "ddd", "b", "a"), DIV10, LENGTH,
+                        Collections.<Integer>reverseOrder(), PAIR);
+
+        IxTestHelper.assertValues(source, "41:eeee", "30:ddd", "11:b", "11:a", "10:b", "10:a");
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void comparatorNull() {
+        Ix.range(1, 5).mergeJoin(Ix.fromArray("a"), DIV10, LENGTH, null, PAIR);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+public class ParallelGroupByTest {
+
+    static final IxFunction<Integer, Integer> MOD_10 = new IxFunction<Integer, Integer>() {
+        @Override
+        public Integer apply(Integer v) {
+            return v % 10;
+        }
+    };
+
+    static final IxSupplier<Long> ZERO = new IxSupplier<Long>() {
+        @Override
+        public Long get() {
+            return 0L;
+        }
+    };
+
+    static final IxFunction2<Long, Integer, Long> SUM = new IxFunction2<Long, Integer, Long>() {
+        @Override
+        public Long apply(Long a, Integer b) {
+            return a + b;
+        }
+    };
+
+    @Test
+    public void multimap() {
+        Ix<Map<Integer, Collection<Integer>>> source = Ix.range(0, 10000).parallel(3).collectToMultimap(MOD_10);
+
+        Map<Integer, Collection<Integer>> map = source.first();
+
+        Assert.assertEquals(Ix.range(0, 10000).toMultimap(MOD_10), map);
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void multimapValueSelector() {
+        Map<Integer, Collection<String>> map = Ix.range(0, 100).parallel(2).collectToMultimap(MOD_10, new IxFunction<Integer, String>() {
+            @Override
+            public String apply(Integer v) {
+                return "" + v;
+            }
+        }).first();
+
+        Assert.assertEquals(10, map.size());
+        Assert.assertEquals(Arrays.asList("3", "13", "23", "33", "43", "53", "63", "73", "83", "93"), map.get(3));
+    }
+
+    @Test
+    public void multimapEmpty() {
+        Assert.assertTrue(Ix.<Integer>empty().parallel(4).collectToMultimap(MOD_10).first().isEmpty());
+    }
+
+    @Test
+    public void nullKey() {
+        Map<Integer, Collection<Integer>> map = Ix.fromArray(1, 2, 3).parallel(2).collectToMultimap(new IxFunction<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) {
+                return v == 2 ? null : v;
+            }
+        }).first();
+
+        Assert.assertEquals(Arrays.asList(2), map.get(null));
+        Assert.assertEquals(3, map.size());
+    }
+
+    @Test
+    public void aggregateByKey() {
+        Map<Integer, Long> map = Ix.range(0, 100000).parallel(4).aggregateByKey(MOD_10, ZERO, SUM).first();
+
+        Assert.assertEquals(10, map.size());
+        long total = 0L;
+        for (int k = 0; k < 10; k++) {
+            long expected = 0L;
+            for (int i = k; i < 100000; i += 10) {
+                expected += i;
+            }
+            Assert.assertEquals(expected, map.get(k).longValue());
+            total += map.get(k);
+        }
+        Assert.assertEquals(4999950000L, total);
+    }
+
+    @Test
+    public void aggregateNullAggregate() {
+        Map<Integer, Long> map = Ix.range(0, 20).parallel(2).aggregateByKey(MOD_10, new IxSupplier<Long>() {
+            @Override
+            public Long get() {
+                return null;
+            }
+        }, new IxFunction2<Long, Integer, Long>() {
+            @Override
+            public Long apply(Long a, Integer b) {
+                return a == null ? 1L : a + 1;
+            }
+        }).first();
+
+        Assert.assertEquals(10, map.size());
+        Assert.assertEquals(2L, map.get(5).longValue());
+    }
+
+    @Test
+    public void executor() {
+        ExecutorService exec = Executors.newFixedThreadPool(2);
+        try {
+            Map<Integer, Long> map = Ix.range(0, 100).parallel(2, exec).aggregateByKey(MOD_10, ZERO, SUM).first();
+
+            Assert.assertEquals(10, map.size());
+            Assert.assertEquals(500L, map.get(5).longValue());
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void accumulatorThrows() {
+        try {
+            Ix.range(0, 100000).parallel(2).aggregateByKey(MOD_10, ZERO, new IxFunction2<Long, Integer, Long>() {
+                @Override
+                public Long apply(Long a, Integer b) {
+                    if (b == 5000) {
+                        throw new IllegalStateException("Forced failure");
+                    }
+                    return a + b;
+                }
+            }).first();
+            Assert.fail("Should have thrown");
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals("Forced failure", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void keySelectorThrows() {
+        try {
+            Ix.range(0, 100000).parallel(2).aggregateByKey(new IxFunction<Integer, Integer>() {
+                @Override
+                public Integer apply(Integer v) {
+                    if (v == 5000) {
+                        throw new IllegalStateException("Forced failure");
+                    }
+                    return v % 10;
+                }
+            }, ZERO, SUM).first();
+            Assert.fail("Should have thrown");
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals("Forced failure", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+public class ParallelIxTest {
+
+    static final IxFunction2<Long, Integer, Long> SUM = new IxFunction2<Long, Integer, Long>() {
+        @Override
+        public Long apply(Long a, Integer b) {
+            return a + b;
+        }
+    };
+
+    static final IxFunction2<Long, Long, Long> COMBINE = new IxFunction2<Long, Long, Long>() {
+        @Override
+        public Long apply(Long a, Long b) {
+            return a + b;
+        }
+    };
+
+    static final IxSupplier<List<Integer>> LIST = new IxSupplier<List<Integer>>() {
+        @Override
+        public List<Integer> get() {
+            return new ArrayList<Integer>();
+        }
+    };
+
+    static final IxConsumer2<List<Integer>, Integer> ADD = new IxConsumer2<List<Integer>, Integer>() {
+        @Override
+        public void accept(List<Integer> a, Integer b) {
+            a.add(b);
+        }
+    };
+
+    static final IxConsumer2<List<Integer>, List<Integer>> ADD_ALL = new IxConsumer2<List<Integer>, List<Integer>>() {
+        @Override
+        public void accept(List<Integer> a, List<Integer> b) {
+            a.addAll(b);
+        }
+    };
+
+    @Test
+    public void reduceRange() {
+        Ix<Long> source = Ix.range(1, 100000).parallel(4).reduce(0L, SUM, COMBINE);
+
+        IxTestHelper.assertValues(source, 5000050000L);
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void reduceUnsized() {
+        Ix<Long> source = Ix.range(1, 100000).filter(new IxPredicate<Integer>() {
+            @Override
+            public boolean test(Integer v) {
+                return true;
+            }
+        }).parallel(4).reduce(0L, SUM, COMBINE);
+
+        IxTestHelper.assertValues(source, 5000050000L);
+    }
+
+    @Test
+    public void reduceEmpty() {
+        IxTestHelper.assertValues(Ix.<Integer>empty().parallel(4).reduce(0L, SUM, COMBINE), 0L);
+    }
+
+    @Test
+    public void reduceEmptyIndexed() {
+        IxTestHelper.assertValues(Ix.range(1, 0).parallel(4).reduce(0L, SUM, COMBINE), 0L);
+    }
+
+    @Test
+    public void reduceFewerElementsThanChunks() {
+        IxTestHelper.assertValues(Ix.range(1, 3).parallel(4).reduce(0L, SUM, COMBINE), 6L);
+    }
+
+    @Test
+    public void collectKeepsOrder() {
+        List<Integer> list = Ix.range(0, 10000).parallel(3).collect(LIST, ADD, ADD_ALL).first();
+
+        Assert.assertEquals(IxTestHelper.range(0, 10000), list);
+    }
+
+    @Test
+    public void collectUnsizedKeepsOrder() {
+        Iterable<Integer> unsized = new Iterable<Integer>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                return Ix.range(0, 10000).iterator();
+            }
+        };
+        List<Integer> list = Ix.from(unsized).parallel(3).collect(LIST, ADD, ADD_ALL).first();
+
+        Assert.assertEquals(IxTestHelper.range(0, 10000), list);
+    }
+
+    @Test
+    public void collectList() {
+        List<Integer> list = Ix.from(IxTestHelper.range(0, 5000)).parallel(2).collect(LIST, ADD, ADD_ALL).first();
+
+        Assert.assertEquals(IxTestHelper.range(0, 5000), list);
+    }
+
+    @Test
+    public void executor() {
+        ExecutorService exec = Executors.newFixedThreadPool(2);
+        try {
+            IxTestHelper.assertValues(Ix.range(1, 100).parallel(2, exec).reduce(0L, SUM, COMBINE), 5050L);
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void runsOnOtherThread() {
+        final Thread current = Thread.currentThread();
+        Set<Thread> threads = Ix.range(1, 1000).parallel(2).collect(new IxSupplier<Set<Thread>>() {
+            @Override
+            public Set<Thread> get() {
+                return new HashSet<Thread>();
+            }
+        }, new IxConsumer2<Set<Thread>, Integer>() {
+            @Override
+            public void accept(Set<Thread> a, Integer b) {
+                a.add(Thread.currentThread());
+            }
+        }, new IxConsumer2<Set<Thread>, Set<Thread>>() {
+            @Override
+            public void accept(Set<Thread> a, Set<Thread> b) {
+                a.addAll(b);
+            }
+        }).first();
+
+        Assert.assertFalse(threads.isEmpty());
+        Assert.assertFalse(threads.contains(current));
+    }
+
+    @Test
+    public void accumulatorThrows() {
+        try {
+            Ix.range(1, 100).parallel(2).reduce(0L, new IxFunction2<Long, Integer, Long>() {
+                @Override
+                public Long apply(Long a, Integer b) {
+                    throw new IllegalStateException("Forced failure");
+                }
+            }, COMBINE).first();
+            Assert.fail("Should have thrown");
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals("Forced failure", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void sourceThrows() {
+        try {
+            Ix.concat(Ix.range(1, 2), new Iterable<Integer>() {
+                @Override
+                public Iterator<Integer> iterator() {
+                    throw new IllegalStateException("Forced failure");
+                }
+            }).parallel(2).reduce(0L, SUM, COMBINE).first();
+            Assert.fail("Should have thrown");
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals("Forced failure", ex.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parallelismNonPositive() {
+        Ix.range(1, 5).parallel(0);
+    }
+}
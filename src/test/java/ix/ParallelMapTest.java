@@ -0,0 +1,171 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.*;
+
+public class ParallelMapTest {
+
+    ExecutorService exec;
+
+    @Before
+    public void before() {
+        exec = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void after() {
+        exec.shutdownNow();
+    }
+
+    static IxFunction<Integer, Integer> slowTimes10(final int maxDelay) {
+        return new IxFunction<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) {
+                try {
+                    Thread.sleep(maxDelay - v % maxDelay);
+                } catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+                return v * 10;
+            }
+        };
+    }
+
+    @Test
+    public void ordered() {
+        Ix<Integer> source = Ix.range(1, 5).parallelMap(slowTimes10(5), 3, exec);
+
+        IxTestHelper.assertValues(source, 10, 20, 30, 40, 50);
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void orderedLong() {
+        List<Integer> list = Ix.range(0, 1000).parallelMap(new IxFunction<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) {
+                return v + 1;
+            }
+        }, 16, exec).toList();
+
+        Assert.assertEquals(IxTestHelper.range(1, 1000), list);
+    }
+
+    @Test
+    public void unordered() {
+        Ix<Integer> source = Ix.range(1, 5).parallelMapUnordered(slowTimes10(5), 3, exec);
+
+        List<Integer> list = source.toList();
+        Collections.sort(list);
+
+        Assert.assertEquals(Arrays.asList(10, 20, 30, 40, 50), list);
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void empty() {
+        IxTestHelper.assertValues(Ix.<Integer>empty().parallelMap(slowTimes10(5), 3, exec));
+
+        IxTestHelper.assertValues(Ix.<Integer>empty().parallelMapUnordered(slowTimes10(5), 3, exec));
+    }
+
+    @Test
+    public void boundedInFlight() {
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+
+        Ix.range(1, 50).parallelMap(new IxFunction<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) {
+                int a = active.incrementAndGet();
+                for (;;) {
+                    int m = maxActive.get();
+                    if (a <= m || maxActive.compareAndSet(m, a)) {
+                        break;
+                    }
+                }
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+                active.decrementAndGet();
+                return v;
+            }
+        }, 2, exec).run();
+
+        Assert.assertTrue("" + maxActive.get(), maxActive.get() <= 2);
+    }
+
+    @Test
+    public void mapperCrash() {
+        Ix<Integer> source = Ix.range(1, 5).parallelMap(new IxFunction<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) {
+                if (v == 3) {
+                    throw new IllegalArgumentException("Forced failure");
+                }
+                return v;
+            }
+        }, 2, exec);
+
+        Iterator<Integer> it = source.iterator();
+
+        Assert.assertEquals(1, it.next().intValue());
+        Assert.assertEquals(2, it.next().intValue());
+        try {
+            it.next();
+            Assert.fail("Should have thrown");
+        } catch (IllegalArgumentException ex) {
+            Assert.assertEquals("Forced failure", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void mapperCrashUnordered() {
+        Ix<Integer> source = Ix.range(1, 1).parallelMapUnordered(new IxFunction<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) {
+                throw new IllegalArgumentException("Forced failure");
+            }
+        }, 2, exec);
+
+        try {
+            source.first();
+            Assert.fail("Should have thrown");
+        } catch (IllegalArgumentException ex) {
+            Assert.assertEquals("Forced failure", ex.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parallelismNonPositive() {
+        Ix.range(1, 5).parallelMap(slowTimes10(5), 0, exec);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void executorNull() {
+        Ix.range(1, 5).parallelMap(slowTimes10(5), 1, null);
+    }
+}
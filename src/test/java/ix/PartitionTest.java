@@ -0,0 +1,173 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+public class PartitionTest {
+
+    static final IxFunction<Integer, Integer> MOD_2 = new IxFunction<Integer, Integer>() {
+        @Override
+        public Integer apply(Integer v) {
+            return v % 2;
+        }
+    };
+
+    @Test
+    public void normal() {
+        Ix<Ix<Integer>> source = Ix.range(1, 10).partition(2, MOD_2);
+
+        List<Ix<Integer>> lanes = source.toList();
+        Assert.assertEquals(2, lanes.size());
+
+        IxTestHelper.assertValues(lanes.get(0), 2, 4, 6, 8, 10);
+        IxTestHelper.assertValues(lanes.get(1), 1, 3, 5, 7, 9);
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void empty() {
+        List<Ix<Integer>> lanes = Ix.<Integer>empty().partition(3, MOD_2).toList();
+
+        for (Ix<Integer> lane : lanes) {
+            IxTestHelper.assertValues(lane);
+        }
+    }
+
+    @Test
+    public void nullElements() {
+        List<Ix<Integer>> lanes = Ix.fromArray(1, null, 3).partition(2, new IxFunction<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) {
+                return v == null ? 0 : 1;
+            }
+        }).toList();
+
+        IxTestHelper.assertValues(lanes.get(0), (Integer)null);
+        IxTestHelper.assertValues(lanes.get(1), 1, 3);
+    }
+
+    @Test
+    public void consumedOnce() {
+        Ix<Integer> lane = Ix.range(1, 10).partition(2, MOD_2).first();
+
+        lane.iterator();
+        try {
+            lane.iterator();
+            Assert.fail("Should have thrown");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void threads() throws Exception {
+        final int n = 4;
+        List<Ix<Integer>> lanes = Ix.range(0, 100000).partition(n, new IxFunction<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) {
+                return v % n;
+            }
+        }, 16).toList();
+
+        ExecutorService exec = Executors.newFixedThreadPool(n);
+        try {
+            List<Future<List<Integer>>> results = new ArrayList<Future<List<Integer>>>();
+            for (final Ix<Integer> lane : lanes) {
+                results.add(exec.submit(new Callable<List<Integer>>() {
+                    @Override
+                    public List<Integer> call() throws Exception {
+                        return lane.toList();
+                    }
+                }));
+            }
+
+            int total = 0;
+            for (Future<List<Integer>> f : results) {
+                List<Integer> list = f.get();
+                int k = list.get(0) % n;
+                int expected = list.get(0);
+                for (Integer v : list) {
+                    Assert.assertEquals(expected, v.intValue());
+                    Assert.assertEquals(k, v % n);
+                    expected += n;
+                }
+                total += list.size();
+            }
+            Assert.assertEquals(100000, total);
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void closedLaneDoesNotBlock() throws Exception {
+        List<Ix<Integer>> lanes = Ix.range(1, 1000).partition(2, MOD_2, 4).toList();
+
+        Iterator<Integer> even = lanes.get(0).iterator();
+        Assert.assertEquals(2, even.next().intValue());
+        ((Closeable)even).close();
+        Assert.assertFalse(even.hasNext());
+
+        Assert.assertEquals(500, lanes.get(1).count().first().intValue());
+    }
+
+    @Test
+    public void error() {
+        List<Ix<Integer>> lanes = Ix.concat(Ix.range(1, 4), new Iterable<Integer>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                throw new IllegalStateException("Forced failure");
+            }
+        }).partition(2, MOD_2).toList();
+
+        Iterator<Integer> odd = lanes.get(1).iterator();
+        Assert.assertEquals(1, odd.next().intValue());
+        Assert.assertEquals(3, odd.next().intValue());
+        try {
+            odd.hasNext();
+            Assert.fail("Should have thrown");
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals("Forced failure", ex.getMessage());
+        }
+
+        Iterator<Integer> even = lanes.get(0).iterator();
+        Assert.assertEquals(2, even.next().intValue());
+        Assert.assertEquals(4, even.next().intValue());
+        try {
+            even.hasNext();
+            Assert.fail("Should have thrown");
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals("Forced failure", ex.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nNonPositive() {
+        Ix.range(1, 5).partition(0, MOD_2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bufferSizeNonPositive() {
+        Ix.range(1, 5).partition(2, MOD_2, 0);
+    }
+}
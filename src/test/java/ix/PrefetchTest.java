@@ -0,0 +1,157 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.*;
+
+public class PrefetchTest {
+
+    @Test
+    public void normal() {
+        Ix<Integer> source = Ix.range(1, 5).prefetch(2);
+
+        IxTestHelper.assertValues(source, 1, 2, 3, 4, 5);
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void empty() {
+        IxTestHelper.assertValues(Ix.<Integer>empty().prefetch(2));
+    }
+
+    @Test
+    public void nullElements() {
+        IxTestHelper.assertValues(Ix.fromArray(1, null, 3).prefetch(1), 1, null, 3);
+    }
+
+    @Test
+    public void long1() {
+        Assert.assertEquals(IxTestHelper.range(0, 100000), Ix.range(0, 100000).prefetch(16).toList());
+    }
+
+    @Test
+    public void long2() {
+        Assert.assertEquals(IxTestHelper.range(0, 100000), Ix.range(0, 100000).prefetch(1).toList());
+    }
+
+    @Test
+    public void executor() {
+        ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            IxTestHelper.assertValues(Ix.range(1, 5).prefetch(3, exec), 1, 2, 3, 4, 5);
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void runsOnOtherThread() {
+        final Thread current = Thread.currentThread();
+        List<Boolean> list = Ix.range(1, 3).map(new IxFunction<Integer, Boolean>() {
+            @Override
+            public Boolean apply(Integer v) {
+                return Thread.currentThread() == current;
+            }
+        }).prefetch(2).toList();
+
+        Assert.assertEquals(Arrays.asList(false, false, false), list);
+    }
+
+    @Test
+    public void error() {
+        Iterator<Integer> it = Ix.concat(Ix.range(1, 2), new Iterable<Integer>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                throw new IllegalStateException("Forced failure");
+            }
+        }).prefetch(4).iterator();
+
+        Assert.assertEquals(1, it.next().intValue());
+        Assert.assertEquals(2, it.next().intValue());
+        try {
+            it.hasNext();
+            Assert.fail("Should have thrown");
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals("Forced failure", ex.getMessage());
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void close() throws Exception {
+        final AtomicInteger produced = new AtomicInteger();
+        Iterator<Integer> it = Ix.range(1, Integer.MAX_VALUE - 1).doOnNext(new IxConsumer<Integer>() {
+            @Override
+            public void accept(Integer v) {
+                produced.incrementAndGet();
+            }
+        }).prefetch(2).iterator();
+
+        Assert.assertEquals(1, it.next().intValue());
+
+        ((Closeable)it).close();
+
+        Assert.assertFalse(it.hasNext());
+
+        Thread.sleep(200);
+
+        Assert.assertTrue("" + produced.get(), produced.get() <= 4);
+    }
+
+    @Test(timeout = 5000)
+    public void exactBufferSize() throws Exception {
+        final AtomicInteger produced = new AtomicInteger();
+        Iterator<Integer> it = Ix.range(1, 100).doOnNext(new IxConsumer<Integer>() {
+            @Override
+            public void accept(Integer v) {
+                produced.incrementAndGet();
+            }
+        }).prefetch(3).iterator();
+
+        Assert.assertEquals(1, it.next().intValue());
+
+        // wait until the producer has stopped, giving a slow host up to 3 seconds
+        long deadline = System.currentTimeMillis() + 3000;
+        int p = produced.get();
+        for (;;) {
+            Thread.sleep(50);
+            int q = produced.get();
+            if ((q == p && q >= 5) || System.currentTimeMillis() > deadline) {
+                break;
+            }
+            p = q;
+        }
+
+        // at most 1 consumed, 3 buffered and 1 waiting for space
+        Assert.assertTrue("" + produced.get(), produced.get() <= 5);
+
+        Assert.assertEquals(2, it.next().intValue());
+        Assert.assertEquals(3, it.next().intValue());
+
+        ((Closeable)it).close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bufferSizeNonPositive() {
+        Ix.range(1, 5).prefetch(0);
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.*;
+
+public class ReplaySpillTest {
+
+    static final class IntCodec implements IxCodec<Integer> {
+
+        int encoded;
+
+        @Override
+        public void encode(Integer value, DataOutput output) throws IOException {
+            encoded++;
+            output.writeInt(value);
+        }
+
+        @Override
+        public Integer decode(DataInput input) throws IOException {
+            return input.readInt();
+        }
+    }
+
+    static Ix<Integer> counted(int start, int count, final int[] counter) {
+        return Ix.range(start, count).doOnNext(new IxConsumer<Integer>() {
+            @Override
+            public void accept(Integer v) {
+                counter[0]++;
+            }
+        });
+    }
+
+    @Test
+    public void normal() {
+        int[] counter = { 0 };
+        IntCodec codec = new IntCodec();
+        Ix<Integer> source = counted(1, 5, counter).replay(2, codec);
+
+        IxTestHelper.assertValues(source, 1, 2, 3, 4, 5);
+        IxTestHelper.assertValues(source, 1, 2, 3, 4, 5);
+        IxTestHelper.assertValues(source, 1, 2, 3, 4, 5);
+
+        IxTestHelper.assertNoRemove(source);
+
+        Assert.assertEquals(5, counter[0]);
+        Assert.assertEquals(3, codec.encoded);
+    }
+
+    @Test
+    public void allInMemory() {
+        IntCodec codec = new IntCodec();
+        Ix<Integer> source = Ix.range(1, 5).replay(10, codec);
+
+        IxTestHelper.assertValues(source, 1, 2, 3, 4, 5);
+        IxTestHelper.assertValues(source, 1, 2, 3, 4, 5);
+
+        Assert.assertEquals(0, codec.encoded);
+    }
+
+    @Test
+    public void allSpilled() {
+        Ix<Integer> source = Ix.range(1, 5).replay(0, new IntCodec());
+
+        IxTestHelper.assertValues(source, 1, 2, 3, 4, 5);
+        IxTestHelper.assertValues(source, 1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void empty() {
+        Ix<Integer> source = Ix.<Integer>empty().replay(0, new IntCodec());
+
+        IxTestHelper.assertValues(source);
+        IxTestHelper.assertValues(source);
+    }
+
+    @Test
+    public void lockstep() {
+        int[] counter = { 0 };
+        Ix<Integer> source = counted(1, 5, counter).replay(1, new IntCodec());
+
+        Iterator<Integer> it1 = source.iterator();
+        Iterator<Integer> it2 = source.iterator();
+
+        for (int i = 1; i <= 5; i++) {
+            Assert.assertEquals(i, it1.next().intValue());
+            Assert.assertEquals(i, it2.next().intValue());
+            Assert.assertEquals(i, counter[0]);
+        }
+        Assert.assertFalse(it1.hasNext());
+        Assert.assertFalse(it2.hasNext());
+    }
+
+    @Test
+    public void many() {
+        int[] counter = { 0 };
+        Ix<Integer> source = counted(0, 100000, counter).replay(1000, new IntCodec());
+
+        Iterator<Integer> it1 = source.iterator();
+        for (int i = 0; i < 50000; i++) {
+            Assert.assertEquals(i, it1.next().intValue());
+        }
+
+        // a second pass interleaved with the first one
+        Iterator<Integer> it2 = source.iterator();
+        for (int i = 0; i < 100000; i++) {
+            Assert.assertEquals(i, it2.next().intValue());
+            if (i < 50000) {
+                Assert.assertEquals(50000 + i, it1.next().intValue());
+            }
+        }
+        Assert.assertFalse(it1.hasNext());
+        Assert.assertFalse(it2.hasNext());
+
+        Assert.assertEquals(IxTestHelper.range(0, 100000), source.toList());
+        Assert.assertEquals(100000, counter[0]);
+    }
+
+    @Test
+    public void variableLength() {
+        IxCodec<String> codec = new IxCodec<String>() {
+            @Override
+            public void encode(String value, DataOutput output) throws IOException {
+                output.writeUTF(value);
+            }
+
+            @Override
+            public String decode(DataInput input) throws IOException {
+                return input.readUTF();
+            }
+        };
+        List<String> expected = new ArrayList<String>();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append((char)('a' + i % 26));
+            expected.add(sb.toString());
+        }
+
+        Ix<String> source = Ix.from(expected).replay(10, codec);
+
+        Assert.assertEquals(expected, source.toList());
+        Assert.assertEquals(expected, source.toList());
+    }
+
+    @Test
+    public void codecError() {
+        Ix<Integer> source = Ix.range(1, 5).replay(2, new IxCodec<Integer>() {
+            @Override
+            public void encode(Integer value, DataOutput output) throws IOException {
+                throw new IOException("Forced failure");
+            }
+
+            @Override
+            public Integer decode(DataInput input) throws IOException {
+                return input.readInt();
+            }
+        });
+
+        Iterator<Integer> it = source.iterator();
+        Assert.assertEquals(1, it.next().intValue());
+        Assert.assertEquals(2, it.next().intValue());
+        try {
+            it.next();
+            Assert.fail("Should have thrown");
+        } catch (RuntimeException ex) {
+            Assert.assertEquals("Forced failure", ex.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void close() {
+        CloseableIx<Integer> source = Ix.range(1, 5).replay(1, new IntCodec());
+
+        Iterator<Integer> it = source.iterator();
+        IxTestHelper.assertValues(source, 1, 2, 3, 4, 5);
+        Assert.assertEquals(1, it.next().intValue());
+
+        source.close();
+        source.close();
+
+        try {
+            it.next();
+            Assert.fail("Should have thrown");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+        try {
+            source.iterator();
+            Assert.fail("Should have thrown");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void memoryLimitNegative() {
+        Ix.range(1, 5).replay(-1, new IntCodec());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+
+import org.junit.*;
+
+public class SemiJoinTest {
+
+    static final IxFunction<Integer, Integer> IDENTITY = IdentityHelper.instance();
+
+    static final IxFunction<String, Integer> LENGTH = new IxFunction<String, Integer>() {
+        @Override
+        public Integer apply(String v) {
+            return v.length();
+        }
+    };
+
+    @Test
+    public void semi() {
+        Ix<Integer> source = Ix.range(1, 5).semiJoin(Ix.fromArray("a", "ccc", "eeeee", "ccc"), IDENTITY, LENGTH);
+
+        IxTestHelper.assertValues(source, 1, 3, 5);
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void semiBloom() {
+        Ix<Integer> source = Ix.range(1, 5).semiJoin(Ix.fromArray("a", "ccc", "eeeee"), IDENTITY, LENGTH, true);
+
+        IxTestHelper.assertValues(source, 1, 3, 5);
+    }
+
+    @Test
+    public void anti() {
+        Ix<Integer> source = Ix.range(1, 5).antiJoin(Ix.fromArray("a", "ccc", "eeeee"), IDENTITY, LENGTH);
+
+        IxTestHelper.assertValues(source, 2, 4);
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void antiBloom() {
+        Ix<Integer> source = Ix.range(1, 5).antiJoin(Ix.fromArray("a", "ccc", "eeeee"), IDENTITY, LENGTH, true);
+
+        IxTestHelper.assertValues(source, 2, 4);
+    }
+
+    @Test
+    public void otherEmpty() {
+        IxTestHelper.assertValues(Ix.range(1, 3).semiJoin(Ix.<String>empty(), IDENTITY, LENGTH, true));
+
+        IxTestHelper.assertValues(Ix.range(1, 3).antiJoin(Ix.<String>empty(), IDENTITY, LENGTH, true), 1, 2, 3);
+    }
+
+    @Test
+    public void nullKeys() {
+        Ix<Integer> source = Ix.fromArray(1, null, 3).semiJoin(Ix.fromArray((Integer)null), IDENTITY, IDENTITY, true);
+
+        IxTestHelper.assertValues(source, (Integer)null);
+    }
+
+    @Test
+    public void largeBloom() {
+        List<Integer> evens = Ix.range(0, 10000).filter(new IxPredicate<Integer>() {
+            @Override
+            public boolean test(Integer v) {
+                return v % 2 == 0;
+            }
+        }).toList();
+
+        Assert.assertEquals(5000, Ix.range(0, 10000).semiJoin(evens, IDENTITY, IDENTITY, true).count().first().intValue());
+        Assert.assertEquals(5000, Ix.range(0, 10000).antiJoin(evens, IDENTITY, IDENTITY, true).count().first().intValue());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void otherNull() {
+        Ix.range(1, 5).semiJoin(null, IDENTITY, LENGTH);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+public class SharedTest {
+
+    @Test
+    public void normal() {
+        Ix<Integer> source = Ix.range(1, 5).shared(2);
+
+        IxTestHelper.assertValues(source, 1, 2, 3, 4, 5);
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void consumedOnce() {
+        Ix<Integer> source = Ix.range(1, 5).shared(2);
+
+        Iterator<Integer> it1 = source.iterator();
+        Iterator<Integer> it2 = source.iterator();
+
+        Assert.assertEquals(1, it1.next().intValue());
+        Assert.assertEquals(3, it2.next().intValue());
+        Assert.assertEquals(2, it1.next().intValue());
+        Assert.assertEquals(5, it1.next().intValue());
+        Assert.assertEquals(4, it2.next().intValue());
+        Assert.assertFalse(it1.hasNext());
+        Assert.assertFalse(it2.hasNext());
+
+        IxTestHelper.assertValues(source);
+    }
+
+    @Test
+    public void nullElements() {
+        IxTestHelper.assertValues(Ix.fromArray(1, null, 3).shared(2), 1, null, 3);
+    }
+
+    @Test(timeout = 10000)
+    public void threads() throws Exception {
+        final Ix<Integer> source = Ix.range(0, 100000).shared(64);
+        int n = 4;
+
+        ExecutorService exec = Executors.newFixedThreadPool(n);
+        try {
+            List<Future<List<Integer>>> results = new ArrayList<Future<List<Integer>>>();
+            for (int i = 0; i < n; i++) {
+                results.add(exec.submit(new Callable<List<Integer>>() {
+                    @Override
+                    public List<Integer> call() throws Exception {
+                        return source.toList();
+                    }
+                }));
+            }
+
+            List<Integer> all = new ArrayList<Integer>();
+            for (Future<List<Integer>> f : results) {
+                all.addAll(f.get());
+            }
+            Collections.sort(all);
+
+            Assert.assertEquals(IxTestHelper.range(0, 100000), all);
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void error() {
+        Ix<Integer> source = Ix.concat(Ix.range(1, 3), new Iterable<Integer>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                throw new IllegalStateException("Forced failure");
+            }
+        }).shared(2);
+
+        Iterator<Integer> it = source.iterator();
+        Assert.assertEquals(1, it.next().intValue());
+        Assert.assertEquals(2, it.next().intValue());
+        Assert.assertEquals(3, it.next().intValue());
+        try {
+            it.hasNext();
+            Assert.fail("Should have thrown");
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals("Forced failure", ex.getMessage());
+        }
+
+        try {
+            source.iterator().hasNext();
+            Assert.fail("Should have thrown");
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals("Forced failure", ex.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void batchSizeNonPositive() {
+        Ix.range(1, 5).shared(0);
+    }
+}
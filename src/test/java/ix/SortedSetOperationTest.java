@@ -0,0 +1,122 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+
+import org.junit.Test;
+
+public class SortedSetOperationTest {
+
+    @SuppressWarnings("unchecked")
+    static final Comparator<Integer> NATURAL = (Comparator<Integer>)(Comparator<?>)SelfComparator.INSTANCE;
+
+    @Test
+    public void exceptNormal() {
+        Ix<Integer> source = Ix.range(1, 5).exceptSorted(Ix.range(3, 5), NATURAL);
+
+        IxTestHelper.assertValues(source, 1, 2, 6, 7);
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void exceptFirstEmpty() {
+        Ix<Integer> source = Ix.<Integer>empty().exceptSorted(Ix.range(3, 5), NATURAL);
+
+        IxTestHelper.assertValues(source, 3, 4, 5, 6, 7);
+    }
+
+    @Test
+    public void exceptSecondEmpty() {
+        Ix<Integer> source = Ix.range(1, 5).exceptSorted(Ix.<Integer>empty(), NATURAL);
+
+        IxTestHelper.assertValues(source, 1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void exceptWithDuplicates() {
+        Ix<Integer> source = Ix.fromArray(1, 2, 2, 3, 4, 5, 5).exceptSorted(Ix.fromArray(1, 1, 2, 3, 6, 6), NATURAL);
+
+        IxTestHelper.assertValues(source, 4, 5, 6);
+    }
+
+    @Test
+    public void intersectNormal() {
+        Ix<Integer> source = Ix.range(1, 5).intersectSorted(Ix.range(3, 5), NATURAL);
+
+        IxTestHelper.assertValues(source, 3, 4, 5);
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void intersectDisjoint() {
+        Ix<Integer> source = Ix.range(1, 5).intersectSorted(Ix.range(6, 5), NATURAL);
+
+        IxTestHelper.assertValues(source);
+    }
+
+    @Test
+    public void intersectWithDuplicates() {
+        Ix<Integer> source = Ix.fromArray(1, 2, 2, 3, 5, 5).intersectSorted(Ix.fromArray(2, 2, 4, 5, 5, 6), NATURAL);
+
+        IxTestHelper.assertValues(source, 2, 5);
+    }
+
+    @Test
+    public void intersectEmpty() {
+        IxTestHelper.assertValues(Ix.<Integer>empty().intersectSorted(Ix.range(1, 5), NATURAL));
+
+        IxTestHelper.assertValues(Ix.range(1, 5).intersectSorted(Ix.<Integer>empty(), NATURAL));
+    }
+
+    @Test
+    public void unionNormal() {
+        Ix<Integer> source = Ix.range(1, 5).unionSorted(Ix.range(3, 5), NATURAL);
+
+        IxTestHelper.assertValues(source, 1, 2, 3, 4, 5, 6, 7);
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void unionInterleaved() {
+        Ix<Integer> source = Ix.fromArray(1, 3, 3, 5).unionSorted(Ix.fromArray(2, 2, 3, 4, 6), NATURAL);
+
+        IxTestHelper.assertValues(source, 1, 2, 3, 4, 5, 6);
+    }
+
+    @Test
+    public void unionEmpty() {
+        IxTestHelper.assertValues(Ix.<Integer>empty().unionSorted(Ix.range(1, 2), NATURAL), 1, 2);
+
+        IxTestHelper.assertValues(Ix.range(1, 2).unionSorted(Ix.<Integer>empty(), NATURAL), 1, 2);
+    }
+
+    @Test
+    public void reverseOrder() {
+        Comparator<Integer> reverse = Collections.reverseOrder();
+
+        IxTestHelper.assertValues(Ix.fromArray(5, 4, 3).unionSorted(Ix.fromArray(4, 2), reverse), 5, 4, 3, 2);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void comparatorNull() {
+        Ix.range(1, 5).unionSorted(Ix.range(1, 5), null);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.util.*;
+
+import org.junit.*;
+
+public class SplitViewTest {
+
+    static List<String> strings(Iterable<CharSequence> source) {
+        List<String> list = new ArrayList<String>();
+        for (CharSequence cs : source) {
+            list.add(cs.toString());
+        }
+        return list;
+    }
+
+    static List<String> cursor(SplitCursor c) {
+        List<String> list = new ArrayList<String>();
+        while (c.next()) {
+            list.add(c.source().subSequence(c.start(), c.end()).toString());
+        }
+        return list;
+    }
+
+    @Test
+    public void singleChar() {
+        Ix<CharSequence> source = Ix.splitView("a,bb,,c", ',');
+
+        Assert.assertEquals(Arrays.asList("a", "bb", "", "c"), strings(source));
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void sameAsSplit() {
+        String[] inputs = { "", ",", "a", "a,", ",a", "a,,b", "ab, cd, ef" };
+        for (String s : inputs) {
+            Assert.assertEquals(s, Ix.split(s, ",").toList(), strings(Ix.splitView(s, ',')));
+            Assert.assertEquals(s, Ix.split(s, ", ").toList(), strings(Ix.splitView(s, ", ")));
+            Assert.assertEquals(s, Ix.split(s, ",").toList(), cursor(Ix.splitCursor(s, ',')));
+        }
+    }
+
+    @Test
+    public void multiChar() {
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), strings(Ix.splitView("a::b::c", "::")));
+    }
+
+    @Test
+    public void nonStringSource() {
+        StringBuilder sb = new StringBuilder("x--y-z--");
+
+        Assert.assertEquals(Arrays.asList("x", "y-z", ""), strings(Ix.splitView(sb, new StringBuilder("--"))));
+        Assert.assertEquals(Arrays.asList("x", "", "y", "z", "", ""), strings(Ix.splitView(sb, '-')));
+    }
+
+    @Test
+    public void views() {
+        CharSequence cs = Ix.splitView("abc,defg", ',').last();
+
+        Assert.assertFalse(cs instanceof String);
+        Assert.assertEquals(4, cs.length());
+        Assert.assertEquals('e', cs.charAt(1));
+        Assert.assertEquals("ef", cs.subSequence(1, 3).toString());
+    }
+
+    @Test
+    public void equalTokens() {
+        List<CharSequence> list = Ix.splitView("a,bc,a,bc", ',').toList();
+
+        Assert.assertEquals(list.get(0), list.get(2));
+        Assert.assertEquals(list.get(1), list.get(3));
+        Assert.assertFalse(list.get(0).equals(list.get(1)));
+        Assert.assertFalse(list.get(0).equals("a"));
+        Assert.assertEquals("bc".hashCode(), list.get(1).hashCode());
+
+        Assert.assertEquals(2, Ix.splitView("a,bc,a,bc", ',').distinct().count().first().intValue());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void viewIndexOutOfBounds() {
+        Ix.splitView("abc,defg", ',').first().charAt(3);
+    }
+
+    @Test
+    public void cursorOffsets() {
+        SplitCursor c = Ix.splitCursor("ab;;cde", ";;");
+
+        Assert.assertTrue(c.next());
+        Assert.assertEquals(0, c.start());
+        Assert.assertEquals(2, c.end());
+        Assert.assertTrue(c.next());
+        Assert.assertEquals(4, c.start());
+        Assert.assertEquals(7, c.end());
+        Assert.assertFalse(c.next());
+        Assert.assertFalse(c.next());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptySeparator() {
+        Ix.splitView("abc", "");
+    }
+}
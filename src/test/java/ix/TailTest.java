@@ -0,0 +1,180 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.*;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+public class TailTest {
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** Completes the sequence at the first poll finding no new bytes. */
+    static final IxFunction<Integer, Long> STOP = new IxFunction<Integer, Long>() {
+        @Override
+        public Long apply(Integer t) {
+            return -1L;
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    File file;
+
+    @Before
+    public void before() throws IOException {
+        file = folder.newFile("ixtail.log");
+    }
+
+    void append(String content) throws IOException {
+        OutputStream out = new FileOutputStream(file, true);
+        try {
+            out.write(content.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+
+    static List<String> strings(Ix<CharSequence> source) {
+        List<String> list = new ArrayList<String>();
+        for (CharSequence cs : source) {
+            list.add(cs.toString());
+        }
+        return list;
+    }
+
+    @Test
+    public void completeLinesOnly() throws IOException {
+        append("abc\r\ndef\n\nárvíz\npartial");
+
+        Ix<CharSequence> source = Ix.tail(file, UTF_8, STOP);
+
+        Assert.assertEquals(Arrays.asList("abc", "def", "", "árvíz"), strings(source));
+
+        IxTestHelper.assertNoRemove(source);
+    }
+
+    @Test
+    public void longLines() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < IxTail.BUFFER_SIZE * 2 + 100; i++) {
+            sb.append((char)('a' + i % 26));
+        }
+        String line = sb.toString();
+        append(line + "\nx\n" + line + "\n");
+
+        Assert.assertEquals(Arrays.asList(line, "x", line), strings(Ix.tail(file, UTF_8, STOP)));
+    }
+
+    @Test(timeout = 10000)
+    public void follows() throws Exception {
+        append("first\nsec");
+
+        final List<Integer> polls = Collections.synchronizedList(new ArrayList<Integer>());
+        Iterator<CharSequence> it = Ix.tail(file, UTF_8, new IxFunction<Integer, Long>() {
+            @Override
+            public Long apply(Integer t) {
+                polls.add(t);
+                return 10L;
+            }
+        }).iterator();
+
+        Assert.assertEquals("first", it.next().toString());
+
+        Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                    append("ond\nthird\n");
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                }
+            }
+        });
+        t.start();
+
+        Assert.assertEquals("second", it.next().toString());
+        Assert.assertEquals("third", it.next().toString());
+
+        Assert.assertTrue(polls.toString(), polls.size() > 1);
+        Assert.assertEquals(0, polls.get(0).intValue());
+        Assert.assertEquals(1, polls.get(1).intValue());
+
+        ((Closeable)it).close();
+
+        Assert.assertFalse(it.hasNext());
+        t.join();
+    }
+
+    @Test
+    public void truncated() throws IOException {
+        append("abc\ndef\n");
+
+        final File f = file;
+        Iterator<CharSequence> it = Ix.tail(file, UTF_8, new IxFunction<Integer, Long>() {
+            @Override
+            public Long apply(Integer t) {
+                if (f.length() > 4) {
+                    try {
+                        new FileOutputStream(f).close();
+                        append("x\n");
+                    } catch (IOException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                    return 0L;
+                }
+                return -1L;
+            }
+        }).iterator();
+
+        Assert.assertEquals("abc", it.next().toString());
+        Assert.assertEquals("def", it.next().toString());
+        Assert.assertEquals("x", it.next().toString());
+        Assert.assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void defaultBackoff() {
+        Assert.assertEquals(1L, IxTail.Backoff.INSTANCE.apply(0).longValue());
+        Assert.assertEquals(8L, IxTail.Backoff.INSTANCE.apply(3).longValue());
+        Assert.assertEquals(1000L, IxTail.Backoff.INSTANCE.apply(10).longValue());
+        Assert.assertEquals(1000L, IxTail.Backoff.INSTANCE.apply(1000).longValue());
+    }
+
+    @Test
+    public void missingFile() {
+        file.delete();
+
+        try {
+            Ix.tail(file, UTF_8, STOP).first();
+            Assert.fail("Should have thrown");
+        } catch (RuntimeException ex) {
+            Assert.assertTrue(ex.toString(), ex.getCause() instanceof FileNotFoundException);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void multiByteLineBreak() {
+        Ix.tail(file, Charset.forName("UTF-16"), STOP);
+    }
+}
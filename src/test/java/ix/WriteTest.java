@@ -0,0 +1,231 @@
+/*
+ * Copyright 2011-2016 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ix;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.Charset;
+import java.util.*;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+public class WriteTest {
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    static final IxConsumer2<Integer, ByteBuffer> INT_ENCODER = new IxConsumer2<Integer, ByteBuffer>() {
+        @Override
+        public void accept(Integer t, ByteBuffer u) {
+            u.putInt(t);
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    File file;
+
+    @Before
+    public void before() throws IOException {
+        file = folder.newFile("ixwrite.txt");
+    }
+
+    List<String> readLines(Charset charset) {
+        List<String> list = new ArrayList<String>();
+        for (CharSequence cs : Ix.lines(file, charset)) {
+            list.add(cs.toString());
+        }
+        return list;
+    }
+
+    static List<Integer> ints(byte[] bytes) {
+        List<Integer> list = new ArrayList<Integer>();
+        ByteBuffer b = ByteBuffer.wrap(bytes);
+        while (b.hasRemaining()) {
+            list.add(b.getInt());
+        }
+        return list;
+    }
+
+    @Test
+    public void writeLines() {
+        Ix.fromArray("abc", "", "árvíz", "def").writeLines(file, UTF_8);
+
+        Assert.assertEquals(Arrays.asList("abc", "", "árvíz", "def"), readLines(UTF_8));
+    }
+
+    @Test
+    public void writeLinesNonStrings() {
+        Ix.fromArray(1, null, 3).writeLines(file, UTF_8);
+
+        Assert.assertEquals(Arrays.asList("1", "null", "3"), readLines(UTF_8));
+    }
+
+    @Test
+    public void writeLinesSmallBuffer() {
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            expected.add("line " + i + " árvíztűrő tükörfúrógép");
+        }
+
+        Ix.from(expected).writeLines(file, UTF_8, 7);
+
+        Assert.assertEquals(expected, readLines(UTF_8));
+    }
+
+    @Test
+    public void writeLinesBackground() {
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 100000; i++) {
+            expected.add("line " + i);
+        }
+
+        Ix.from(expected).writeLines(file, UTF_8, 1000, true);
+
+        Assert.assertEquals(expected, readLines(UTF_8));
+    }
+
+    @Test
+    public void writeLinesCharset() {
+        Charset utf16 = Charset.forName("UTF-16");
+
+        Ix.fromArray("abc", "def").writeLines(file, utf16, 5);
+
+        Assert.assertEquals(Arrays.asList("abc", "def"), readLines(utf16));
+    }
+
+    @Test
+    public void writeLinesEmpty() {
+        Ix.<String>empty().writeLines(file, UTF_8);
+
+        Assert.assertEquals(0L, file.length());
+    }
+
+    @Test
+    public void writeLinesError() {
+        try {
+            Ix.concat(Ix.just("abc"), Ix.<String>generate(new IxConsumer<IxEmitter<String>>() {
+                @Override
+                public void accept(IxEmitter<String> t) {
+                    throw new IllegalStateException("Forced failure");
+                }
+            })).writeLines(file, UTF_8, 16, true);
+            Assert.fail("Should have thrown");
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals("Forced failure", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void writeTo() {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+
+        Ix.range(1, 1000).writeTo(Channels.newChannel(bout), INT_ENCODER);
+
+        Assert.assertEquals(IxTestHelper.range(1, 1000), ints(bout.toByteArray()));
+    }
+
+    @Test
+    public void writeToOverflow() {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+
+        // 6 bytes per buffer: the second int of each buffer overflows and is retried
+        Ix.range(1, 100).writeTo(Channels.newChannel(bout), INT_ENCODER, 6, false);
+
+        Assert.assertEquals(IxTestHelper.range(1, 100), ints(bout.toByteArray()));
+    }
+
+    @Test
+    public void writeToBackground() {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+
+        Ix.range(1, 100000).writeTo(Channels.newChannel(bout), INT_ENCODER, 64, true);
+
+        Assert.assertEquals(IxTestHelper.range(1, 100000), ints(bout.toByteArray()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void writeToElementTooLarge() {
+        Ix.range(1, 5).writeTo(Channels.newChannel(new ByteArrayOutputStream()), INT_ENCODER, 3, false);
+    }
+
+    @Test
+    public void writeToElementTooLargeAfterSmallOne() {
+        IxConsumer2<Integer, ByteBuffer> encoder = new IxConsumer2<Integer, ByteBuffer>() {
+            @Override
+            public void accept(Integer t, ByteBuffer u) {
+                u.put(new byte[t]);
+            }
+        };
+        try {
+            Ix.fromArray(1, 10).writeTo(Channels.newChannel(new ByteArrayOutputStream()), encoder, 8, false);
+            Assert.fail("Should have thrown");
+        } catch (IllegalArgumentException ex) {
+            Assert.assertTrue(ex.getMessage(), ex.getMessage().endsWith(": 10"));
+        }
+    }
+
+    @Test
+    public void writeToChannelError() {
+        WritableByteChannel ch = new WritableByteChannel() {
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                throw new IOException("Forced failure");
+            }
+        };
+
+        try {
+            Ix.range(1, 1000).writeTo(ch, INT_ENCODER, 16, true);
+            Assert.fail("Should have thrown");
+        } catch (RuntimeException ex) {
+            Assert.assertEquals("Forced failure", ex.getCause().getMessage());
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void writeLinesBufferSmallerThanChar() {
+        try {
+            Ix.fromArray("a\u20acb").writeLines(file, UTF_8, 2);
+            Assert.fail("Should have thrown");
+        } catch (IllegalArgumentException ex) {
+            Assert.assertTrue(ex.getMessage(), ex.getMessage().startsWith("bufferSize >= 3"));
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void writeLinesBufferOfMaxCharSize() {
+        Ix.fromArray("a\u20acb", "\u20ac").writeLines(file, UTF_8, 3);
+
+        Assert.assertEquals(Arrays.asList("a\u20acb", "\u20ac"), readLines(UTF_8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bufferSizeNonPositive() {
+        Ix.range(1, 5).writeLines(file, UTF_8, 0);
+    }
+}